@@ -1,4 +1,9 @@
-import type { FileUploadResponse, FileDownloadResponse, MessageSearchResult } from '../types';
+import type {
+  FileUploadResponse,
+  FileDownloadResponse,
+  MessageSearchResult,
+  WsEndpointResponse,
+} from '../types';
 
 const BASE_URL = '/api';
 
@@ -95,3 +100,9 @@ export async function searchAllMessages(
   }
   return apiFetch(`/messages/search?${params}`);
 }
+
+// 204(배치 꺼짐/서버 정보 없음)면 빈 문자열이 오므로 null로 바꿔 기본 호스트로 접속하게 한다.
+export async function getWsEndpoint(): Promise<WsEndpointResponse | null> {
+  const endpoint = await apiFetch<WsEndpointResponse | string>('/ws/endpoint');
+  return typeof endpoint === 'object' && endpoint ? endpoint : null;
+}
@@ -1,5 +1,6 @@
 import { useEffect, useRef, useCallback } from 'react';
 import type { WSMessage } from '../types';
+import { getWsEndpoint } from '../api/client';
 
 interface Callbacks {
   onMessageReceived?: (msg: WSMessage) => void;
@@ -17,17 +18,38 @@ export default function useWebSocket(
   callbacksRef.current = callbacks;
   const reconnectTimer = useRef<ReturnType<typeof setTimeout>>();
   const heartbeatTimer = useRef<ReturnType<typeof setInterval>>();
+  const drainTimer = useRef<ReturnType<typeof setTimeout>>();
+  const drainingRef = useRef(false);
+  // 방별로 마지막으로 받은 messageId. 연결 직후 sync로 보내 delta만 받는다.
+  const lastSeenRef = useRef<Map<number, number>>(new Map());
 
-  const connect = useCallback(() => {
+  const markSeen = (chatRoomId?: number, messageId?: number) => {
+    if (chatRoomId == null || messageId == null) return;
+    const prev = lastSeenRef.current.get(chatRoomId) ?? 0;
+    if (messageId > prev) lastSeenRef.current.set(chatRoomId, messageId);
+  };
+
+  const connect = useCallback(async () => {
     if (!token) return;
 
+    // 같은 방 멤버가 모인 노드를 안내받는다. 실패하거나 안내가 없으면 기본 호스트로 접속한다.
+    const endpoint = await getWsEndpoint().catch(() => null);
     const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
-    const ws = new WebSocket(
-      `${protocol}//${window.location.host}/ws?token=${token}`,
-    );
+    const baseUrl = endpoint?.url ?? `${protocol}//${window.location.host}/ws`;
+    const ws = new WebSocket(`${baseUrl}?token=${token}`);
     wsRef.current = ws;
 
+    const sync = () =>
+      ws.send(
+        JSON.stringify({
+          type: 'sync',
+          lastSeen: Object.fromEntries(lastSeenRef.current),
+        }),
+      );
+
     ws.onopen = () => {
+      // 서버는 연결 시 밀린 메시지를 먼저 보내지 않는다. 마지막 수신 지점(처음이면 빈 값)부터 요청한다.
+      sync();
       heartbeatTimer.current = setInterval(() => {
         if (ws.readyState === WebSocket.OPEN) {
           ws.send(JSON.stringify({ type: 'heartbeat' }));
@@ -40,8 +62,30 @@ export default function useWebSocket(
       const cb = callbacksRef.current;
       switch (msg.type) {
         case 'message.received':
+          markSeen(msg.chatRoomId, msg.messageId);
           cb.onMessageReceived?.(msg);
           break;
+        case 'messages.batch':
+          // 밀린 메시지 배치를 개별 message.received로 풀어서 전달한다.
+          // hasMore면 나머지는 방을 열 때 히스토리 API로 불러온다.
+          msg.messages?.forEach((item) => {
+            markSeen(msg.chatRoomId, item.messageId);
+            cb.onMessageReceived?.({
+              ...item,
+              type: 'message.received',
+              chatRoomId: msg.chatRoomId,
+            });
+          });
+          break;
+        case 'sync.required':
+          // 서버가 느린 연결로 판단해 개별 프레임을 멈췄다. 마지막 수신 지점부터 다시 받는다.
+          sync();
+          break;
+        case 'server.draining':
+          // 노드가 내려가는 중. 서버가 정해 준 시점에 스스로 닫고 바로 재접속해 접속이 한꺼번에 몰리지 않게 한다.
+          drainingRef.current = true;
+          drainTimer.current = setTimeout(() => ws.close(), msg.reconnectAfterMs ?? 0);
+          break;
         case 'message.updated':
           cb.onMessageUpdated?.(msg);
           break;
@@ -56,7 +100,9 @@ export default function useWebSocket(
 
     ws.onclose = () => {
       cleanup();
-      reconnectTimer.current = setTimeout(connect, 3000);
+      const delay = drainingRef.current ? 0 : 3000;
+      drainingRef.current = false;
+      reconnectTimer.current = setTimeout(connect, delay);
     };
 
     ws.onerror = () => {
@@ -67,6 +113,7 @@ export default function useWebSocket(
   function cleanup() {
     if (heartbeatTimer.current) clearInterval(heartbeatTimer.current);
     if (reconnectTimer.current) clearTimeout(reconnectTimer.current);
+    if (drainTimer.current) clearTimeout(drainTimer.current);
   }
 
   useEffect(() => {
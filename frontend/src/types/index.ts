@@ -5,6 +5,12 @@ export interface LoginResponse {
   username: string;
 }
 
+// 접속할 WebSocket 노드 (서버 배치가 켜져 있을 때만)
+export interface WsEndpointResponse {
+  serverId: string;
+  url: string;
+}
+
 // Chat Room
 export type ChatRoomType = 'DIRECT' | 'GROUP';
 
@@ -31,6 +37,13 @@ export interface MessageResponse {
   originalFilename?: string;
   contentType?: string;
   fileSize?: number;
+  // messages.batch: 방 하나의 밀린 메시지 (항목에는 type/chatRoomId가 없다)
+  messages?: WSMessage[];
+  hasMore?: boolean;
+  // sync: 방별 마지막으로 받은 messageId
+  lastSeen?: Record<number, number>;
+  // error: 처리하지 않은 명령의 사유 (rate_limited, busy, invalid_request, internal_error). content에 거부된 명령 타입이 온다
+  error?: string;
 }
 
 // File
@@ -71,7 +84,12 @@ export type WSMessageType =
   | 'message.updated'
   | 'heartbeat'
   | 'user.status'
-  | 'messages.read';
+  | 'messages.read'
+  | 'messages.batch'
+  | 'sync'
+  | 'sync.required'
+  | 'server.draining'
+  | 'error';
 
 export interface WSMessage {
   type: WSMessageType;
@@ -86,4 +104,13 @@ export interface WSMessage {
   originalFilename?: string;
   contentType?: string;
   fileSize?: number;
+  // messages.batch: 방 하나의 밀린 메시지 (항목에는 type/chatRoomId가 없다)
+  messages?: WSMessage[];
+  hasMore?: boolean;
+  // sync: 방별 마지막으로 받은 messageId
+  lastSeen?: Record<number, number>;
+  // error: 처리하지 않은 명령의 사유 (rate_limited, busy, invalid_request, internal_error). content에 거부된 명령 타입이 온다
+  error?: string;
+  // server.draining: 이 시간(ms) 뒤에 연결을 닫고 다른 노드로 다시 접속한다
+  reconnectAfterMs?: number;
 }
@@ -0,0 +1,58 @@
+package com.bok.chat.benchmark;
+
+import com.bok.chat.websocket.OutboundFrame;
+import com.bok.chat.websocket.WebSocketMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 방 브로드캐스트 1회의 직렬화 비용 비교.
+ * - perMember: 기존 방식. 멤버마다 writeValueAsString + new TextMessage
+ * - encodeOnce: OutboundFrame 한 번 생성 후 멤버 전원이 공유
+ *
+ * 실행: ./gradlew jmh (gc 프로파일러의 gc.alloc.rate.norm이 브로드캐스트 1회당 할당 바이트)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BroadcastEncodingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int members;
+
+    private ObjectMapper objectMapper;
+    private WebSocketMessage message;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        message = WebSocketMessage.fileMessageReceived(1L, 42L, "alice", 1_000_001L, members - 1,
+                77L, "quarterly-report-final.pdf", "application/pdf", 2_345_678L);
+    }
+
+    @Benchmark
+    public void perMember(Blackhole bh) throws Exception {
+        for (int i = 0; i < members; i++) {
+            bh.consume(new TextMessage(objectMapper.writeValueAsString(message)));
+        }
+    }
+
+    @Benchmark
+    public void encodeOnce(Blackhole bh) throws Exception {
+        OutboundFrame frame = OutboundFrame.encode(message, objectMapper);
+        for (int i = 0; i < members; i++) {
+            bh.consume(frame.message());
+        }
+    }
+}
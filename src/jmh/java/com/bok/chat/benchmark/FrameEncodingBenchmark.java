@@ -0,0 +1,70 @@
+package com.bok.chat.benchmark;
+
+import com.bok.chat.websocket.FrameCodec;
+import com.bok.chat.websocket.WebSocketMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 프레임 1개의 JSON / CBOR 인코딩·디코딩 비용 비교.
+ * - cborTranscode: Redis 중계로 받은 JSON payload를 CBOR 세션으로 보낼 때의 변환 비용
+ *
+ * 프레임 크기(바이트)는 Setup 단계에서 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FrameEncodingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private FrameCodec codec;
+    private WebSocketMessage message;
+    private String json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        codec = new FrameCodec(objectMapper);
+        message = WebSocketMessage.fileMessageReceived(1L, 42L, "alice", 1_000_001L, 12,
+                77L, "quarterly-report-final.pdf", "application/pdf", 2_345_678L);
+        json = objectMapper.writeValueAsString(message);
+        cbor = codec.encode(message);
+        System.out.printf("%nframe bytes: json=%d, cbor=%d%n", json.getBytes(StandardCharsets.UTF_8).length, cbor.length);
+    }
+
+    @Benchmark
+    public String jsonEncode() throws Exception {
+        return objectMapper.writeValueAsString(message);
+    }
+
+    @Benchmark
+    public byte[] cborEncode() throws Exception {
+        return codec.encode(message);
+    }
+
+    @Benchmark
+    public byte[] cborTranscode() throws Exception {
+        return codec.transcode(json);
+    }
+
+    @Benchmark
+    public WebSocketMessage jsonDecode() throws Exception {
+        return objectMapper.readValue(json, WebSocketMessage.class);
+    }
+
+    @Benchmark
+    public WebSocketMessage cborDecode() throws Exception {
+        return codec.decode(ByteBuffer.wrap(cbor));
+    }
+}
@@ -0,0 +1,133 @@
+package com.bok.chat.benchmark;
+
+import com.bok.chat.security.JwtAuthenticationFilter;
+import com.bok.chat.security.JwtProvider;
+import com.bok.chat.security.TokenCacheProperties;
+import com.bok.chat.security.TokenVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 하나가 JwtAuthenticationFilter를 지나는 비용.
+ * - legacyTwoParses: 변경 전. validateToken과 getUserId가 각각 파서를 새로 만들고 서명을 검증
+ * - singleParse: 재사용하는 파서로 한 번만 검증 (jwt.cache.enabled=false)
+ * - cached: 같은 토큰이 다시 오면 SHA-256 해시로 캐시를 찾아 서명 검증을 건너뜀
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-must-be-at-least-32-bytes-long";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private OncePerRequestFilter legacyFilter;
+    private OncePerRequestFilter singleParseFilter;
+    private OncePerRequestFilter cachedFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtProvider jwtProvider = new JwtProvider(SECRET, 3_600_000L);
+        TokenCacheProperties uncached = new TokenCacheProperties();
+        uncached.setEnabled(false);
+
+        legacyFilter = new LegacyJwtFilter(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)));
+        singleParseFilter = new JwtAuthenticationFilter(
+                new TokenVerifier(jwtProvider, uncached, new SimpleMeterRegistry()));
+        cachedFilter = new JwtAuthenticationFilter(
+                new TokenVerifier(jwtProvider, new TokenCacheProperties(), new SimpleMeterRegistry()));
+
+        request = new MockHttpServletRequest("GET", "/api/chatrooms");
+        request.addHeader("Authorization", "Bearer " + jwtProvider.generateToken(42L, "alice"));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object legacyTwoParses() throws Exception {
+        return filter(legacyFilter);
+    }
+
+    @Benchmark
+    public Object singleParse() throws Exception {
+        return filter(singleParseFilter);
+    }
+
+    @Benchmark
+    public Object cached() throws Exception {
+        return filter(cachedFilter);
+    }
+
+    private Object filter(OncePerRequestFilter filter) throws Exception {
+        filter.doFilter(request, response, NO_OP_CHAIN);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    /**
+     * 변경 전 JwtProvider.validateToken + getUserId 경로를 그대로 옮겨 둔 비교 기준.
+     */
+    private static final class LegacyJwtFilter extends OncePerRequestFilter {
+
+        private final SecretKey key;
+
+        private LegacyJwtFilter(SecretKey key) {
+            this.key = key;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            String token = request.getHeader("Authorization").substring(7);
+            if (validateToken(token)) {
+                Long userId = Long.parseLong(parseClaims(token).getSubject());
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+            }
+            filterChain.doFilter(request, response);
+        }
+
+        private boolean validateToken(String token) {
+            try {
+                parseClaims(token);
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private Claims parseClaims(String token) {
+            return Jwts.parser()
+                    .verifyWith(key)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        }
+    }
+}
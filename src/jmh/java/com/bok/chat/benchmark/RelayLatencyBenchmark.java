@@ -0,0 +1,119 @@
+package com.bok.chat.benchmark;
+
+import com.bok.chat.redis.ClassicRelayTransport;
+import com.bok.chat.redis.RelayProperties;
+import com.bok.chat.redis.RelayTransport;
+import com.bok.chat.redis.StreamRelayTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 서버 채널 중계 1건의 publish → 수신 리스너 도착까지 왕복 지연 비교.
+ * - pubsub: 기존 PUBLISH/SUBSCRIBE (RedisMessageListenerContainer)
+ * - stream: XADD MAXLEN ~ → XREADGROUP → XACK (StreamRelayTransport)
+ *
+ * 로컬 Redis가 필요하다: docker-compose up -d redis
+ * 실행: ./gradlew jmh -PjmhIncludes=RelayLatencyBenchmark (다른 주소는 -Dredis.host / -Dredis.port)
+ * SampleTime 모드라 p50/p99/p99.9가 함께 나온다. 스트림은 ack 왕복이 더해지는 만큼 느려야 정상이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RelayLatencyBenchmark {
+
+    @Param({"pubsub", "stream"})
+    private String transportType;
+
+    @Param({"512"})
+    private int payloadBytes;
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisMessageListenerContainer listenerContainer;
+    private StringRedisTemplate redisTemplate;
+    private RelayTransport transport;
+    private MessageListener listener;
+    private final BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+    private String channel;
+    private String payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6380)));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        if ("stream".equals(transportType)) {
+            RelayProperties.Stream properties = new RelayProperties.Stream();
+            properties.setPollTimeout(Duration.ofMillis(500));
+            StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                    StreamMessageListenerContainerOptions.builder()
+                            .batchSize(properties.getBatchSize())
+                            .pollTimeout(properties.getPollTimeout())
+                            .build();
+            transport = new StreamRelayTransport(redisTemplate,
+                    StreamMessageListenerContainer.create(connectionFactory, options),
+                    "bench", properties, new SimpleMeterRegistry());
+        } else {
+            listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(connectionFactory);
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+            transport = new ClassicRelayTransport(redisTemplate, listenerContainer);
+        }
+
+        channel = "server:bench-" + UUID.randomUUID().toString().substring(0, 8);
+        payload = "x".repeat(payloadBytes);
+        listener = (message, pattern) -> received.add(message.getBody());
+        transport.subscribe(channel, listener);
+        // 구독이 실제로 걸릴 때까지 한 건을 주고받는다
+        transport.publish(channel, payload);
+        received.poll(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public byte[] roundTrip() throws InterruptedException {
+        transport.publish(channel, payload);
+        byte[] body = received.poll(5, TimeUnit.SECONDS);
+        if (body == null) {
+            throw new IllegalStateException("Relay message not received within 5s: " + transportType);
+        }
+        return body;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        transport.unsubscribe(channel, listener);
+        transport.close();
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+        if ("stream".equals(transportType)) {
+            redisTemplate.delete("relay-stream:" + channel);
+        }
+        connectionFactory.destroy();
+    }
+}
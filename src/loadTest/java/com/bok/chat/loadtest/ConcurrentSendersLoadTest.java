@@ -0,0 +1,241 @@
+package com.bok.chat.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 동시 송신자 N명이 각자 1:1 방에 메시지를 보내고, 자기 메시지의 message.received 에코를 받으면 다음 메시지를 보낸다 (closed loop).
+ * 서버가 처리한 메시지 수(throughput)와 송신→에코 지연(p50/p99)을 출력한다.
+ *
+ * 가상 스레드 적용 전/후 비교:
+ *   1. ./gradlew bootRun --args='--spring.threads.virtual.enabled=false' 후 ./gradlew loadTest -Psenders=10000
+ *   2. ./gradlew bootRun (기본값 true) 후 같은 명령으로 다시 실행
+ *
+ * 인자: baseUrl senders durationSeconds
+ */
+public class ConcurrentSendersLoadTest {
+
+    private static final int SETUP_CONCURRENCY = 200;
+    private static final int MAX_LATENCY_MS = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final String baseUrl;
+    private final int senders;
+    private final Duration duration;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(MAX_LATENCY_MS + 1);
+
+    ConcurrentSendersLoadTest(String baseUrl, int senders, Duration duration) {
+        this.baseUrl = baseUrl;
+        this.senders = senders + senders % 2;
+        this.duration = duration;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8085";
+        int senders = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 60);
+        new ConcurrentSendersLoadTest(baseUrl, senders, duration).run();
+    }
+
+    void run() throws Exception {
+        System.out.printf("Setting up %d senders against %s%n", senders, baseUrl);
+        List<Sender> all = setUp();
+        System.out.printf("Connected %d senders, running for %ds%n", all.size(), duration.toSeconds());
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Sender sender : all) {
+                executor.submit(() -> sender.loop(deadline));
+            }
+        }
+        all.forEach(Sender::close);
+        report();
+    }
+
+    private List<Sender> setUp() throws Exception {
+        String runId = UUID.randomUUID().toString().substring(0, 4);
+        Semaphore permits = new Semaphore(SETUP_CONCURRENCY);
+        List<CompletableFuture<Sender>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int pair = 0; pair < senders / 2; pair++) {
+                String first = "lt" + runId + "-" + (pair * 2);
+                String second = "lt" + runId + "-" + (pair * 2 + 1);
+                CompletableFuture<Login[]> logins = CompletableFuture.supplyAsync(
+                        () -> withPermit(permits, () -> new Login[]{signUp(first), signUp(second)}), executor);
+                CompletableFuture<Long> room = logins.thenApplyAsync(
+                        users -> withPermit(permits, () -> createRoom(users[0], users[1].userId())), executor);
+                futures.add(logins.thenCombineAsync(room, (users, roomId) -> connect(users[0], roomId), executor));
+                futures.add(logins.thenCombineAsync(room, (users, roomId) -> connect(users[1], roomId), executor));
+            }
+        }
+        List<Sender> all = new ArrayList<>(futures.size());
+        for (CompletableFuture<Sender> future : futures) {
+            all.add(future.join());
+        }
+        return all;
+    }
+
+    private Login signUp(String username) throws Exception {
+        Map<String, String> credentials = Map.of("username", username, "password", "load-test-password");
+        post("/users/register", credentials, null);
+        JsonNode login = post("/users/login", credentials, null);
+        return new Login(login.get("token").asText(), login.get("userId").asLong());
+    }
+
+    private Long createRoom(Login owner, Long peerId) throws Exception {
+        return post("/chatrooms", Map.of("userIds", List.of(peerId)), owner.token()).get("id").asLong();
+    }
+
+    private JsonNode post(String path, Object body, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(path + " failed: " + response.statusCode() + " " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private Sender connect(Login login, Long chatRoomId) {
+        Sender sender = new Sender(login.userId(), chatRoomId);
+        URI uri = URI.create(baseUrl.replaceFirst("^http", "ws") + "/ws?token=" + login.token());
+        sender.webSocket = http.newWebSocketBuilder().buildAsync(uri, sender).join();
+        return sender;
+    }
+
+    private void report() {
+        long total = completed.sum();
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("senders=%d duration=%.0fs messages=%d throughput=%.1f msg/s p50=%dms p99=%dms errors=%d%n",
+                senders, seconds, total, total / seconds, percentile(0.50), percentile(0.99), errors.sum());
+    }
+
+    private long percentile(double quantile) {
+        long total = 0;
+        for (int i = 0; i <= MAX_LATENCY_MS; i++) {
+            total += latencyHistogram.get(i);
+        }
+        long target = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i <= MAX_LATENCY_MS; i++) {
+            seen += latencyHistogram.get(i);
+            if (seen >= target && seen > 0) {
+                return i;
+            }
+        }
+        return MAX_LATENCY_MS;
+    }
+
+    private static <T> T withPermit(Semaphore permits, ThrowingSupplier<T> action) {
+        try {
+            permits.acquire();
+            try {
+                return action.get();
+            } finally {
+                permits.release();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+
+    private record Login(String token, Long userId) {}
+
+    /**
+     * 송신자 1명. 자기 메시지의 에코(senderId == 자신)를 받으면 대기 중인 전송을 완료 처리한다.
+     */
+    private class Sender implements WebSocket.Listener {
+
+        private final Long userId;
+        private final Long chatRoomId;
+        private final StringBuilder partial = new StringBuilder();
+        private volatile WebSocket webSocket;
+        private volatile CompletableFuture<Void> pending;
+
+        Sender(Long userId, Long chatRoomId) {
+            this.userId = userId;
+            this.chatRoomId = chatRoomId;
+        }
+
+        void loop(long deadline) {
+            String frame = "{\"type\":\"message.send\",\"chatRoomId\":" + chatRoomId + ",\"content\":\"load test\"}";
+            while (System.nanoTime() < deadline) {
+                CompletableFuture<Void> echo = new CompletableFuture<>();
+                pending = echo;
+                long startedAt = System.nanoTime();
+                try {
+                    webSocket.sendText(frame, true).join();
+                    echo.get(MAX_LATENCY_MS, TimeUnit.MILLISECONDS);
+                    long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                    latencyHistogram.incrementAndGet((int) Math.min(latencyMs, MAX_LATENCY_MS));
+                    completed.increment();
+                } catch (Exception e) {
+                    errors.increment();
+                }
+            }
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                onFrame(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        private void onFrame(String json) {
+            try {
+                JsonNode node = objectMapper.readTree(json);
+                CompletableFuture<Void> echo = pending;
+                if ("message.received".equals(node.path("type").asText())
+                        && userId.equals(node.path("senderId").asLong()) && echo != null) {
+                    echo.complete(null);
+                }
+            } catch (Exception e) {
+                errors.increment();
+            }
+        }
+
+        void close() {
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.bok.chat.loadtest;
+
+import com.bok.chat.redis.ConsistentHashRing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 접속 노드 배치 전략별로 방 메시지가 송신 노드 안에서 끝나는 비율을 비교하는 시뮬레이션.
+ *
+ * 유저를 커뮤니티로 묶고, 그룹 방은 대부분 한 커뮤니티에서 멤버를 뽑는다 (방 크기는 Pareto 분포).
+ * 1:1 방도 대부분 같은 커뮤니티 안에서 만든다. 메시지는 방을 하나 고른 뒤 그 방 멤버 중 송신자를 고른다.
+ *
+ * - random: 로드밸런서가 아무 노드에 붙이는 현재 방식
+ * - user_hash: ring에서 user:{id}로 고른 노드
+ * - room_affinity: ring에서 room:{주 방 ID}로 고른 노드 (WsEndpointService와 같은 규칙: 멤버가 가장 많은 방)
+ * - room_affinity_bounded: 위와 같되 평균의 1.25배가 찬 노드는 ring의 다음 노드로 넘긴다 (ServerRegistry 기본값)
+ *
+ * 출력 항목:
+ * - local: 수신자 중 송신 노드에 있는 비율
+ * - relays/msg: 메시지당 publish해야 하는 원격 서버 수
+ * - max/avg load: 가장 붐비는 노드의 유저 수를 평균으로 나눈 값
+ *
+ * 실행: ./gradlew placementSimulation -Pservers=8 -Pusers=20000 -Pmessages=200000
+ */
+public class PlacementSimulation {
+
+    private static final int COMMUNITY_SIZE = 50;
+    private static final int MAX_GROUP_SIZE = 1_000;
+    private static final double IN_COMMUNITY = 0.8;
+    private static final int VIRTUAL_NODES = 160;
+    private static final double MAX_LOAD_FACTOR = 1.25;
+
+    private final int serverCount;
+    private final int userCount;
+    private final int messageCount;
+    private final Random random = new Random(42);
+    private final List<int[]> rooms = new ArrayList<>();
+
+    PlacementSimulation(int serverCount, int userCount, int messageCount) {
+        this.serverCount = serverCount;
+        this.userCount = userCount;
+        this.messageCount = messageCount;
+    }
+
+    public static void main(String[] args) {
+        int servers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int messages = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        new PlacementSimulation(servers, users, messages).run();
+    }
+
+    void run() {
+        generateRooms();
+        int[] primaryRoom = primaryRooms();
+        List<String> servers = IntStream.range(0, serverCount).mapToObj(i -> "server-" + i).toList();
+        ConsistentHashRing ring = ConsistentHashRing.of(servers, VIRTUAL_NODES);
+        Map<String, Integer> serverIndex = new LinkedHashMap<>();
+        servers.forEach(server -> serverIndex.put(server, serverIndex.size()));
+
+        Map<String, IntFunction<Integer>> strategies = new LinkedHashMap<>();
+        Random lb = new Random(7);
+        int[] randomPlacement = IntStream.range(0, userCount).map(u -> lb.nextInt(serverCount)).toArray();
+        strategies.put("random", u -> randomPlacement[u]);
+        strategies.put("user_hash", u -> serverIndex.get(ring.nodeFor("user:" + u)));
+        strategies.put("room_affinity", u -> serverIndex.get(ring.nodeFor(placementKey(primaryRoom, u))));
+        int[] bounded = boundedPlacement(ring, serverIndex, primaryRoom);
+        strategies.put("room_affinity_bounded", u -> bounded[u]);
+
+        System.out.printf("servers=%d users=%d rooms=%d messages=%d%n%n",
+                serverCount, userCount, rooms.size(), messageCount);
+        System.out.printf("%-22s %8s %11s %14s%n", "strategy", "local", "relays/msg", "max/avg load");
+        strategies.forEach((name, placement) -> {
+            int[] serverOf = IntStream.range(0, userCount).map(placement::apply).toArray();
+            report(name, serverOf);
+        });
+    }
+
+    private void report(String name, int[] serverOf) {
+        Random messages = new Random(99);
+        long recipients = 0;
+        long local = 0;
+        long relays = 0;
+        Set<Integer> remote = new HashSet<>();
+        for (int i = 0; i < messageCount; i++) {
+            int[] members = rooms.get(messages.nextInt(rooms.size()));
+            int sender = members[messages.nextInt(members.length)];
+            remote.clear();
+            for (int member : members) {
+                if (member == sender) {
+                    continue;
+                }
+                recipients++;
+                if (serverOf[member] == serverOf[sender]) {
+                    local++;
+                } else {
+                    remote.add(serverOf[member]);
+                }
+            }
+            relays += remote.size();
+        }
+        int[] load = new int[serverCount];
+        for (int server : serverOf) {
+            load[server]++;
+        }
+        double imbalance = Arrays.stream(load).max().orElse(0) / ((double) userCount / serverCount);
+        System.out.printf("%-22s %7.1f%% %11.2f %14.2f%n",
+                name, 100.0 * local / recipients, (double) relays / messageCount, imbalance);
+    }
+
+    /**
+     * 유저가 임의 순서로 접속한다고 보고, 접속 시점의 노드별 유저 수로 상한을 적용한다.
+     */
+    private int[] boundedPlacement(ConsistentHashRing ring, Map<String, Integer> serverIndex, int[] primaryRoom) {
+        int[] placement = new int[userCount];
+        int[] load = new int[serverCount];
+        List<Integer> arrivals = new ArrayList<>(IntStream.range(0, userCount).boxed().toList());
+        Collections.shuffle(arrivals, new Random(13));
+        int connected = 0;
+        for (int u : arrivals) {
+            double capacity = Math.max(1, Math.ceil(MAX_LOAD_FACTOR * (connected + 1) / serverCount));
+            int server = serverIndex.get(ring.nodeFor(placementKey(primaryRoom, u),
+                    node -> load[serverIndex.get(node)] < capacity));
+            placement[u] = server;
+            load[server]++;
+            connected++;
+        }
+        return placement;
+    }
+
+    private static String placementKey(int[] primaryRoom, int user) {
+        return primaryRoom[user] >= 0 ? "room:" + primaryRoom[user] : "user:" + user;
+    }
+
+    private void generateRooms() {
+        int communities = Math.max(1, userCount / COMMUNITY_SIZE);
+        int groupRooms = userCount / 10;
+        for (int i = 0; i < groupRooms; i++) {
+            int community = random.nextInt(communities);
+            int size = (int) Math.min(MAX_GROUP_SIZE, 3 / Math.pow(1 - random.nextDouble(), 1 / 1.2));
+            rooms.add(pickMembers(community, Math.min(size, userCount)));
+        }
+        int directRooms = userCount * 2;
+        for (int i = 0; i < directRooms; i++) {
+            rooms.add(pickMembers(random.nextInt(communities), 2));
+        }
+    }
+
+    private int[] pickMembers(int community, int size) {
+        Set<Integer> members = new HashSet<>();
+        while (members.size() < size) {
+            boolean inCommunity = random.nextDouble() < IN_COMMUNITY;
+            int user = inCommunity
+                    ? Math.min(userCount - 1, community * COMMUNITY_SIZE + random.nextInt(COMMUNITY_SIZE))
+                    : random.nextInt(userCount);
+            members.add(user);
+        }
+        return members.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 유저별 주 방: 속한 방 중 멤버가 가장 많은 방 (같으면 ID가 작은 방). 방이 없으면 -1.
+     */
+    private int[] primaryRooms() {
+        int[] primary = new int[userCount];
+        Arrays.fill(primary, -1);
+        for (int roomId = 0; roomId < rooms.size(); roomId++) {
+            int size = rooms.get(roomId).length;
+            for (int member : rooms.get(roomId)) {
+                if (primary[member] < 0 || rooms.get(primary[member]).length < size) {
+                    primary[member] = roomId;
+                }
+            }
+        }
+        return primary;
+    }
+}
@@ -4,8 +4,10 @@ import com.bok.chat.api.dto.LoginRequest;
 import com.bok.chat.api.dto.LoginResponse;
 import com.bok.chat.api.dto.RegisterRequest;
 import com.bok.chat.api.service.UserService;
+import com.bok.chat.security.LoginExecutor;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,20 +15,41 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
 
     private final UserService userService;
+    private final LoginExecutor loginExecutor;
 
     @PostMapping("/register")
     public ResponseEntity<Long> register(@RequestBody @Valid RegisterRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED).body(userService.register(request));
     }
 
+    /**
+     * 요청 스레드는 바로 반환하고 로그인 전용 스레드에서 처리한다. 로그인 큐가 가득 차면 503과 Retry-After로 거절한다.
+     */
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@RequestBody @Valid LoginRequest request) {
-        return ResponseEntity.ok(userService.login(request));
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@RequestBody @Valid LoginRequest request) {
+        return loginExecutor.submit(() -> userService.login(request))
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(this::rejectedLogin);
+    }
+
+    private ResponseEntity<LoginResponse> rejectedLogin(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+        throw failure instanceof CompletionException completion ? completion : new CompletionException(cause);
     }
 }
@@ -0,0 +1,26 @@
+package com.bok.chat.api.controller;
+
+import com.bok.chat.api.dto.WsEndpointResponse;
+import com.bok.chat.api.service.WsEndpointService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/ws")
+@RequiredArgsConstructor
+public class WsEndpointController {
+
+    private final WsEndpointService wsEndpointService;
+
+    @GetMapping("/endpoint")
+    public ResponseEntity<WsEndpointResponse> getEndpoint(Authentication auth) {
+        Long userId = (Long) auth.getPrincipal();
+        return wsEndpointService.resolve(userId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
@@ -4,4 +4,8 @@ import com.bok.chat.entity.Message;
 
 import java.util.List;
 
-public record UndeliveredMessages(Long chatRoomId, List<Message> messages) {}
+/**
+ * @param messages 방의 안 읽은 메시지 중 최신 메시지들 (오래된 순)
+ * @param hasMore  messages 이전에도 안 읽은 메시지가 더 있는지
+ */
+public record UndeliveredMessages(Long chatRoomId, List<Message> messages, boolean hasMore) {}
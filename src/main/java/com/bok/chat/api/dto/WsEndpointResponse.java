@@ -0,0 +1,3 @@
+package com.bok.chat.api.dto;
+
+public record WsEndpointResponse(String serverId, String url) {}
@@ -19,7 +19,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -32,17 +36,48 @@ public class ChatMessageService {
     private final UserRepository userRepository;
     private final FileAttachmentRepository fileAttachmentRepository;
 
+    /**
+     * 참여 중인 모든 방의 안 읽은 메시지를 방마다 최대 perRoomLimit개까지 조회한다.
+     */
+    @Transactional(readOnly = true)
+    public List<UndeliveredMessages> getUndeliveredMessages(Long userId, int perRoomLimit) {
+        return getMessagesAfter(userId, Map.of(), perRoomLimit);
+    }
+
+    /**
+     * 클라이언트가 방별로 마지막으로 받은 메시지 이후(delta)만 방마다 최대 perRoomLimit개까지 조회한다.
+     * 마크가 없는 방은 lastReadMessageId 이후를 조회한다.
+     * 방 수와 관계없이 윈도 쿼리 1번 + 본문 로딩 1번으로 끝나고, 최근 메시지가 있는 방부터 반환한다.
+     */
     @Transactional(readOnly = true)
-    public List<UndeliveredMessages> getUndeliveredMessages(Long userId) {
-        List<ChatRoomUser> rooms = chatRoomUserRepository.findByUserIdAndStatus(userId, ChatRoomUser.Status.ACTIVE);
-        return rooms.stream()
-                .map(room -> {
-                    long lastRead = room.getLastReadMessageIdOrDefault();
-                    List<Message> messages = messageRepository.findUnreadMessages(
-                            room.getChatRoom().getId(), lastRead);
-                    return new UndeliveredMessages(room.getChatRoom().getId(), messages);
+    public List<UndeliveredMessages> getMessagesAfter(Long userId, Map<Long, Long> lastSeenByRoom, int perRoomLimit) {
+        Long[] roomIds = new Long[lastSeenByRoom.size()];
+        Long[] lastSeenIds = new Long[lastSeenByRoom.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> mark : lastSeenByRoom.entrySet()) {
+            roomIds[i] = mark.getKey();
+            lastSeenIds[i] = mark.getValue();
+            i++;
+        }
+
+        List<Long> ids = messageRepository.findLatestMessageIdsAfter(userId, roomIds, lastSeenIds, perRoomLimit + 1);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<Message>> byRoom = new LinkedHashMap<>();
+        for (Message message : messageRepository.findAllByIdWithSenderAndFile(ids)) {
+            byRoom.computeIfAbsent(message.getChatRoom().getId(), id -> new ArrayList<>()).add(message);
+        }
+
+        return byRoom.entrySet().stream()
+                .map(entry -> {
+                    List<Message> newestFirst = entry.getValue();
+                    boolean hasMore = newestFirst.size() > perRoomLimit;
+                    List<Message> page = new ArrayList<>(hasMore ? newestFirst.subList(0, perRoomLimit) : newestFirst);
+                    Collections.reverse(page);
+                    return new UndeliveredMessages(entry.getKey(), page, hasMore);
                 })
-                .filter(um -> !um.messages().isEmpty())
                 .toList();
     }
 
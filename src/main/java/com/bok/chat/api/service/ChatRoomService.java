@@ -8,12 +8,15 @@ import com.bok.chat.entity.ChatRoom;
 import com.bok.chat.entity.ChatRoomUser;
 import com.bok.chat.entity.Message;
 import com.bok.chat.entity.User;
+import com.bok.chat.event.ChatRoomMembersJoinedEvent;
+import com.bok.chat.event.MembershipChangedEvent;
 import com.bok.chat.repository.ChatRoomRepository;
 import com.bok.chat.repository.ChatRoomUserRepository;
 import com.bok.chat.repository.FriendshipRepository;
 import com.bok.chat.repository.MessageRepository;
 import com.bok.chat.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +33,7 @@ public class ChatRoomService {
     private final UserRepository userRepository;
     private final FriendshipRepository friendshipRepository;
     private final MessageRepository messageRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ChatRoomResponse create(Long currentUserId, CreateChatRoomRequest request) {
@@ -55,6 +59,8 @@ public class ChatRoomService {
                     .build());
             memberNames.add(user.getUsername());
         }
+        eventPublisher.publishEvent(new ChatRoomMembersJoinedEvent(chatRoom.getId(), List.copyOf(allUserIds),
+                allUserIds.size()));
 
         return new ChatRoomResponse(chatRoom.getId(), chatRoom.getType(), memberNames, 0, chatRoom.getCreatedAt());
     }
@@ -107,6 +113,8 @@ public class ChatRoomService {
 
         Message systemMessage = null;
         if (!invitedNames.isEmpty()) {
+            eventPublisher.publishEvent(new ChatRoomMembersJoinedEvent(chatRoomId, List.copyOf(invitedUserIds),
+                    allMembers.size()));
             String names = String.join(", ", invitedNames);
             systemMessage = messageRepository.save(
                     Message.createSystemMessage(chatRoom, names + "님이 입장하셨습니다.", allMembers.size()));
@@ -123,6 +131,7 @@ public class ChatRoomService {
 
         String username = membership.getUser().getUsername();
         membership.leave();
+        eventPublisher.publishEvent(new MembershipChangedEvent(List.of(userId)));
 
         List<ChatRoomUser> remainingMembers = chatRoomUserRepository
                 .findByChatRoomIdAndStatus(chatRoomId, ChatRoomUser.Status.ACTIVE);
@@ -3,10 +3,13 @@ package com.bok.chat.api.service;
 import com.bok.chat.api.dto.FriendResponse;
 import com.bok.chat.entity.Friendship;
 import com.bok.chat.entity.User;
+import com.bok.chat.event.MembershipChangedEvent;
+import com.bok.chat.redis.MembershipCache;
 import com.bok.chat.redis.OnlineStatusService;
 import com.bok.chat.repository.FriendshipRepository;
 import com.bok.chat.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +23,8 @@ public class FriendService {
     private final FriendshipRepository friendshipRepository;
     private final UserRepository userRepository;
     private final OnlineStatusService onlineStatusService;
+    private final MembershipCache membershipCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void addFriend(Long userId, String friendUsername) {
@@ -38,6 +43,7 @@ public class FriendService {
         }
 
         friendshipRepository.save(Friendship.create(user, friend));
+        eventPublisher.publishEvent(new MembershipChangedEvent(List.of(userId, friend.getId())));
     }
 
     public List<FriendResponse> getFriends(Long userId) {
@@ -50,10 +56,11 @@ public class FriendService {
                 .toList();
     }
 
+    /**
+     * 연결/해제 때마다 호출되므로 노드 로컬 캐시에서 읽는다.
+     */
     public List<Long> getFriendIds(Long userId) {
-        return friendshipRepository.findAllByUserId(userId).stream()
-                .map(f -> f.getUser().getId().equals(userId) ? f.getFriend().getId() : f.getUser().getId())
-                .toList();
+        return membershipCache.friendIds(userId);
     }
 
     public boolean areFriends(Long userId, Long friendId) {
@@ -34,6 +34,11 @@ public class UserService {
         return userRepository.save(user).getId();
     }
 
+    /**
+     * BCrypt 비교가 무거우므로 요청 스레드가 아니라 LoginExecutor에서 호출한다.
+     * 저장된 해시가 설정된 강도보다 약하면 평문을 알고 있는 지금 새 강도로 다시 저장한다.
+     */
+    @Transactional
     public LoginResponse login(LoginRequest request) {
         User user = userRepository.findByUsername(request.username())
                 .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 사용자입니다."));
@@ -42,6 +47,10 @@ public class UserService {
             throw new IllegalArgumentException("비밀번호가 일치하지 않습니다.");
         }
 
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.changePassword(passwordEncoder.encode(request.password()));
+        }
+
         String token = jwtProvider.generateToken(user.getId(), user.getUsername());
         return new LoginResponse(token, user.getId(), user.getUsername());
     }
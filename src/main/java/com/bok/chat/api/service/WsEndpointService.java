@@ -0,0 +1,57 @@
+package com.bok.chat.api.service;
+
+import com.bok.chat.api.dto.WsEndpointResponse;
+import com.bok.chat.entity.ChatRoomUser;
+import com.bok.chat.redis.PlacementProperties;
+import com.bok.chat.redis.ServerRegistry;
+import com.bok.chat.repository.ChatRoomUserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 클라이언트가 어느 노드로 WebSocket을 열지 알려준다.
+ *
+ * ROOM_AFFINITY는 유저의 주 방(활성 멤버가 가장 많은 방)을 키로 ring에서 서버를 고른다.
+ * 같은 큰 방의 멤버가 한 노드에 모이므로 broadcastToMembers의 fan-out이 대부분 로컬 세션으로 끝난다.
+ * 유저는 여러 방에 속하므로 fan-out 비용이 가장 큰 방 하나에 맞춘다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class WsEndpointService {
+
+    private final PlacementProperties properties;
+    private final ServerRegistry serverRegistry;
+    private final ChatRoomUserRepository chatRoomUserRepository;
+
+    /**
+     * 배치가 꺼져 있거나 살아 있는 서버의 주소를 모르면 비어 있다. 클라이언트는 기본 호스트로 접속한다.
+     */
+    public Optional<WsEndpointResponse> resolve(Long userId) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        String serverId = serverRegistry.serverFor(placementKey(userId));
+        if (serverId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(serverRegistry.endpointOf(serverId))
+                .map(url -> new WsEndpointResponse(serverId, url));
+    }
+
+    String placementKey(Long userId) {
+        if (properties.getStrategy() == PlacementProperties.Strategy.ROOM_AFFINITY) {
+            List<Long> primary = chatRoomUserRepository.findLargestChatRoomIds(
+                    userId, ChatRoomUser.Status.ACTIVE, PageRequest.of(0, 1));
+            if (!primary.isEmpty()) {
+                return "room:" + primary.get(0);
+            }
+        }
+        return "user:" + userId;
+    }
+}
@@ -1,11 +1,33 @@
 package com.bok.chat.config;
 
+import com.bok.chat.redis.ClassicRelayTransport;
+import com.bok.chat.redis.RelayProperties;
+import com.bok.chat.redis.RelayTransport;
+import com.bok.chat.redis.ShardedRelayTransport;
+import com.bok.chat.redis.StreamRelayTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.lettuce.core.cluster.RedisClusterClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+@Slf4j
 @Configuration
 public class RedisConfig {
 
@@ -15,9 +37,84 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        ExecutorService redisListenerExecutor) {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(redisListenerExecutor);
         return container;
     }
+
+    /**
+     * 서버 간 중계 채널 경로. chat.relay.sharded-pubsub이 켜져 있고 클러스터에 연결된 경우에만 sharded Pub/Sub을 쓴다.
+     */
+    @Bean
+    @Primary
+    public RelayTransport relayTransport(RelayProperties relayProperties,
+                                         RedisConnectionFactory connectionFactory,
+                                         StringRedisTemplate stringRedisTemplate,
+                                         RedisMessageListenerContainer redisMessageListenerContainer,
+                                         ExecutorService redisListenerExecutor) {
+        return pubSubTransport(relayProperties, connectionFactory, stringRedisTemplate,
+                redisMessageListenerContainer, redisListenerExecutor);
+    }
+
+    /**
+     * server:{id} 중계 경로. chat.relay.stream.enabled면 서버별 Redis Stream, 아니면 relayTransport 빈을 그대로 쓴다.
+     * 따로 만들면 sharded 모드에서 클러스터 연결과 Pub/Sub 연결이 한 벌씩 더 생긴다.
+     */
+    @Bean
+    public RelayTransport serverRelayTransport(RelayProperties relayProperties,
+                                               @Qualifier("relayTransport") RelayTransport relayTransport,
+                                               RedisConnectionFactory connectionFactory,
+                                               StringRedisTemplate stringRedisTemplate,
+                                               ServerIdHolder serverIdHolder,
+                                               MeterRegistry meterRegistry) {
+        RelayProperties.Stream stream = relayProperties.getStream();
+        if (!stream.isEnabled()) {
+            return relayTransport;
+        }
+        if (!serverIdHolder.isConfigured()) {
+            throw new IllegalStateException("chat.relay.stream.enabled requires chat.server-id: "
+                    + "a generated ID creates a new relay stream and consumer group on every restart");
+        }
+        StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                StreamMessageListenerContainerOptions.builder()
+                        .batchSize(stream.getBatchSize())
+                        .pollTimeout(stream.getPollTimeout())
+                        .errorHandler(e -> log.error("Relay stream read failed", e))
+                        .build();
+        return new StreamRelayTransport(stringRedisTemplate,
+                StreamMessageListenerContainer.create(connectionFactory, options),
+                serverIdHolder.getServerId(), stream, meterRegistry);
+    }
+
+    private RelayTransport pubSubTransport(RelayProperties relayProperties,
+                                           RedisConnectionFactory connectionFactory,
+                                           StringRedisTemplate stringRedisTemplate,
+                                           RedisMessageListenerContainer redisMessageListenerContainer,
+                                           ExecutorService redisListenerExecutor) {
+        if (relayProperties.isShardedPubsub()) {
+            if (connectionFactory instanceof LettuceConnectionFactory lettuce
+                    && lettuce.getNativeClient() instanceof RedisClusterClient clusterClient) {
+                return new ShardedRelayTransport(clusterClient, redisListenerExecutor);
+            }
+            log.warn("chat.relay.sharded-pubsub is enabled but Redis is not a Lettuce cluster connection; "
+                    + "falling back to classic pub/sub");
+        }
+        return new ClassicRelayTransport(stringRedisTemplate, redisMessageListenerContainer);
+    }
+
+    /**
+     * 수신한 메시지를 리스너로 넘기는 단일 소비자 executor.
+     * 메시지마다 새 스레드를 띄우면 같은 채널로 순서대로 publish된 프레임이 뒤바뀔 수 있으므로 하나의 스레드에서 도착 순서대로 처리한다.
+     * 리스너는 파싱 후 세션 큐에 적재만 하므로 단일 스레드로 충분하다.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService redisListenerExecutor(Environment environment) {
+        ThreadFactory threadFactory = Threading.VIRTUAL.isActive(environment)
+                ? Thread.ofVirtual().name("redis-listener").factory()
+                : new CustomizableThreadFactory("redis-listener-");
+        return Executors.newSingleThreadExecutor(threadFactory);
+    }
 }
@@ -3,7 +3,9 @@ package com.bok.chat.config;
 import jakarta.annotation.PostConstruct;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import java.util.UUID;
 
@@ -12,11 +14,26 @@ import java.util.UUID;
 @Getter
 public class ServerIdHolder {
 
+    /**
+     * chat.server-id가 있으면 재시작해도 같은 ID를 쓴다. 서버별 Redis Stream 중계(chat.relay.stream.enabled)를 켜면 필수다.
+     */
+    @Value("${chat.server-id:}")
+    private String configuredServerId;
+
     private String serverId;
 
     @PostConstruct
     public void init() {
+        if (StringUtils.hasText(configuredServerId)) {
+            this.serverId = configuredServerId;
+            log.info("Server ID configured: {}", serverId);
+            return;
+        }
         this.serverId = UUID.randomUUID().toString().substring(0, 8);
         log.info("Server ID generated: {}", serverId);
     }
+
+    public boolean isConfigured() {
+        return StringUtils.hasText(configuredServerId);
+    }
 }
@@ -27,4 +27,8 @@ public class User extends BaseEntity {
         this.username = username;
         this.password = password;
     }
+
+    public void changePassword(String encodedPassword) {
+        this.password = encodedPassword;
+    }
 }
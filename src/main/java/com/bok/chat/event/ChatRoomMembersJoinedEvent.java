@@ -0,0 +1,9 @@
+package com.bok.chat.event;
+
+import java.util.List;
+
+/**
+ * 방 생성/초대로 멤버가 늘었을 때 발행한다. memberCount는 입장 후 방의 활성 멤버 수다.
+ */
+public record ChatRoomMembersJoinedEvent(Long chatRoomId, List<Long> userIds, int memberCount) {
+}
@@ -0,0 +1,9 @@
+package com.bok.chat.event;
+
+import java.util.List;
+
+/**
+ * 친구 추가, 방 생성/초대/퇴장처럼 유저의 친구 목록이나 참여 방 목록이 바뀌었을 때 발행한다.
+ */
+public record MembershipChangedEvent(List<Long> userIds) {
+}
@@ -0,0 +1,32 @@
+package com.bok.chat.redis;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * PUBLISH/SUBSCRIBE 기반 중계. Redis Cluster에서는 publish가 모든 샤드로 전파된다.
+ */
+@RequiredArgsConstructor
+public class ClassicRelayTransport implements RelayTransport {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Override
+    public void publish(String channel, String message) {
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    @Override
+    public void subscribe(String channel, MessageListener listener) {
+        listenerContainer.addMessageListener(listener, new ChannelTopic(channel));
+    }
+
+    @Override
+    public void unsubscribe(String channel, MessageListener listener) {
+        listenerContainer.removeMessageListener(listener, new ChannelTopic(channel));
+    }
+}
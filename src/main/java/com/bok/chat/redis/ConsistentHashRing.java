@@ -0,0 +1,105 @@
+package com.bok.chat.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 서버 ID를 가상 노드로 여러 번 올려 둔 consistent hash ring.
+ *
+ * 같은 키는 서버 목록이 같으면 항상 같은 서버로 간다. 서버가 하나 빠지거나 늘면 그 서버 몫의 키만 옮겨진다.
+ * 불변 객체이므로 서버 목록이 바뀌면 새로 만든다.
+ */
+public final class ConsistentHashRing {
+
+    private static final ConsistentHashRing EMPTY = new ConsistentHashRing(new TreeMap<>(), List.of());
+
+    private final NavigableMap<Long, String> ring;
+    private final List<String> nodes;
+
+    private ConsistentHashRing(NavigableMap<Long, String> ring, List<String> nodes) {
+        this.ring = ring;
+        this.nodes = nodes;
+    }
+
+    public static ConsistentHashRing of(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            return EMPTY;
+        }
+        NavigableMap<Long, String> ring = new TreeMap<>();
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+        return new ConsistentHashRing(ring, nodes.stream().sorted().toList());
+    }
+
+    /**
+     * 키의 해시 이후 처음 만나는 가상 노드의 서버. 서버가 없으면 null.
+     */
+    public String nodeFor(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * 키의 해시부터 시계 방향으로 돌며 accept를 통과하는 첫 서버 (bounded-load consistent hashing).
+     * 가득 찬 서버를 건너뛰어도 다음 후보가 키마다 정해져 있으므로 같은 방 멤버는 같은 예비 서버로 모인다.
+     * 모두 통과하지 못하면 nodeFor(key)와 같다.
+     */
+    public String nodeFor(String key, Predicate<String> accept) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        long hash = hash(key);
+        Iterator<String> clockwise = Stream.concat(
+                ring.tailMap(hash, true).values().stream(),
+                ring.headMap(hash, false).values().stream()).iterator();
+        Set<String> tried = new HashSet<>();
+        while (clockwise.hasNext() && tried.size() < nodes.size()) {
+            String node = clockwise.next();
+            if (tried.add(node) && accept.test(node)) {
+                return node;
+            }
+        }
+        return nodeFor(key);
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    /**
+     * FNV-1a 64비트에 murmur3 fmix64를 붙여 비슷한 문자열("server-a#1", "server-a#2")도 고르게 퍼지게 한다.
+     * JVM/노드와 무관하게 같은 값이 나와야 하므로 String.hashCode는 쓰지 않는다.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,107 @@
+package com.bok.chat.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * heartbeat마다 EXPIRE를 보내지 않고 노드 로컬에 유저 ID만 모아뒀다가
+ * 주기적으로 파이프라인 한 번에 TTL을 갱신한다.
+ *
+ * flush 주기 안에 같은 유저의 heartbeat이 여러 번 오면 EXPIRE 한 번으로 합쳐지고,
+ * 나머지는 라운드트립 한 번으로 묶인다.
+ */
+@Slf4j
+@Component
+public class HeartbeatCoalescer {
+
+    private final StringRedisTemplate redisTemplate;
+    private final int batchSize;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final Counter received;
+    private final Counter commandsSaved;
+    private final Timer flushTimer;
+
+    public HeartbeatCoalescer(StringRedisTemplate redisTemplate,
+                              HeartbeatProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.batchSize = properties.getBatchSize();
+        this.received = Counter.builder("chat.presence.heartbeat.received")
+                .description("Heartbeats recorded for a coalesced TTL refresh")
+                .register(meterRegistry);
+        this.commandsSaved = Counter.builder("chat.presence.heartbeat.commands.saved")
+                .description("EXPIRE commands avoided by coalescing heartbeats of the same user")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.presence.heartbeat.flush")
+                .description("Time to pipeline one flush of coalesced heartbeats")
+                .register(meterRegistry);
+    }
+
+    public void record(Long userId) {
+        received.increment();
+        if (!pending.add(userId)) {
+            commandsSaved.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.heartbeat.flush-interval:60s}")
+    public void flush() {
+        List<Long> batch = drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            for (int from = 0; from < batch.size(); from += batchSize) {
+                expireAll(batch.subList(from, Math.min(from + batchSize, batch.size())));
+            }
+        });
+        log.debug("Flushed {} coalesced heartbeats", batch.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * 순회하면서 하나씩 꺼내므로, flush 도중 들어온 heartbeat은 유실되지 않고 다음 flush로 넘어간다.
+     */
+    private List<Long> drain() {
+        List<Long> batch = new ArrayList<>();
+        Iterator<Long> it = pending.iterator();
+        while (it.hasNext()) {
+            batch.add(it.next());
+            it.remove();
+        }
+        return batch;
+    }
+
+    private void expireAll(List<Long> userIds) {
+        long ttlSeconds = OnlineStatusService.TTL.toSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long userId : userIds) {
+                expire(connection, OnlineStatusService.onlineKey(userId), ttlSeconds);
+            }
+            return null;
+        });
+    }
+
+    private static void expire(RedisConnection connection, String key, long ttlSeconds) {
+        connection.keyCommands().expire(key.getBytes(StandardCharsets.UTF_8), ttlSeconds);
+    }
+}
@@ -0,0 +1,25 @@
+package com.bok.chat.redis;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.presence.heartbeat")
+public class HeartbeatProperties {
+
+    /**
+     * 모아둔 heartbeat을 Redis에 반영하는 주기. 온라인 키 TTL(5분)보다 충분히 짧아야 한다.
+     */
+    private Duration flushInterval = Duration.ofSeconds(60);
+
+    /**
+     * 파이프라인 한 번에 보낼 최대 EXPIRE 수.
+     */
+    private int batchSize = 1000;
+}
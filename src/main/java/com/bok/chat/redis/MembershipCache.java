@@ -0,0 +1,160 @@
+package com.bok.chat.redis;
+
+import com.bok.chat.entity.ChatRoomUser;
+import com.bok.chat.event.ChatRoomMembersJoinedEvent;
+import com.bok.chat.event.MembershipChangedEvent;
+import com.bok.chat.repository.ChatRoomUserRepository;
+import com.bok.chat.repository.FriendshipRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * userId → 친구 ID 목록 / 참여 중인 방 ID 목록, chatRoomId → 활성 멤버 수의 노드 로컬 캐시.
+ * 배포 직후처럼 재연결이 몰려도 연결마다 Postgres를 조회하지 않도록 한다.
+ *
+ * 친구 추가나 방 생성/초대/퇴장이 커밋되면 무효화 채널로 모든 노드에 알리고,
+ * 무효화를 놓치더라도 TTL이 지나면 다시 DB에서 읽는다.
+ */
+@Slf4j
+@Component
+public class MembershipCache implements MessageListener {
+
+    static final String INVALIDATION_CHANNEL = "membership:invalidate";
+    private static final String ID_SEPARATOR = ",";
+
+    private final FriendshipRepository friendshipRepository;
+    private final ChatRoomUserRepository chatRoomUserRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Cache<Long, List<Long>> friendIds;
+    private final Cache<Long, List<Long>> roomIds;
+    private final Cache<Long, Integer> memberCounts;
+
+    public MembershipCache(FriendshipRepository friendshipRepository,
+                           ChatRoomUserRepository chatRoomUserRepository,
+                           StringRedisTemplate redisTemplate,
+                           RedisMessageListenerContainer listenerContainer,
+                           MembershipCacheProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.friendshipRepository = friendshipRepository;
+        this.chatRoomUserRepository = chatRoomUserRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.friendIds = build(properties);
+        this.roomIds = build(properties);
+        this.memberCounts = build(properties);
+        Gauge.builder("chat.membership.cache.hit.ratio", friendIds, c -> c.stats().hitRate())
+                .tag("list", "friends")
+                .register(meterRegistry);
+        Gauge.builder("chat.membership.cache.hit.ratio", roomIds, c -> c.stats().hitRate())
+                .tag("list", "rooms")
+                .register(meterRegistry);
+    }
+
+    private static <V> Cache<Long, V> build(MembershipCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public List<Long> friendIds(Long userId) {
+        return friendIds.get(userId, id -> List.copyOf(friendshipRepository.findFriendIdsByUserId(id)));
+    }
+
+    public List<Long> roomIds(Long userId) {
+        return roomIds.get(userId, id -> List.copyOf(
+                chatRoomUserRepository.findChatRoomIdsByUserIdAndStatus(id, ChatRoomUser.Status.ACTIVE)));
+    }
+
+    /**
+     * 방별 활성 멤버 수. 캐시에 없는 방만 GROUP BY 한 번으로 읽는다.
+     * 입장은 room-members 알림으로 바로 갱신하고, 퇴장으로 줄어든 수는 TTL이 지나야 반영된다.
+     */
+    public Map<Long, Integer> memberCounts(Collection<Long> chatRoomIds) {
+        return memberCounts.getAll(chatRoomIds, this::loadMemberCounts);
+    }
+
+    public void updateMemberCount(Long chatRoomId, int memberCount) {
+        memberCounts.put(chatRoomId, memberCount);
+    }
+
+    private Map<Long, Integer> loadMemberCounts(Set<? extends Long> chatRoomIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Long chatRoomId : chatRoomIds) {
+            counts.put(chatRoomId, 0);
+        }
+        for (ChatRoomUserRepository.RoomMemberCount count : chatRoomUserRepository
+                .countMembersByChatRoomIds(List.copyOf(chatRoomIds), ChatRoomUser.Status.ACTIVE)) {
+            counts.put(count.getChatRoomId(), (int) count.getMemberCount());
+        }
+        return counts;
+    }
+
+    /**
+     * 커밋 전에 지우면 그 사이 다른 스레드가 옛 목록을 다시 채울 수 있어 커밋 후에 무효화한다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        publishInvalidation(event.userIds());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMembersJoined(ChatRoomMembersJoinedEvent event) {
+        publishInvalidation(event.userIds());
+    }
+
+    /**
+     * 로컬 캐시를 지우고 다른 노드에도 무효화를 전파한다.
+     */
+    public void publishInvalidation(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        invalidate(userIds);
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                userIds.stream().map(String::valueOf).collect(Collectors.joining(ID_SEPARATOR)));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            invalidate(Arrays.stream(body.split(ID_SEPARATOR)).map(Long::valueOf).toList());
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed membership invalidation: {}", body);
+        }
+    }
+
+    private void invalidate(Collection<Long> userIds) {
+        friendIds.invalidateAll(userIds);
+        roomIds.invalidateAll(userIds);
+    }
+}
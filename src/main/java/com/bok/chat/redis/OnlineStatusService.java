@@ -2,34 +2,78 @@ package com.bok.chat.redis;
 
 import com.bok.chat.config.ServerIdHolder;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class OnlineStatusService {
 
     private static final String ONLINE_KEY_PREFIX = "online:";
-    private static final Duration TTL = Duration.ofMinutes(5);
+    static final Duration TTL = Duration.ofMinutes(5);
+
+    /**
+     * 키가 아직 이 서버를 가리킬 때만 지운다.
+     * 유예 기간 동안 다른 서버로 재연결했다면 그 서버의 라우팅을 지우지 않는다.
+     */
+    private static final RedisScript<Long> DELETE_IF_OWNER = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end",
+            Long.class);
 
     private final StringRedisTemplate redisTemplate;
     private final ServerIdHolder serverIdHolder;
+    private final ServerRoutingCache routingCache;
+    private final HeartbeatCoalescer heartbeatCoalescer;
+    private final PresenceProperties presenceProperties;
+
+    static String onlineKey(Long userId) {
+        return ONLINE_KEY_PREFIX + userId;
+    }
 
-    public void setOnline(Long userId) {
-        redisTemplate.opsForValue().set(
-                ONLINE_KEY_PREFIX + userId,
-                serverIdHolder.getServerId(),
-                TTL);
+    /**
+     * 유저가 연결된 서버가 바뀐 경우에만 다른 노드의 라우팅 캐시를 무효화한다.
+     * SET GET EX 한 번으로 이전 값을 읽으면서 TTL까지 건다. 값과 TTL을 따로 쓰면 그 사이 장애 시 TTL 없는 키가 남는다.
+     * @return 이미 온라인 키가 있었으면 true (다른 노드에서 옮겨 오는 중이거나 같은 노드의 다른 기기)
+     */
+    public boolean setOnline(Long userId) {
+        String key = ONLINE_KEY_PREFIX + userId;
+        String serverId = serverIdHolder.getServerId();
+        String previous = redisTemplate.opsForValue().setGet(key, serverId, TTL);
+        if (!serverId.equals(previous)) {
+            routingCache.publishInvalidation(userId);
+        }
+        return previous != null;
     }
 
+    /**
+     * TTL 갱신은 바로 보내지 않고 HeartbeatCoalescer가 모아서 주기적으로 반영한다.
+     */
     public void refreshOnline(Long userId) {
-        redisTemplate.expire(ONLINE_KEY_PREFIX + userId, TTL);
+        heartbeatCoalescer.record(userId);
     }
 
-    public void setOffline(Long userId) {
-        redisTemplate.delete(ONLINE_KEY_PREFIX + userId);
+    /**
+     * @return 이 서버가 가진 온라인 키를 지웠으면 true, 이미 다른 서버로 옮겨갔거나 키가 없으면 false
+     */
+    public boolean setOffline(Long userId) {
+        Long deleted = redisTemplate.execute(DELETE_IF_OWNER,
+                List.of(ONLINE_KEY_PREFIX + userId), serverIdHolder.getServerId());
+        if (deleted == null || deleted == 0) {
+            return false;
+        }
+        routingCache.publishInvalidation(userId);
+        return true;
     }
 
     public boolean isOnline(Long userId) {
@@ -37,6 +81,77 @@ public class OnlineStatusService {
     }
 
     public String getServerId(Long userId) {
-        return redisTemplate.opsForValue().get(ONLINE_KEY_PREFIX + userId);
+        String cached = routingCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        String serverId = redisTemplate.opsForValue().get(ONLINE_KEY_PREFIX + userId);
+        if (serverId != null) {
+            routingCache.put(userId, serverId);
+        }
+        return serverId;
+    }
+
+    /**
+     * 여러 유저의 서버 ID를 조회한다.
+     * 로컬 라우팅 캐시에 없는 유저만 MGET 한 번(라운드트립 1회)으로 Redis에서 읽는다.
+     * 친구가 수천 명인 유저의 상태 알림처럼 키가 많으면 MGET을 lookupBatchSize 단위로 나눠
+     * 파이프라인 한 번에 보낸다. Redis가 거대한 MGET 하나에 묶이지 않고 라운드트립도 한 번이다.
+     * 오프라인 유저는 결과에 포함되지 않으므로 호출 측의 전송 비용은 온라인 유저 수에 비례한다.
+     */
+    public Map<Long, String> getServerIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, String> result = new HashMap<>(routingCache.getAll(userIds));
+        List<Long> misses = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (!result.containsKey(userId)) {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        List<String> keys = misses.stream().map(id -> ONLINE_KEY_PREFIX + id).toList();
+        List<String> serverIds = multiGet(keys);
+        if (serverIds == null) {
+            return result;
+        }
+
+        Map<Long, String> loaded = new HashMap<>();
+        for (int i = 0; i < misses.size(); i++) {
+            String serverId = serverIds.get(i);
+            if (serverId != null) {
+                loaded.put(misses.get(i), serverId);
+            }
+        }
+        routingCache.putAll(loaded);
+        result.putAll(loaded);
+        return result;
+    }
+
+    private List<String> multiGet(List<String> keys) {
+        int batchSize = presenceProperties.getLookupBatchSize();
+        if (keys.size() <= batchSize) {
+            return redisTemplate.opsForValue().multiGet(keys);
+        }
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < keys.size(); from += batchSize) {
+                byte[][] chunk = keys.subList(from, Math.min(from + batchSize, keys.size())).stream()
+                        .map(key -> key.getBytes(StandardCharsets.UTF_8))
+                        .toArray(byte[][]::new);
+                connection.stringCommands().mGet(chunk);
+            }
+            return null;
+        });
+        List<String> serverIds = new ArrayList<>(keys.size());
+        for (Object reply : replies) {
+            for (Object serverId : (List<?>) reply) {
+                serverIds.add((String) serverId);
+            }
+        }
+        return serverIds;
     }
 }
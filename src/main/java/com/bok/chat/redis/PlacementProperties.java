@@ -0,0 +1,56 @@
+package com.bok.chat.redis;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.placement")
+public class PlacementProperties {
+
+    public enum Strategy {
+        /**
+         * 유저의 주 방(활성 멤버가 가장 많은 방)을 키로 쓴다. 같은 방 멤버가 같은 노드에 모인다.
+         */
+        ROOM_AFFINITY,
+        /**
+         * 유저 ID를 키로 쓴다. 고르게 퍼지지만 방 멤버가 흩어진다.
+         */
+        USER_HASH
+    }
+
+    /**
+     * 꺼져 있으면 서버 등록을 하지 않고 /ws/endpoint는 204를 돌려준다 (클라이언트는 기본 호스트로 접속).
+     */
+    private boolean enabled = false;
+
+    private Strategy strategy = Strategy.ROOM_AFFINITY;
+
+    /**
+     * 클라이언트가 이 노드에 접속할 WebSocket 주소 (예: wss://chat-1.example.com/ws).
+     */
+    private String advertisedUrl;
+
+    /**
+     * 서버 하나가 ring에 올리는 가상 노드 수. 많을수록 서버 간 키 분포가 고르다.
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * 서버 하나가 받을 수 있는 접속 유저 수를 평균의 몇 배로 제한할지. 넘친 서버는 ring의 다음 서버로 넘긴다.
+     * 큰 방 멤버가 한 노드로 몰리는 것을 막는다. 0이면 제한하지 않는다.
+     */
+    private double maxLoadFactor = 1.25;
+
+    private Duration heartbeatInterval = Duration.ofSeconds(10);
+
+    /**
+     * 마지막 heartbeat 이후 이 시간이 지나면 죽은 서버로 보고 ring에서 뺀다.
+     */
+    private Duration serverTtl = Duration.ofSeconds(30);
+}
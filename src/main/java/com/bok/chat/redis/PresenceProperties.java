@@ -0,0 +1,26 @@
+package com.bok.chat.redis;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.presence")
+public class PresenceProperties {
+
+    /**
+     * 마지막 세션이 끊긴 뒤 오프라인으로 확정하기까지 기다리는 시간.
+     * 이 안에 재연결하면 친구들에게 오프라인/온라인 이벤트를 보내지 않는다. 0이면 바로 오프라인 처리한다.
+     */
+    private Duration gracePeriod = Duration.ofSeconds(10);
+
+    /**
+     * 온라인 여부를 한 번에 조회할 때 MGET 하나에 넣을 최대 키 수. 넘으면 나눠서 파이프라인으로 보낸다.
+     */
+    private int lookupBatchSize = 500;
+}
@@ -0,0 +1,205 @@
+package com.bok.chat.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 유저별 접속 상태 머신. OFFLINE → ONLINE → GRACE → OFFLINE
+ *
+ * 마지막 세션이 끊기면 바로 오프라인으로 만들지 않고 유예 기간(GRACE)을 둔다.
+ * 유예 기간 안에 재연결하면 GRACE → ONLINE 으로 돌아가고 친구들에게는 아무것도 보내지 않는다.
+ * Wi-Fi/LTE 전환처럼 연결이 잠깐 끊겼다 붙는 경우 상태 이벤트 폭주를 막는다.
+ *
+ * 노드를 옮겨 다시 붙는 경우(드레인, 재배포)는 새 노드의 로컬 상태가 OFFLINE이어도 Redis 온라인 키가 남아 있으므로
+ * 온라인 알림을 보내지 않는다. 이전 노드의 유예 만료는 키 주인이 바뀌어 오프라인 알림 없이 끝난다.
+ *
+ * 상태 전이는 ConcurrentHashMap.compute 안에서 결정하고, Redis 온라인 키 변경(네트워크 I/O)은 compute가 끝난 뒤에 한다.
+ * bin 락을 잡은 채 Redis를 기다리면 같은 bin의 다른 유저까지 막히고 가상 스레드가 캐리어에 고정되기 때문이다.
+ * 그래서 오프라인 처리로 키를 지운 사이 재연결했을 수 있다. 키를 지운 뒤 상태가 다시 ONLINE이면 키를 되살리고 오프라인은 알리지 않는다.
+ *
+ * 연결 처리(상태 전이 → 키 설정 → 온라인 알림)와 오프라인 처리(상태 전이 → 키 삭제 → 재확인 → 오프라인 알림)는
+ * 유저별 락(가상 스레드를 고정하지 않는 ReentrantLock)으로 직렬화한다. 락이 없으면 재확인 직후 재연결한 유저의
+ * 온라인 알림이 오프라인 알림보다 먼저 나가 친구들에게 오프라인으로 남는다.
+ */
+@Slf4j
+@Component
+public class PresenceTracker {
+
+    enum State { OFFLINE, ONLINE, GRACE }
+
+    private static final int USER_LOCK_STRIPES = 64;
+
+    private final OnlineStatusService onlineStatusService;
+    private final TaskScheduler taskScheduler;
+    private final Duration gracePeriod;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Presence> presences = new ConcurrentHashMap<>();
+    private final Lock[] userLocks = new Lock[USER_LOCK_STRIPES];
+
+    public PresenceTracker(OnlineStatusService onlineStatusService,
+                           TaskScheduler taskScheduler,
+                           PresenceProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.onlineStatusService = onlineStatusService;
+        this.taskScheduler = taskScheduler;
+        this.gracePeriod = properties.getGracePeriod();
+        this.meterRegistry = meterRegistry;
+        for (int i = 0; i < userLocks.length; i++) {
+            userLocks[i] = new ReentrantLock();
+        }
+        Gauge.builder("chat.presence.grace.size", presences,
+                        p -> p.values().stream().filter(presence -> presence.state == State.GRACE).count())
+                .description("Users whose last session closed and are waiting out the grace period")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 세션이 연결될 때마다 호출한다. 이 노드에서도, Redis에서도 오프라인이었던 경우에만 notifyOnline을 실행한다.
+     */
+    public void connected(Long userId, Runnable notifyOnline) {
+        Lock lock = lockFor(userId);
+        lock.lock();
+        try {
+            connectedLocked(userId, notifyOnline);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void connectedLocked(Long userId, Runnable notifyOnline) {
+        AtomicBoolean cameOnline = new AtomicBoolean();
+        presences.compute(userId, (id, current) -> {
+            State from = current == null ? State.OFFLINE : current.state;
+            if (from == State.GRACE) {
+                current.offlineTask.cancel(false);
+            }
+            if (from != State.ONLINE) {
+                transition(from, State.ONLINE);
+            }
+            cameOnline.set(from == State.OFFLINE);
+            return new Presence(State.ONLINE);
+        });
+        boolean alreadyOnline = onlineStatusService.setOnline(userId);
+        if (cameOnline.get() && !alreadyOnline) {
+            notifyOnline.run();
+        }
+    }
+
+    /**
+     * 유저의 마지막 세션이 끊겼을 때 호출한다. 유예 기간이 지나도 재연결이 없으면 notifyOffline을 실행한다.
+     */
+    public void disconnected(Long userId, Runnable notifyOffline) {
+        if (gracePeriod.isZero() || gracePeriod.isNegative()) {
+            Lock lock = lockFor(userId);
+            lock.lock();
+            try {
+                presences.compute(userId, (id, current) -> {
+                    transition(State.ONLINE, State.OFFLINE);
+                    return null;
+                });
+                notifyOffline(userId, markOffline(userId), notifyOffline);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        presences.compute(userId, (id, current) -> {
+            if (current != null && current.state == State.GRACE) {
+                return current;
+            }
+            Presence grace = new Presence(State.GRACE);
+            grace.offlineTask = taskScheduler.schedule(
+                    () -> expire(userId, grace, notifyOffline), Instant.now().plus(gracePeriod));
+            transition(State.ONLINE, State.GRACE);
+            return grace;
+        });
+    }
+
+    State stateOf(Long userId) {
+        Presence presence = presences.get(userId);
+        return presence == null ? State.OFFLINE : presence.state;
+    }
+
+    private void expire(Long userId, Presence grace, Runnable notifyOffline) {
+        Lock lock = lockFor(userId);
+        lock.lock();
+        try {
+            AtomicBoolean expired = new AtomicBoolean();
+            presences.computeIfPresent(userId, (id, current) -> {
+                if (current != grace) {
+                    return current;
+                }
+                transition(State.GRACE, State.OFFLINE);
+                expired.set(true);
+                return null;
+            });
+            if (expired.get()) {
+                notifyOffline(userId, markOffline(userId), notifyOffline);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * compute 밖에서 온라인 키를 지운다. 오프라인을 알려야 하면 true를 반환한다. 유저 락을 잡은 채 호출한다.
+     * 유예 기간 중 다른 서버로 재연결했다면 온라인 키가 그 서버로 바뀌어 있으므로 지우지 않고(DELETE_IF_OWNER 실패) 알리지도 않는다.
+     * 키를 지우는 사이 이 노드로 재연결했다면 그 연결의 키까지 지웠을 수 있으므로 다시 설정한다.
+     */
+    private boolean markOffline(Long userId) {
+        if (!onlineStatusService.setOffline(userId)) {
+            log.debug("User {} moved to another server during grace period", userId);
+            return false;
+        }
+        if (stateOf(userId) == State.ONLINE) {
+            onlineStatusService.setOnline(userId);
+            return false;
+        }
+        return true;
+    }
+
+    private void notifyOffline(Long userId, boolean wentOffline, Runnable notifyOffline) {
+        if (!wentOffline) {
+            return;
+        }
+        try {
+            notifyOffline.run();
+        } catch (RuntimeException e) {
+            log.error("Failed to notify offline status: userId={}", userId, e);
+        }
+    }
+
+    private Lock lockFor(Long userId) {
+        return userLocks[Math.floorMod(Long.hashCode(userId), userLocks.length)];
+    }
+
+    private void transition(State from, State to) {
+        Counter.builder("chat.presence.transitions")
+                .tag("from", from.name().toLowerCase())
+                .tag("to", to.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static final class Presence {
+        private final State state;
+        private volatile ScheduledFuture<?> offlineTask;
+
+        private Presence(State state) {
+            this.state = state;
+        }
+    }
+}
@@ -1,74 +1,111 @@
 package com.bok.chat.redis;
 
 import com.bok.chat.config.ServerIdHolder;
-import com.bok.chat.websocket.WebSocketMessage;
+import com.bok.chat.websocket.MessageType;
+import com.bok.chat.websocket.OutboundFrame;
+import com.bok.chat.websocket.OutboundSession;
 import com.bok.chat.websocket.WebSocketSessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.listener.ChannelTopic;
-import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.TextMessage;
-import org.springframework.web.socket.WebSocketSession;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class RedisMessageRelay implements MessageListener {
 
     private static final String CHANNEL_PREFIX = "server:";
 
-    private final StringRedisTemplate redisTemplate;
-    private final RedisMessageListenerContainer listenerContainer;
+    private final RelayTransport relayTransport;
     private final ServerIdHolder serverIdHolder;
     private final WebSocketSessionManager sessionManager;
     private final ObjectMapper objectMapper;
 
+    private final Counter publishes;
+    private final DistributionSummary publishesSaved;
+
+    public RedisMessageRelay(@Qualifier("serverRelayTransport") RelayTransport relayTransport,
+                             ServerIdHolder serverIdHolder,
+                             WebSocketSessionManager sessionManager,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.relayTransport = relayTransport;
+        this.serverIdHolder = serverIdHolder;
+        this.sessionManager = sessionManager;
+        this.objectMapper = objectMapper;
+        this.publishes = Counter.builder("chat.relay.publishes")
+                .description("Relay envelopes published to server channels")
+                .register(meterRegistry);
+        this.publishesSaved = DistributionSummary.builder("chat.relay.publishes.saved")
+                .description("Publishes avoided per broadcast by grouping recipients per target server")
+                .register(meterRegistry);
+    }
+
     @PostConstruct
     public void subscribe() {
         String channel = CHANNEL_PREFIX + serverIdHolder.getServerId();
-        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        relayTransport.subscribe(channel, this);
         log.info("Subscribed to Redis channel: {}", channel);
     }
 
     /**
-     * 타 서버 유저에게 메시지 전달.
-     * 대상 유저의 서버 채널로 publish.
+     * 타 서버 유저들에게 메시지 전달.
+     * 대상 서버별로 수신자를 묶어 서버 채널당 한 번만 publish한다.
+     * (300명이 한 서버에 있으면 publish 300번 → 1번)
      */
-    public void relayToUser(Long targetUserId, String targetServerId, WebSocketMessage message) {
-        try {
-            RelayEnvelope envelope = new RelayEnvelope(targetUserId, message);
-            String json = objectMapper.writeValueAsString(envelope);
-            redisTemplate.convertAndSend(CHANNEL_PREFIX + targetServerId, json);
-        } catch (IOException e) {
-            log.error("Failed to relay message to server:{} for userId={}", targetServerId, targetUserId, e);
+    public void relay(Map<String, List<Long>> recipientsByServer, OutboundFrame frame) {
+        int recipients = 0;
+        for (Map.Entry<String, List<Long>> entry : recipientsByServer.entrySet()) {
+            publish(entry.getKey(), entry.getValue(), frame);
+            recipients += entry.getValue().size();
         }
+        publishesSaved.record(recipients - recipientsByServer.size());
     }
 
     /**
      * 자신의 채널로 메시지가 도착했을 때 (타 서버가 publish).
-     * 로컬 WebSocket 세션으로 전달.
+     * 이미 직렬화된 payload를 그대로 로컬 WebSocket 세션으로 fan-out.
      */
     @Override
     public void onMessage(Message message, byte[] pattern) {
         try {
             RelayEnvelope envelope = objectMapper.readValue(message.getBody(), RelayEnvelope.class);
-            WebSocketSession session = sessionManager.getSession(envelope.targetUserId());
-            if (session != null && session.isOpen()) {
-                String json = objectMapper.writeValueAsString(envelope.message());
-                session.sendMessage(new TextMessage(json));
+            OutboundFrame frame = OutboundFrame.of(envelope.type(), envelope.payload());
+            for (Long userId : envelope.targetUserIds()) {
+                for (OutboundSession session : sessionManager.getSessions(userId)) {
+                    if (session.isOpen()) {
+                        session.send(frame);
+                    }
+                }
             }
         } catch (IOException e) {
             log.error("Failed to process relayed message", e);
         }
     }
 
-    public record RelayEnvelope(Long targetUserId, WebSocketMessage message) {}
+    private void publish(String targetServerId, List<Long> targetUserIds, OutboundFrame frame) {
+        try {
+            RelayEnvelope envelope = new RelayEnvelope(targetUserIds, frame.type(), frame.payload());
+            String json = objectMapper.writeValueAsString(envelope);
+            relayTransport.publish(CHANNEL_PREFIX + targetServerId, json);
+            publishes.increment();
+        } catch (IOException e) {
+            log.error("Failed to relay message to server:{} for userIds={}", targetServerId, targetUserIds, e);
+        }
+    }
+
+    /**
+     * payload는 송신 서버에서 직렬화한 WebSocket 프레임(JSON) 그대로다. 수신 서버는 다시 직렬화하지 않는다.
+     */
+    public record RelayEnvelope(List<Long> targetUserIds, MessageType type, String payload) {}
 }
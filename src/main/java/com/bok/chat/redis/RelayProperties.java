@@ -0,0 +1,71 @@
+package com.bok.chat.redis;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.relay")
+public class RelayProperties {
+
+    public enum Mode {
+        /**
+         * 수신자의 서버를 조회해 server:{id} 채널마다 publish한다.
+         */
+        SERVER,
+        /**
+         * 방 메시지는 room:{id} 채널에 한 번만 publish하고, 그 방의 멤버가 접속한 노드가 구독해서 받는다.
+         */
+        ROOM,
+        /**
+         * 멤버 수가 roomTopicMinMembers 이상인 방만 ROOM, 나머지는 SERVER.
+         */
+        AUTO
+    }
+
+    private Mode mode = Mode.SERVER;
+
+    /**
+     * AUTO 모드에서 room 채널을 쓰기 시작하는 멤버 수.
+     */
+    private int roomTopicMinMembers = 100;
+
+    /**
+     * Redis Cluster에서 server/room 채널을 SPUBLISH/SSUBSCRIBE로 중계한다.
+     * 연결 대상이 클러스터가 아니면 classic Pub/Sub으로 동작한다.
+     */
+    private boolean shardedPubsub = false;
+
+    private Stream stream = new Stream();
+
+    /**
+     * server:{id} 중계를 서버별 Redis Stream(consumer group + XACK)으로 보낸다.
+     * 노드가 재시작 중이거나 리스너가 밀려도 항목이 스트림에 남아 있다가 다시 읽힌다.
+     */
+    @Getter
+    @Setter
+    public static class Stream {
+
+        private boolean enabled = false;
+
+        /**
+         * XADD MAXLEN ~ 값. 오래 내려가 있던 서버의 스트림이 무한히 쌓이지 않게 자른다.
+         */
+        private long maxLength = 100_000;
+
+        /**
+         * XREADGROUP 한 번에 읽는 항목 수.
+         */
+        private int batchSize = 100;
+
+        /**
+         * XREADGROUP BLOCK 시간. Redis 명령 타임아웃보다 짧아야 한다.
+         */
+        private Duration pollTimeout = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,23 @@
+package com.bok.chat.redis;
+
+import org.springframework.data.redis.connection.MessageListener;
+
+/**
+ * 서버 간 중계 채널의 publish/subscribe 경로.
+ *
+ * 단일 Redis나 Redis Cluster의 classic Pub/Sub은 {@link ClassicRelayTransport},
+ * Redis Cluster에서 채널을 한 샤드에만 두려면 {@link ShardedRelayTransport}(SPUBLISH/SSUBSCRIBE)를 쓴다.
+ * 어느 쪽이든 수신 메시지는 redisListenerExecutor 하나에서 도착 순서대로 리스너로 넘어간다.
+ */
+public interface RelayTransport extends AutoCloseable {
+
+    void publish(String channel, String message);
+
+    void subscribe(String channel, MessageListener listener);
+
+    void unsubscribe(String channel, MessageListener listener);
+
+    @Override
+    default void close() {
+    }
+}
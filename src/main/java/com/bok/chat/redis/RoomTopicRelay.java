@@ -0,0 +1,298 @@
+package com.bok.chat.redis;
+
+import com.bok.chat.config.ServerIdHolder;
+import com.bok.chat.event.ChatRoomMembersJoinedEvent;
+import com.bok.chat.websocket.MessageType;
+import com.bok.chat.websocket.OutboundFrame;
+import com.bok.chat.websocket.OutboundSession;
+import com.bok.chat.websocket.WebSocketSessionManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 방 단위 Pub/Sub 중계 (chat.relay.mode = ROOM | AUTO).
+ *
+ * 노드는 로컬 세션의 유저가 속한 방의 room:{chatRoomId} 채널만 구독하고,
+ * 방 메시지는 멤버가 몇 개 노드에 흩어져 있든 room 채널에 한 번만 publish한다.
+ * 송신 노드는 수신자 서버를 조회하지 않아도 되고, 큰 방에서 서버 수만큼 publish하던 것이 한 번으로 준다.
+ *
+ * 구독은 로컬 멤버십으로 유지한다. 연결 시 유저의 방을 MembershipCache에서 읽어 구독하고, 마지막 세션이 끊기면 정리한다.
+ * AUTO 모드에서는 room 채널로 publish되는 방(멤버 수 ≥ roomTopicMinMembers)만 구독한다. 작은 방은 room 채널에 아무것도 오지 않는다.
+ * 방 생성/초대로 멤버가 늘면 커밋 후 room-members 채널로 모든 노드에 알려, 그 유저가 접속한 노드가 구독하게 한다.
+ * 초대로 방이 기준을 넘으면 기존 멤버도 room 채널로 받아야 하므로 각 노드가 그 방의 로컬 멤버 전부를 구독시킨다.
+ * 구독이 남는 쪽(퇴장 후에도 다른 기기가 구독 유지 등)은 envelope의 멤버 목록으로 걸러지므로 무해하다.
+ */
+@Slf4j
+@Component
+public class RoomTopicRelay implements MessageListener {
+
+    private static final String ROOM_CHANNEL_PREFIX = "room:";
+    static final String MEMBERS_CHANNEL = "room-members";
+    private static final int SUBSCRIPTION_LOCK_STRIPES = 64;
+
+    private final RelayTransport relayTransport;
+    private final ServerIdHolder serverIdHolder;
+    private final WebSocketSessionManager sessionManager;
+    private final MembershipCache membershipCache;
+    private final ObjectMapper objectMapper;
+    private final RelayProperties properties;
+
+    private final Map<Long, Set<Long>> localUsersByRoom = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> roomsByUser = new ConcurrentHashMap<>();
+    private final Set<Long> subscribedRooms = ConcurrentHashMap.newKeySet();
+    private final Lock[] subscriptionLocks = new Lock[SUBSCRIPTION_LOCK_STRIPES];
+    private final Counter publishes;
+
+    public RoomTopicRelay(RelayTransport relayTransport,
+                          ServerIdHolder serverIdHolder,
+                          WebSocketSessionManager sessionManager,
+                          MembershipCache membershipCache,
+                          ObjectMapper objectMapper,
+                          RelayProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.relayTransport = relayTransport;
+        this.serverIdHolder = serverIdHolder;
+        this.sessionManager = sessionManager;
+        this.membershipCache = membershipCache;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        for (int i = 0; i < subscriptionLocks.length; i++) {
+            subscriptionLocks[i] = new ReentrantLock();
+        }
+        this.publishes = Counter.builder("chat.relay.room.publishes")
+                .description("Room messages published once to a room channel")
+                .register(meterRegistry);
+        Gauge.builder("chat.relay.room.subscriptions", localUsersByRoom, Map::size)
+                .description("Room channels this node is subscribed to")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (isEnabled()) {
+            relayTransport.subscribe(MEMBERS_CHANNEL, this);
+        }
+    }
+
+    /**
+     * 이 방의 메시지를 room 채널로 보낼지 결정한다.
+     * 초대 알림은 초대받은 유저의 노드가 아직 구독하지 않았을 수 있으므로 항상 서버 채널로 보낸다.
+     */
+    public boolean shouldPublishToRoom(Long chatRoomId, int memberCount, MessageType type) {
+        if (chatRoomId == null || type == MessageType.ROOM_INVITE) {
+            return false;
+        }
+        return usesRoomTopic(memberCount);
+    }
+
+    public void publish(Long chatRoomId, List<Long> memberIds, OutboundFrame frame) {
+        try {
+            RoomEnvelope envelope = new RoomEnvelope(serverIdHolder.getServerId(), chatRoomId,
+                    memberIds, frame.type(), frame.payload());
+            relayTransport.publish(ROOM_CHANNEL_PREFIX + chatRoomId, objectMapper.writeValueAsString(envelope));
+            publishes.increment();
+        } catch (IOException e) {
+            log.error("Failed to publish to room:{}", chatRoomId, e);
+        }
+    }
+
+    public void userConnected(Long userId) {
+        if (isEnabled()) {
+            join(roomTopicRooms(membershipCache.roomIds(userId)), userId);
+        }
+    }
+
+    public void userDisconnected(Long userId) {
+        Set<Long> rooms = roomsByUser.remove(userId);
+        if (rooms != null) {
+            rooms.forEach(chatRoomId -> removeLocalUser(chatRoomId, userId));
+        }
+    }
+
+    public void leave(Long userId, Long chatRoomId) {
+        roomsByUser.computeIfPresent(userId, (id, rooms) -> {
+            rooms.remove(chatRoomId);
+            return rooms.isEmpty() ? null : rooms;
+        });
+        removeLocalUser(chatRoomId, userId);
+    }
+
+    /**
+     * 방 생성/초대가 커밋되면 모든 노드에 알린다. 새 멤버가 접속해 있는 노드가 그 방을 구독한다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMembersJoined(ChatRoomMembersJoinedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            relayTransport.publish(MEMBERS_CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (IOException e) {
+            log.error("Failed to announce members of room:{}", event.chatRoomId(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            if (MEMBERS_CHANNEL.equals(new String(message.getChannel(), StandardCharsets.UTF_8))) {
+                onMembersJoinedMessage(objectMapper.readValue(message.getBody(), ChatRoomMembersJoinedEvent.class));
+                return;
+            }
+            RoomEnvelope envelope = objectMapper.readValue(message.getBody(), RoomEnvelope.class);
+            if (serverIdHolder.getServerId().equals(envelope.originServerId())) {
+                return; // 송신 노드는 로컬 세션에 이미 직접 보냈다
+            }
+            OutboundFrame frame = OutboundFrame.of(envelope.type(), envelope.payload());
+            for (Long userId : envelope.memberIds()) {
+                for (OutboundSession session : sessionManager.getSessions(userId)) {
+                    if (session.isOpen()) {
+                        session.send(frame);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to process room message", e);
+        }
+    }
+
+    /**
+     * 새 멤버 중 이 노드에 접속한 유저를 구독시킨다. 이번 초대로 방이 기준을 넘었으면 기존 로컬 멤버도 함께 구독시킨다.
+     * 기존 멤버는 MembershipCache의 방 목록으로 찾는다. 기준을 넘는 순간에만 로컬 유저를 한 번 훑는다.
+     */
+    private void onMembersJoinedMessage(ChatRoomMembersJoinedEvent event) {
+        Long chatRoomId = event.chatRoomId();
+        membershipCache.updateMemberCount(chatRoomId, event.memberCount());
+        if (!usesRoomTopic(event.memberCount())) {
+            return;
+        }
+        Set<Long> joiners = new HashSet<>();
+        for (Long userId : event.userIds()) {
+            if (sessionManager.isOnline(userId)) {
+                joiners.add(userId);
+            }
+        }
+        if (!usesRoomTopic(event.memberCount() - event.userIds().size())) {
+            sessionManager.forEachSession((userId, session) -> {
+                if (!joiners.contains(userId) && membershipCache.roomIds(userId).contains(chatRoomId)) {
+                    joiners.add(userId);
+                }
+            });
+        }
+        for (Long userId : joiners) {
+            join(List.of(chatRoomId), userId);
+        }
+    }
+
+    boolean isSubscribed(Long chatRoomId) {
+        return localUsersByRoom.containsKey(chatRoomId);
+    }
+
+    private boolean isEnabled() {
+        return properties.getMode() != RelayProperties.Mode.SERVER;
+    }
+
+    private boolean usesRoomTopic(int memberCount) {
+        return switch (properties.getMode()) {
+            case SERVER -> false;
+            case ROOM -> true;
+            case AUTO -> memberCount >= properties.getRoomTopicMinMembers();
+        };
+    }
+
+    /**
+     * AUTO 모드에서 연결 시 구독할 방을 멤버 수로 거른다. 작은 방까지 구독하면 메시지가 오지 않는 채널에
+     * 연결/해제마다 SUBSCRIBE/UNSUBSCRIBE만 오간다.
+     */
+    private List<Long> roomTopicRooms(List<Long> chatRoomIds) {
+        if (properties.getMode() != RelayProperties.Mode.AUTO || chatRoomIds.isEmpty()) {
+            return chatRoomIds;
+        }
+        Map<Long, Integer> memberCounts = membershipCache.memberCounts(chatRoomIds);
+        return chatRoomIds.stream()
+                .filter(chatRoomId -> usesRoomTopic(memberCounts.getOrDefault(chatRoomId, 0)))
+                .toList();
+    }
+
+    private void join(Collection<Long> chatRoomIds, Long userId) {
+        for (Long chatRoomId : chatRoomIds) {
+            roomsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(chatRoomId);
+            AtomicBoolean firstJoiner = new AtomicBoolean();
+            localUsersByRoom.compute(chatRoomId, (id, users) -> {
+                if (users == null) {
+                    users = ConcurrentHashMap.newKeySet();
+                    firstJoiner.set(true);
+                }
+                users.add(userId);
+                return users;
+            });
+            if (firstJoiner.get()) {
+                syncSubscription(chatRoomId);
+            }
+        }
+    }
+
+    private void removeLocalUser(Long chatRoomId, Long userId) {
+        AtomicBoolean lastLeaver = new AtomicBoolean();
+        localUsersByRoom.computeIfPresent(chatRoomId, (id, users) -> {
+            users.remove(userId);
+            if (!users.isEmpty()) {
+                return users;
+            }
+            lastLeaver.set(true);
+            return null;
+        });
+        if (lastLeaver.get()) {
+            syncSubscription(chatRoomId);
+        }
+    }
+
+    /**
+     * 구독/해지는 Redis 왕복이라 compute 밖에서 한다. 그 사이 다른 스레드가 같은 방에 들어오거나 나갈 수 있으므로
+     * 방별 락(가상 스레드를 고정하지 않는 ReentrantLock) 안에서 현재 로컬 멤버 유무를 다시 읽어 실제 구독 상태를 맞춘다.
+     * 마지막으로 실행된 동기화가 최종 멤버십을 보므로 해지가 늦게 도착해 구독이 빠지는 일이 없다.
+     */
+    private void syncSubscription(Long chatRoomId) {
+        Lock lock = subscriptionLocks[Math.floorMod(Long.hashCode(chatRoomId), subscriptionLocks.length)];
+        lock.lock();
+        try {
+            String channel = ROOM_CHANNEL_PREFIX + chatRoomId;
+            if (localUsersByRoom.containsKey(chatRoomId)) {
+                if (subscribedRooms.add(chatRoomId)) {
+                    relayTransport.subscribe(channel, this);
+                }
+            } else if (subscribedRooms.remove(chatRoomId)) {
+                relayTransport.unsubscribe(channel, this);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 송신 노드가 직렬화한 프레임과 수신 대상 멤버 목록. 수신 노드는 멤버 중 로컬 세션이 있는 유저에게만 보낸다.
+     */
+    public record RoomEnvelope(String originServerId, Long chatRoomId, List<Long> memberIds,
+                               MessageType type, String payload) {}
+}
@@ -0,0 +1,25 @@
+package com.bok.chat.redis;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.routing.cache")
+public class RoutingCacheProperties {
+
+    /**
+     * 노드당 캐시할 최대 유저 수.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * 무효화 메시지를 놓쳤을 때 잘못된 라우팅이 남아있을 수 있는 최대 시간.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+}
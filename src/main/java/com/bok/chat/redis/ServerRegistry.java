@@ -0,0 +1,134 @@
+package com.bok.chat.redis;
+
+import com.bok.chat.config.ServerIdHolder;
+import com.bok.chat.websocket.WebSocketSessionManager;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 살아 있는 서버 목록과 그 consistent hash ring (chat.placement.enabled).
+ *
+ * 서버마다 chat:servers ZSET에 자기 ID를 heartbeat 시각으로 갱신하고, 접속 주소와 접속 유저 수를 hash에 둔다.
+ * serverTtl 동안 갱신이 없으면 죽은 서버로 보고 어느 노드든 먼저 본 쪽이 정리한다.
+ * 각 노드는 heartbeat 때 목록을 다시 읽어 바뀌었을 때만 ring을 새로 만든다.
+ * 부하 상한은 heartbeat 주기만큼 늦게 반영되므로 대략적인 상한이다.
+ */
+@Slf4j
+@Component
+public class ServerRegistry {
+
+    static final String SERVERS_KEY = "chat:servers";
+    static final String ENDPOINTS_KEY = "chat:server-endpoints";
+    static final String LOAD_KEY = "chat:server-load";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ServerIdHolder serverIdHolder;
+    private final WebSocketSessionManager sessionManager;
+    private final PlacementProperties properties;
+
+    private volatile ConsistentHashRing ring = ConsistentHashRing.of(List.of(), 0);
+    private volatile Map<String, String> endpoints = Map.of();
+    private volatile Map<String, Long> loads = Map.of();
+    private volatile boolean deregistered;
+
+    public ServerRegistry(StringRedisTemplate redisTemplate,
+                          ServerIdHolder serverIdHolder,
+                          WebSocketSessionManager sessionManager,
+                          PlacementProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.serverIdHolder = serverIdHolder;
+        this.sessionManager = sessionManager;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.placement.heartbeat-interval:10s}")
+    public void heartbeat() {
+        if (!properties.isEnabled() || deregistered) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        String serverId = serverIdHolder.getServerId();
+        redisTemplate.opsForZSet().add(SERVERS_KEY, serverId, now);
+        if (StringUtils.hasText(properties.getAdvertisedUrl())) {
+            redisTemplate.opsForHash().put(ENDPOINTS_KEY, serverId, properties.getAdvertisedUrl());
+        }
+        redisTemplate.opsForHash().put(LOAD_KEY, serverId, String.valueOf(sessionManager.userCount()));
+        refresh(now);
+    }
+
+    /**
+     * 더 이상 새 접속을 받지 않도록 ring에서 빠진다. 다른 노드는 다음 heartbeat 때 반영한다.
+     * 드레인 중에 heartbeat가 다시 등록하지 않도록 이후 heartbeat는 건너뛴다.
+     */
+    @PreDestroy
+    public void deregister() {
+        deregistered = true;
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String serverId = serverIdHolder.getServerId();
+        redisTemplate.opsForZSet().remove(SERVERS_KEY, serverId);
+        redisTemplate.opsForHash().delete(ENDPOINTS_KEY, serverId);
+        redisTemplate.opsForHash().delete(LOAD_KEY, serverId);
+    }
+
+    /**
+     * 평균 부하의 maxLoadFactor배를 넘은 서버는 건너뛴다. 모든 서버가 넘쳤으면 원래 서버.
+     */
+    public String serverFor(String placementKey) {
+        ConsistentHashRing current = ring;
+        if (properties.getMaxLoadFactor() <= 0 || current.isEmpty()) {
+            return current.nodeFor(placementKey);
+        }
+        Map<String, Long> currentLoads = loads;
+        long total = currentLoads.values().stream().mapToLong(Long::longValue).sum();
+        double capacity = Math.max(1,
+                Math.ceil(properties.getMaxLoadFactor() * (total + 1) / current.nodes().size()));
+        return current.nodeFor(placementKey, serverId -> currentLoads.getOrDefault(serverId, 0L) < capacity);
+    }
+
+    public String endpointOf(String serverId) {
+        return endpoints.get(serverId);
+    }
+
+    void refresh(long now) {
+        double cutoff = now - properties.getServerTtl().toMillis();
+        Set<String> dead = redisTemplate.opsForZSet().rangeByScore(SERVERS_KEY, Double.NEGATIVE_INFINITY, cutoff);
+        if (dead != null && !dead.isEmpty()) {
+            redisTemplate.opsForZSet().removeRangeByScore(SERVERS_KEY, Double.NEGATIVE_INFINITY, cutoff);
+            redisTemplate.opsForHash().delete(ENDPOINTS_KEY, dead.toArray());
+            redisTemplate.opsForHash().delete(LOAD_KEY, dead.toArray());
+            log.info("Removed expired servers from placement ring: {}", dead);
+        }
+
+        Set<String> live = redisTemplate.opsForZSet().rangeByScore(SERVERS_KEY, cutoff, Double.POSITIVE_INFINITY);
+        if (live == null) {
+            return;
+        }
+        if (!Set.copyOf(ring.nodes()).equals(live)) {
+            ring = ConsistentHashRing.of(live, properties.getVirtualNodes());
+            log.info("Placement ring rebuilt with servers: {}", ring.nodes());
+        }
+        Map<String, String> latest = new HashMap<>();
+        redisTemplate.opsForHash().entries(ENDPOINTS_KEY)
+                .forEach((serverId, url) -> latest.put(serverId.toString(), url.toString()));
+        endpoints = Map.copyOf(latest);
+
+        Map<String, Long> latestLoads = new HashMap<>();
+        redisTemplate.opsForHash().entries(LOAD_KEY).forEach((serverId, count) -> {
+            if (live.contains(serverId.toString())) {
+                latestLoads.put(serverId.toString(), Long.parseLong(count.toString()));
+            }
+        });
+        loads = Map.copyOf(latestLoads);
+    }
+}
@@ -0,0 +1,107 @@
+package com.bok.chat.redis;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * online:{userId} → serverId 의 노드 로컬 캐시.
+ * 핫한 그룹방에서 메시지마다 Redis를 조회하지 않도록 한다.
+ *
+ * 유저의 서버가 바뀌면(setOnline/setOffline) 무효화 채널로 모든 노드에 알리고,
+ * 무효화를 놓치더라도 TTL이 지나면 다시 Redis에서 읽는다.
+ */
+@Slf4j
+@Component
+public class ServerRoutingCache implements MessageListener {
+
+    static final String INVALIDATION_CHANNEL = "routing:invalidate";
+    private static final char SEPARATOR = ':';
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Cache<Long, String> cache;
+    private final Timer invalidationLag;
+
+    public ServerRoutingCache(StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              RoutingCacheProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.invalidationLag = Timer.builder("chat.routing.cache.invalidation.lag")
+                .description("Time from publishing a routing invalidation to evicting it on this node")
+                .register(meterRegistry);
+        Gauge.builder("chat.routing.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .register(meterRegistry);
+        Gauge.builder("chat.routing.cache.size", cache, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public String get(Long userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    /**
+     * 캐시에 있는 항목만 반환한다.
+     */
+    public Map<Long, String> getAll(Collection<Long> userIds) {
+        return cache.getAllPresent(userIds);
+    }
+
+    public void put(Long userId, String serverId) {
+        cache.put(userId, serverId);
+    }
+
+    public void putAll(Map<Long, String> serverIds) {
+        cache.putAll(serverIds);
+    }
+
+    /**
+     * 로컬 캐시를 지우고 다른 노드에도 무효화를 전파한다.
+     */
+    public void publishInvalidation(Long userId) {
+        cache.invalidate(userId);
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                String.valueOf(userId) + SEPARATOR + System.currentTimeMillis());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+        try {
+            Long userId = Long.valueOf(body.substring(0, separator));
+            long publishedAt = Long.parseLong(body.substring(separator + 1));
+            cache.invalidate(userId);
+            invalidationLag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - publishedAt)));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed routing invalidation: {}", body);
+        }
+    }
+}
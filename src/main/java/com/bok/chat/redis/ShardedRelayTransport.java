@@ -0,0 +1,171 @@
+package com.bok.chat.redis;
+
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.cluster.pubsub.StatefulRedisClusterPubSubConnection;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Redis Cluster sharded Pub/Sub(SPUBLISH/SSUBSCRIBE) 기반 중계.
+ *
+ * classic PUBLISH는 클러스터 버스를 타고 모든 샤드로 전파되므로 샤드를 늘려도 중계 트래픽이 분산되지 않는다.
+ * sharded 채널은 채널 이름의 slot을 가진 샤드 하나에만 존재하므로 server:{id}, room:{id} 채널이 샤드에 나뉘어 실린다.
+ *
+ * Spring Data Redis는 sharded Pub/Sub을 지원하지 않아 Lettuce 클러스터 클라이언트를 직접 쓴다.
+ * 구독은 채널 slot의 마스터 노드 연결에 걸고, slot이 옮겨져 서버가 SUNSUBSCRIBE를 보내면 토폴로지를 갱신해 다시 구독한다.
+ */
+@Slf4j
+public class ShardedRelayTransport implements RelayTransport {
+
+    private static final int SUBSCRIPTION_LOCK_STRIPES = 64;
+
+    private final RedisClusterClient clusterClient;
+    private final Executor listenerExecutor;
+    private final StatefulRedisClusterConnection<String, String> connection;
+    private final StatefulRedisClusterPubSubConnection<String, String> pubSubConnection;
+    private final Map<String, Set<MessageListener>> listenersByChannel = new ConcurrentHashMap<>();
+    private final Set<String> subscribedChannels = ConcurrentHashMap.newKeySet();
+    private final Lock[] subscriptionLocks = new Lock[SUBSCRIPTION_LOCK_STRIPES];
+
+    public ShardedRelayTransport(RedisClusterClient clusterClient, Executor listenerExecutor) {
+        this.clusterClient = clusterClient;
+        this.listenerExecutor = listenerExecutor;
+        for (int i = 0; i < subscriptionLocks.length; i++) {
+            subscriptionLocks[i] = new ReentrantLock();
+        }
+        this.connection = clusterClient.connect(StringCodec.UTF8);
+        this.pubSubConnection = clusterClient.connectPubSub(StringCodec.UTF8);
+        this.pubSubConnection.setNodeMessagePropagation(true);
+        this.pubSubConnection.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void smessage(String shardChannel, String message) {
+                listenerExecutor.execute(() -> dispatch(shardChannel, message));
+            }
+
+            @Override
+            public void sunsubscribed(String shardChannel, long count) {
+                listenerExecutor.execute(() -> resubscribeIfWanted(shardChannel));
+            }
+        });
+    }
+
+    /**
+     * SPUBLISH는 채널 이름을 key로 라우팅되어 slot을 가진 샤드로만 간다.
+     */
+    @Override
+    public void publish(String channel, String message) {
+        connection.async().spublish(channel, message).exceptionally(e -> {
+            log.error("Failed to spublish to {}", channel, e);
+            return null;
+        });
+    }
+
+    @Override
+    public void subscribe(String channel, MessageListener listener) {
+        AtomicBoolean firstListener = new AtomicBoolean();
+        listenersByChannel.compute(channel, (key, listeners) -> {
+            if (listeners == null) {
+                listeners = ConcurrentHashMap.newKeySet();
+                firstListener.set(true);
+            }
+            listeners.add(listener);
+            return listeners;
+        });
+        if (firstListener.get()) {
+            syncShardSubscription(channel);
+        }
+    }
+
+    @Override
+    public void unsubscribe(String channel, MessageListener listener) {
+        AtomicBoolean lastListener = new AtomicBoolean();
+        listenersByChannel.computeIfPresent(channel, (key, listeners) -> {
+            listeners.remove(listener);
+            if (!listeners.isEmpty()) {
+                return listeners;
+            }
+            lastListener.set(true);
+            return null;
+        });
+        if (lastListener.get()) {
+            syncShardSubscription(channel);
+        }
+    }
+
+    /**
+     * SSUBSCRIBE/SUNSUBSCRIBE는 클러스터 노드 왕복이라 compute 밖에서 한다.
+     * 그 사이 같은 채널의 리스너가 바뀔 수 있으므로 채널별 락 안에서 현재 리스너 유무를 다시 읽어 노드 구독 상태를 맞춘다.
+     */
+    private void syncShardSubscription(String channel) {
+        Lock lock = subscriptionLocks[Math.floorMod(channel.hashCode(), subscriptionLocks.length)];
+        lock.lock();
+        try {
+            if (listenersByChannel.containsKey(channel)) {
+                if (!subscribedChannels.contains(channel)) {
+                    nodeConnection(channel).sync().ssubscribe(channel);
+                    subscribedChannels.add(channel);
+                }
+            } else if (subscribedChannels.contains(channel)) {
+                nodeConnection(channel).sync().sunsubscribe(channel);
+                subscribedChannels.remove(channel);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        pubSubConnection.close();
+        connection.close();
+    }
+
+    private void dispatch(String channel, String body) {
+        Set<MessageListener> listeners = listenersByChannel.get(channel);
+        if (listeners == null) {
+            return;
+        }
+        Message message = new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+        for (MessageListener listener : listeners) {
+            listener.onMessage(message, null);
+        }
+    }
+
+    /**
+     * 직접 해지한 채널은 이미 맵에서 빠져 있다. 남아 있는데 해지됐다면 slot 이동/failover이므로 새 소유 노드에 다시 구독한다.
+     */
+    private void resubscribeIfWanted(String channel) {
+        if (!listenersByChannel.containsKey(channel)) {
+            return;
+        }
+        log.info("Shard channel {} was unsubscribed by the cluster, resubscribing", channel);
+        clusterClient.refreshPartitions();
+        nodeConnection(channel).async().ssubscribe(channel);
+    }
+
+    private StatefulRedisPubSubConnection<String, String> nodeConnection(String channel) {
+        RedisClusterNode node = clusterClient.getPartitions().getPartitionBySlot(SlotHash.getSlot(channel));
+        if (node == null) {
+            throw new IllegalStateException("No cluster node owns the slot of channel " + channel);
+        }
+        return pubSubConnection.getConnection(node.getNodeId());
+    }
+}
@@ -0,0 +1,149 @@
+package com.bok.chat.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+import org.springframework.data.redis.stream.Subscription;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 채널마다 Redis Stream 하나를 두는 중계 (chat.relay.stream.enabled).
+ *
+ * publish는 XADD MAXLEN ~ 로 스트림에 쌓고, 구독 노드는 consumer group으로 읽어 리스너가 로컬 세션 큐에 적재한 뒤 XACK한다.
+ * Pub/Sub과 달리 Redis 타임아웃이나 failover, 리스너 지연으로 읽기가 끊겨도 항목이 남으므로 다시 읽으면 그 사이 쌓인 항목부터 받는다.
+ * 읽기 오류로 구독이 취소되지 않도록 cancelOnError를 끈다. 오류는 컨테이너 errorHandler가 로그로 남기고 다음 poll에서 다시 읽는다.
+ *
+ * 재시작 전에 받고 XACK하지 못한 항목(PEL)은 재전달하지 않는다. 그 항목의 수신자 세션은 재시작과 함께 끊겼으므로
+ * 재전달해도 보낼 곳이 없고, 유저는 재접속 catch-up(resume)으로 DB에서 받는다.
+ * 스트림과 consumer 이름이 서버 ID를 따르므로 chat.server-id를 고정해야 재시작 때마다 새 스트림이 쌓이지 않는다(RedisConfig에서 강제).
+ * 채널당 리스너는 하나다. 같은 스트림을 여러 리스너가 나눠 읽으면 순서가 깨진다.
+ */
+@Slf4j
+public class StreamRelayTransport implements RelayTransport {
+
+    static final String STREAM_KEY_PREFIX = "relay-stream:";
+    static final String GROUP = "relay";
+    static final String PAYLOAD = "payload";
+
+    private final StringRedisTemplate redisTemplate;
+    private final StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+    private final Consumer consumer;
+    private final RelayProperties.Stream properties;
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    private final Counter published;
+    private final Counter acknowledged;
+
+    public StreamRelayTransport(StringRedisTemplate redisTemplate,
+                                StreamMessageListenerContainer<String, MapRecord<String, String, String>> container,
+                                String consumerName,
+                                RelayProperties.Stream properties,
+                                MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.container = container;
+        this.consumer = Consumer.from(GROUP, consumerName);
+        this.properties = properties;
+        this.published = Counter.builder("chat.relay.stream.published")
+                .description("Relay entries appended to server streams")
+                .register(meterRegistry);
+        this.acknowledged = Counter.builder("chat.relay.stream.acked")
+                .description("Relay entries delivered to local sessions and acknowledged")
+                .register(meterRegistry);
+        container.start();
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        redisTemplate.opsForStream().add(
+                StreamRecords.newRecord().in(streamKey(channel)).ofMap(Map.of(PAYLOAD, message)),
+                XAddOptions.maxlen(properties.getMaxLength()).approximateTrimming(true));
+        published.increment();
+    }
+
+    @Override
+    public void subscribe(String channel, MessageListener listener) {
+        subscriptions.computeIfAbsent(channel, key -> {
+            String streamKey = streamKey(channel);
+            createGroup(streamKey);
+            StreamReadRequest<String> request = StreamReadRequest
+                    .builder(StreamOffset.create(streamKey, ReadOffset.lastConsumed()))
+                    .consumer(consumer)
+                    .cancelOnError(e -> false)
+                    .build();
+            return container.register(request,
+                    record -> deliver(channel, streamKey, record.getId(), record.getValue().get(PAYLOAD), listener));
+        });
+    }
+
+    @Override
+    public void unsubscribe(String channel, MessageListener listener) {
+        Subscription subscription = subscriptions.remove(channel);
+        if (subscription != null) {
+            container.remove(subscription);
+        }
+    }
+
+    @Override
+    public void close() {
+        container.stop();
+    }
+
+    /**
+     * 스트림이 없으면 만들면서 group을 0부터 시작한다. 이미 있으면(BUSYGROUP) 마지막 전달 지점을 그대로 쓴다.
+     * 변환된 예외 메시지에는 드라이버 오류 문구가 없으므로 가장 안쪽 원인에서 BUSYGROUP을 확인한다.
+     */
+    private void createGroup(String streamKey) {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(streamKey.getBytes(StandardCharsets.UTF_8), GROUP, ReadOffset.from("0"), true));
+        } catch (DataAccessException e) {
+            if (!isBusyGroup(e)) {
+                throw e;
+            }
+        }
+    }
+
+    private static boolean isBusyGroup(DataAccessException e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.contains("BUSYGROUP");
+    }
+
+    /**
+     * 리스너가 파싱 실패 등으로 처리하지 못해도 XACK한다. 같은 항목을 계속 재전달해 봐야 결과가 같다.
+     */
+    private void deliver(String channel, String streamKey, RecordId id, String payload, MessageListener listener) {
+        try {
+            if (payload != null) {
+                listener.onMessage(new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                        payload.getBytes(StandardCharsets.UTF_8)), null);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to deliver relay entry {} from {}", id, streamKey, e);
+        } finally {
+            redisTemplate.opsForStream().acknowledge(streamKey, GROUP, id);
+            acknowledged.increment();
+        }
+    }
+
+    static String streamKey(String channel) {
+        return STREAM_KEY_PREFIX + channel;
+    }
+}
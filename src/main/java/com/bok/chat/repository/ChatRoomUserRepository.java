@@ -1,8 +1,12 @@
 package com.bok.chat.repository;
 
 import com.bok.chat.entity.ChatRoomUser;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,9 +14,39 @@ public interface ChatRoomUserRepository extends JpaRepository<ChatRoomUser, Long
 
     List<ChatRoomUser> findByUserIdAndStatus(Long userId, ChatRoomUser.Status status);
 
+    @Query("SELECT cru.chatRoom.id FROM ChatRoomUser cru WHERE cru.user.id = :userId AND cru.status = :status")
+    List<Long> findChatRoomIdsByUserIdAndStatus(@Param("userId") Long userId,
+                                                @Param("status") ChatRoomUser.Status status);
+
+    /**
+     * 유저가 속한 방을 활성 멤버 수가 많은 순으로 (같으면 방 ID 순).
+     */
+    @Query("SELECT cru.chatRoom.id FROM ChatRoomUser cru, ChatRoomUser other " +
+            "WHERE cru.user.id = :userId AND cru.status = :status " +
+            "AND other.chatRoom = cru.chatRoom AND other.status = :status " +
+            "GROUP BY cru.chatRoom.id ORDER BY COUNT(other) DESC, cru.chatRoom.id ASC")
+    List<Long> findLargestChatRoomIds(@Param("userId") Long userId,
+                                      @Param("status") ChatRoomUser.Status status,
+                                      Pageable pageable);
+
     Optional<ChatRoomUser> findByChatRoomIdAndUserId(Long chatRoomId, Long userId);
 
     List<ChatRoomUser> findByChatRoomIdAndStatus(Long chatRoomId, ChatRoomUser.Status status);
 
     int countByChatRoomIdAndStatus(Long chatRoomId, ChatRoomUser.Status status);
+
+    /**
+     * 여러 방의 활성 멤버 수를 한 번에. 멤버가 없는 방은 결과에 없다.
+     */
+    @Query("SELECT cru.chatRoom.id AS chatRoomId, COUNT(cru) AS memberCount FROM ChatRoomUser cru " +
+            "WHERE cru.chatRoom.id IN :chatRoomIds AND cru.status = :status GROUP BY cru.chatRoom.id")
+    List<RoomMemberCount> countMembersByChatRoomIds(@Param("chatRoomIds") Collection<Long> chatRoomIds,
+                                                    @Param("status") ChatRoomUser.Status status);
+
+    interface RoomMemberCount {
+
+        Long getChatRoomId();
+
+        long getMemberCount();
+    }
 }
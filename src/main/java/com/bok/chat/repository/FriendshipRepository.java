@@ -12,6 +12,13 @@ public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
     @Query("SELECT f FROM Friendship f WHERE f.user.id = :userId OR f.friend.id = :userId")
     List<Friendship> findAllByUserId(@Param("userId") Long userId);
 
+    /**
+     * 엔티티를 로딩하지 않고 상대방 ID만 조회한다.
+     */
+    @Query("SELECT CASE WHEN f.user.id = :userId THEN f.friend.id ELSE f.user.id END FROM Friendship f " +
+            "WHERE f.user.id = :userId OR f.friend.id = :userId")
+    List<Long> findFriendIdsByUserId(@Param("userId") Long userId);
+
     @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END FROM Friendship f " +
             "WHERE (f.user.id = :userId AND f.friend.id = :friendId) " +
             "OR (f.user.id = :friendId AND f.friend.id = :userId)")
@@ -40,6 +40,33 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findUnreadMessages(@Param("chatRoomId") Long chatRoomId,
                                      @Param("lastReadMessageId") Long lastReadMessageId);
 
+    /**
+     * 유저가 참여 중인 모든 방에서 기준 ID 이후 메시지를 방마다 최신 limit개씩 한 번에 조회한다 (최신 순).
+     * 기준 ID는 클라이언트가 보낸 방별 마지막 수신 ID(roomIds[i] → lastSeenIds[i])이고,
+     * 없는 방은 lastReadMessageId를 쓴다.
+     * 방마다 LATERAL 서브쿼리가 (chatroom_id, id) 인덱스를 뒤에서부터 limit개만 읽으므로,
+     * 안 읽은 메시지가 아무리 많아도 방당 읽는 행 수는 limit으로 묶인다.
+     */
+    @Query(value = """
+            SELECT latest.id
+            FROM chat_room_users cru
+            LEFT JOIN unnest(CAST(:roomIds AS bigint[]), CAST(:lastSeenIds AS bigint[]))
+                AS seen(chatroom_id, last_seen_id) ON seen.chatroom_id = cru.chatroom_id
+            CROSS JOIN LATERAL (
+                SELECT m.id FROM messages m
+                WHERE m.chatroom_id = cru.chatroom_id
+                    AND m.id > COALESCE(seen.last_seen_id, cru.last_read_message_id, 0)
+                ORDER BY m.id DESC
+                LIMIT :limit
+            ) latest
+            WHERE cru.user_id = :userId AND cru.status = 'ACTIVE'
+            ORDER BY latest.id DESC
+            """, nativeQuery = true)
+    List<Long> findLatestMessageIdsAfter(@Param("userId") Long userId,
+                                         @Param("roomIds") Long[] roomIds,
+                                         @Param("lastSeenIds") Long[] lastSeenIds,
+                                         @Param("limit") int limit);
+
     @Query("SELECT m FROM Message m LEFT JOIN FETCH m.sender LEFT JOIN FETCH m.file " +
             "WHERE m.id IN :ids ORDER BY m.id DESC")
     List<Message> findAllByIdWithSenderAndFile(@Param("ids") List<Long> ids);
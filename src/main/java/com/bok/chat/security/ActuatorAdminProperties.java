@@ -0,0 +1,20 @@
+package com.bok.chat.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.actuator.admin")
+public class ActuatorAdminProperties {
+
+    private String username = "admin";
+
+    /**
+     * 운영용 actuator 엔드포인트(드레인 등)의 HTTP Basic 비밀번호. 비워 두면 관리자 계정을 만들지 않아 아무도 호출할 수 없다.
+     */
+    private String password = "";
+}
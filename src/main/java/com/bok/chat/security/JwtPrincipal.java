@@ -0,0 +1,9 @@
+package com.bok.chat.security;
+
+import java.time.Instant;
+
+/**
+ * 서명과 만료를 검증한 토큰의 클레임.
+ */
+public record JwtPrincipal(Long userId, String username, Instant expiresAt) {
+}
@@ -1,7 +1,10 @@
 package com.bok.chat.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -13,13 +16,17 @@ import java.util.Date;
 @Component
 public class JwtProvider {
 
+    private static final String USERNAME_CLAIM = "username";
+
     private final SecretKey key;
+    private final JwtParser parser;
     private final long expirationMs;
 
     public JwtProvider(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.expiration-ms}") long expirationMs) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(key).build();
         this.expirationMs = expirationMs;
     }
 
@@ -27,32 +34,27 @@ public class JwtProvider {
         Date now = new Date();
         return Jwts.builder()
                 .subject(userId.toString())
-                .claim("username", username)
+                .claim(USERNAME_CLAIM, username)
                 .issuedAt(now)
                 .expiration(new Date(now.getTime() + expirationMs))
                 .signWith(key)
                 .compact();
     }
 
-    public Long getUserId(String token) {
-        Claims claims = parseClaims(token);
-        return Long.parseLong(claims.getSubject());
-    }
-
-    public boolean validateToken(String token) {
-        try {
-            parseClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+    /**
+     * 서명과 만료를 한 번만 검증하고 필요한 클레임을 모두 꺼낸다. 파서는 생성자에서 한 번만 만들어 재사용한다.
+     *
+     * 만료(exp)가 없는 토큰은 캐시 기간을 정할 수 없으므로 받지 않는다.
+     *
+     * @throws JwtException 서명이 틀리거나 만료됐거나 형식이 잘못된 경우
+     */
+    public JwtPrincipal parse(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token has no expiration");
         }
-    }
-
-    private Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return new JwtPrincipal(Long.parseLong(claims.getSubject()),
+                claims.get(USERNAME_CLAIM, String.class),
+                claims.getExpiration().toInstant());
     }
 }
@@ -0,0 +1,73 @@
+package com.bok.chat.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 로그인 전용 bulkhead.
+ * BCrypt 비교는 건당 수십~수백 ms CPU를 쓰므로 Tomcat 요청 스레드에서 돌리면
+ * 토큰 만료로 재로그인이 몰릴 때 히스토리/검색 API까지 스레드를 잃는다.
+ * 고정된 스레드와 크기가 정해진 큐에서만 처리하고, 큐가 가득 차면 기다리게 하지 않고 바로 거절한다.
+ */
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    @Autowired
+    public LoginExecutor(LoginProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getThreads(), properties.getQueueCapacity(),
+                new CustomizableThreadFactory("login-"), meterRegistry);
+    }
+
+    LoginExecutor(int threads, int queueCapacity, ThreadFactory threadFactory, MeterRegistry meterRegistry) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory);
+        this.queueWait = Timer.builder("chat.login.queue.wait")
+                .description("Time a login waited for a login thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("chat.login.rejected")
+                .description("Logins rejected because the login executor was saturated")
+                .register(meterRegistry);
+        Gauge.builder("chat.login.queue.depth", executor, e -> e.getQueue().size())
+                .description("Logins waiting for a login thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 가득 찼으면 RejectedExecutionException으로 실패한 future를 바로 돌려준다.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return task.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,28 @@
+package com.bok.chat.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.login")
+public class LoginProperties {
+
+    /**
+     * 로그인(BCrypt 비교)을 처리하는 전용 스레드 수. CPU 작업이므로 코어 수를 넘길 이유가 없다.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 스레드가 모두 바쁠 때 기다릴 수 있는 로그인 수. 넘치면 바로 503으로 거절한다.
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * BCrypt cost factor(log2 라운드). 올리면 기존 해시는 다음 로그인 성공 때 새 강도로 다시 저장된다.
+     */
+    private int bcryptStrength = 10;
+}
@@ -1,23 +1,59 @@
 package com.bok.chat.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import static org.springframework.security.config.Customizer.withDefaults;
+
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String ACTUATOR_ADMIN = "ACTUATOR_ADMIN";
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final LoginProperties loginProperties;
+    private final ActuatorAdminProperties actuatorAdminProperties;
+
+    /**
+     * actuator 전용 체인. 노드 상태를 바꾸는 쓰기 작업과 드레인, 다른 유저의 세션 정보를 보여주는 wsslowconsumers는
+     * HTTP Basic 관리자만 호출할 수 있고, 채팅 JWT로 로그인한 일반 유저는 나머지 조회만 할 수 있다.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .requestMatchers(EndpointRequest.to("wsdrain", "wsslowconsumers")).hasRole(ACTUATOR_ADMIN)
+                        .requestMatchers(HttpMethod.GET).authenticated()
+                        .anyRequest().hasRole(ACTUATOR_ADMIN)
+                )
+                .httpBasic(withDefaults())
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -25,6 +61,7 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/ws/endpoint").authenticated()
                         .requestMatchers("/users/register", "/users/login", "/ws/**", "/error").permitAll()
                         .anyRequest().authenticated()
                 )
@@ -33,8 +70,22 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * actuator HTTP Basic 전용 계정. 채팅 유저 인증은 JWT 필터가 하므로 여기에는 관리자만 둔다.
+     */
+    @Bean
+    public UserDetailsService actuatorAdmins(PasswordEncoder passwordEncoder) {
+        if (actuatorAdminProperties.getPassword().isBlank()) {
+            return new InMemoryUserDetailsManager();
+        }
+        return new InMemoryUserDetailsManager(User.withUsername(actuatorAdminProperties.getUsername())
+                .password(passwordEncoder.encode(actuatorAdminProperties.getPassword()))
+                .roles(ACTUATOR_ADMIN)
+                .build());
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(loginProperties.getBcryptStrength());
     }
 }
@@ -0,0 +1,20 @@
+package com.bok.chat.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("jwt.cache")
+public class TokenCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 노드당 기억할 검증된 토큰 수. 항목은 토큰의 exp 시각에 만료된다.
+     */
+    private long maximumSize = 100_000;
+}
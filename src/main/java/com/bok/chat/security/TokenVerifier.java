@@ -0,0 +1,124 @@
+package com.bok.chat.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST 필터와 WebSocket 핸드셰이크가 공유하는 토큰 검증.
+ *
+ * 검증에 성공한 토큰은 SHA-256 해시를 키로 토큰의 exp 시각까지 캐시해,
+ * 같은 토큰으로 계속 요청하는 클라이언트는 서명 검증과 클레임 파싱을 건너뛴다.
+ * 원본 토큰은 힙에 남기지 않고, 검증에 실패한 토큰은 캐시하지 않는다.
+ */
+@Slf4j
+@Component
+public class TokenVerifier {
+
+    private final JwtProvider jwtProvider;
+    private final TokenCacheProperties properties;
+    private final Cache<ByteBuffer, JwtPrincipal> cache;
+
+    @Autowired
+    public TokenVerifier(JwtProvider jwtProvider, TokenCacheProperties properties, MeterRegistry meterRegistry) {
+        this(jwtProvider, properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    TokenVerifier(JwtProvider jwtProvider, TokenCacheProperties properties, MeterRegistry meterRegistry,
+                  Ticker ticker) {
+        this.jwtProvider = jwtProvider;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new UntilTokenExpiry(
+                        TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - ticker.read()))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        Gauge.builder("chat.auth.token.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .register(meterRegistry);
+        Gauge.builder("chat.auth.token.cache.size", cache, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 유효한 토큰이면 검증된 클레임을, 서명이 틀리거나 만료됐으면 empty를 반환한다.
+     */
+    public Optional<JwtPrincipal> verify(String token) {
+        if (!properties.isEnabled()) {
+            return parse(token);
+        }
+        ByteBuffer key = hash(token);
+        JwtPrincipal cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<JwtPrincipal> principal = parse(token);
+        principal.ifPresent(verified -> cache.put(key, verified));
+        return principal;
+    }
+
+    private Optional<JwtPrincipal> parse(String token) {
+        try {
+            return Optional.of(jwtProvider.parse(token));
+        } catch (RuntimeException e) {
+            log.debug("Rejected token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 항목을 넣을 때 토큰의 exp까지 남은 시간을 수명으로 정한다. 읽기/갱신은 수명을 늘리지 않는다.
+     * 현재 시각은 캐시가 넘겨주는 ticker 값에 생성 시점의 벽시계 차이를 더해 구하므로, 만료 판단과 같은 시간축을 쓴다.
+     */
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, JwtPrincipal> {
+
+        private final long wallClockOffsetNanos;
+
+        private UntilTokenExpiry(long wallClockOffsetNanos) {
+            this.wallClockOffsetNanos = wallClockOffsetNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, JwtPrincipal principal, long currentTime) {
+            Instant expiresAt = principal.expiresAt();
+            long expiresAtNanos = TimeUnit.SECONDS.toNanos(expiresAt.getEpochSecond()) + expiresAt.getNano();
+            return Math.max(0, expiresAtNanos - (wallClockOffsetNanos + currentTime));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, JwtPrincipal principal, long currentTime,
+                                      long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, JwtPrincipal principal, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static ByteBuffer hash(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -13,53 +13,163 @@ import com.bok.chat.entity.Message;
 import com.bok.chat.api.service.FriendService;
 import com.bok.chat.config.ServerIdHolder;
 import com.bok.chat.entity.ChatRoomUser;
-import com.bok.chat.entity.User;
 import com.bok.chat.redis.OnlineStatusService;
+import com.bok.chat.redis.PresenceTracker;
 import com.bok.chat.redis.RedisMessageRelay;
-import com.bok.chat.repository.UserRepository;
+import com.bok.chat.redis.RoomTopicRelay;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class ChatWebSocketHandler extends TextWebSocketHandler {
+public class ChatWebSocketHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
+
+    private static final String RATE_LIMITED = "rate_limited";
+    private static final String BUSY = "busy";
+    private static final String INVALID_REQUEST = "invalid_request";
+    private static final String INTERNAL_ERROR = "internal_error";
 
     private final WebSocketSessionManager sessionManager;
     private final ChatMessageService chatMessageService;
     private final ChatRoomService chatRoomService;
     private final FriendService friendService;
     private final OnlineStatusService onlineStatusService;
+    private final PresenceTracker presenceTracker;
     private final RedisMessageRelay redisMessageRelay;
+    private final RoomTopicRelay roomTopicRelay;
     private final ServerIdHolder serverIdHolder;
-    private final UserRepository userRepository;
     private final ObjectMapper objectMapper;
+    private final FrameCodec frameCodec;
+    private final RoomDispatcher roomDispatcher;
+    private final WebSocketOutboundProperties outboundProperties;
+    private final InboundRateLimiter rateLimiter;
 
+    /**
+     * 클라이언트가 Sec-WebSocket-Protocol로 요청한 순서대로 첫 번째로 지원하는 것을 고른다.
+     * 요청이 없으면 JSON 텍스트 프레임을 쓴다.
+     */
+    @Override
+    public List<String> getSubProtocols() {
+        return WireFormat.subprotocols();
+    }
+
+    /**
+     * 연결 경로에서는 DB를 조회하지 않는다. 이름은 토큰 클레임에서, 친구/방 목록은 MembershipCache에서 읽고,
+     * 밀린 메시지는 클라이언트가 연결 직후 sync를 보내면 그때 보낸다.
+     * 배포 직후처럼 재연결이 몰려도 catch-up 조회가 연결과 함께 한꺼번에 Postgres로 가지 않는다.
+     */
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
         Long userId = getUserId(session);
-        sessionManager.register(userId, session);
-        onlineStatusService.setOnline(userId);
+        String username = getUsername(session);
+        OutboundSession outbound = sessionManager.register(userId, session);
+        presenceTracker.connected(userId, () -> notifyFriendsStatus(userId, username, true));
+        roomTopicRelay.userConnected(userId);
         log.info("WebSocket connected: userId={}", userId);
 
-        sendPendingMessages(session, userId);
-        notifyFriendsStatus(userId, true);
+        if (!outboundProperties.isCatchUpOnConnect()) {
+            return;
+        }
+        Map<Long, Long> resumeMarks = getResumeMarks(session);
+        if (resumeMarks != null) {
+            sendMessagesAfter(outbound, userId, resumeMarks);
+        } else {
+            sendPendingMessages(outbound, userId);
+        }
     }
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage textMessage) throws Exception {
+        dispatch(session, objectMapper.readValue(textMessage.getPayload(), WebSocketMessage.class));
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage binaryMessage) throws Exception {
+        dispatch(session, frameCodec.decode(binaryMessage.getPayload()));
+    }
+
+    /**
+     * 방이 지정된 명령은 방별 레인에서 순서대로 처리한다.
+     * 같은 방에 동시에 보낸 메시지의 저장 순서와 수신자에게 도착하는 프레임 순서가 같아진다.
+     * 레인이 가득 차면 처리하지 않고 busy error 프레임을 보낸다. 클라이언트는 잠시 뒤 다시 보낸다.
+     */
+    private void dispatch(WebSocketSession session, WebSocketMessage message) {
+        if (!admit(session, message)) {
+            return;
+        }
+        Long chatRoomId = message.getChatRoomId();
+        if (chatRoomId == null) {
+            handleSafely(session, message);
+            return;
+        }
+        if (!roomDispatcher.execute(chatRoomId, () -> handleSafely(session, message))) {
+            sendError(session, BUSY, message);
+        }
+    }
+
+    /**
+     * 레인에서 실행되면 예외가 컨테이너까지 전달되지 않으므로 요청한 세션에 error 프레임으로 알린다.
+     * 잘못된 요청(IllegalArgumentException)은 invalid_request, 그 밖의 실패는 internal_error다.
+     */
+    private void handleSafely(WebSocketSession session, WebSocketMessage message) {
+        try {
+            handle(session, message);
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected {} from userId={}: {}", message.getType(), getUserId(session), e.getMessage());
+            sendError(session, INVALID_REQUEST, message);
+        } catch (RuntimeException e) {
+            log.error("Failed to handle {} from userId={}, chatRoomId={}",
+                    message.getType(), getUserId(session), message.getChatRoomId(), e);
+            sendError(session, INTERNAL_ERROR, message);
+        }
+    }
+
+    private void sendError(WebSocketSession session, String error, WebSocketMessage message) {
+        OutboundFrame frame = encode(WebSocketMessage.error(error, message.getType(), message.getChatRoomId()));
+        if (frame != null) {
+            sessionManager.getSession(getUserId(session), session).ifPresent(outbound -> outbound.send(frame));
+        }
+    }
+
+    /**
+     * 레인에 넣기 전에 속도 제한을 적용한다. 한도를 넘으면 error 프레임을 보내고,
+     * 반복해서 넘기면 POLICY_VIOLATION으로 연결을 끊는다.
+     */
+    private boolean admit(WebSocketSession session, WebSocketMessage message) {
         Long userId = getUserId(session);
-        WebSocketMessage message = objectMapper.readValue(textMessage.getPayload(), WebSocketMessage.class);
+        switch (rateLimiter.check(session, userId, message.getType())) {
+            case ALLOWED -> {
+                return true;
+            }
+            case THROTTLED -> sendError(session, RATE_LIMITED, message);
+            case CLOSE -> {
+                log.warn("Closing session for repeated rate limit violations: userId={}, sessionId={}",
+                        userId, session.getId());
+                sessionManager.getSession(userId, session)
+                        .ifPresent(outbound -> outbound.close(CloseStatus.POLICY_VIOLATION));
+            }
+        }
+        return false;
+    }
 
+    private void handle(WebSocketSession session, WebSocketMessage message) {
+        Long userId = getUserId(session);
         switch (message.getType()) {
             case MESSAGE_SEND -> handleSendMessage(userId, message);
             case MESSAGE_READ -> handleReadMessage(userId, message);
@@ -68,6 +178,7 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
             case ROOM_INVITE -> handleRoomInvite(userId, message);
             case ROOM_LEAVE -> handleRoomLeave(userId, message);
             case HEARTBEAT -> onlineStatusService.refreshOnline(userId);
+            case SYNC -> handleSync(session, userId, message);
             default -> log.warn("Unknown message type: {}", message.getType());
         }
     }
@@ -75,12 +186,14 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
         Long userId = getUserId(session);
-        boolean removed = sessionManager.remove(userId, session);
-        if (removed) {
-            onlineStatusService.setOffline(userId);
-            notifyFriendsStatus(userId, false);
+        String username = getUsername(session);
+        boolean lastSession = sessionManager.remove(userId, session);
+        rateLimiter.release(session, userId, lastSession);
+        if (lastSession) {
+            roomTopicRelay.userDisconnected(userId);
+            presenceTracker.disconnected(userId, () -> notifyFriendsStatus(userId, username, false));
         }
-        log.info("WebSocket disconnected: userId={}, sessionRemoved={}", userId, removed);
+        log.info("WebSocket disconnected: userId={}, lastSession={}", userId, lastSession);
     }
 
     private void handleSendMessage(Long senderId, WebSocketMessage message) {
@@ -105,15 +218,17 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
             return;
         }
 
-        WebSocketMessage outgoing = WebSocketMessage.messagesRead(
-                result.chatRoomId(), result.readByUserId(), result.lastReadMessageId());
-
-        for (ChatRoomUser member : result.members()) {
-            Long memberId = member.getUser().getId();
-            if (!memberId.equals(userId)) {
-                sendToUser(memberId, outgoing);
-            }
+        OutboundFrame frame = encode(WebSocketMessage.messagesRead(
+                result.chatRoomId(), result.readByUserId(), result.lastReadMessageId()));
+        if (frame == null) {
+            return;
         }
+
+        List<Long> recipientIds = result.members().stream()
+                .map(member -> member.getUser().getId())
+                .filter(memberId -> !memberId.equals(userId))
+                .toList();
+        deliver(recipientIds, frame);
     }
 
     private void handleRoomInvite(Long inviterId, WebSocketMessage message) {
@@ -163,6 +278,7 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
 
     private void handleRoomLeave(Long userId, WebSocketMessage message) {
         LeaveResult result = chatRoomService.leaveRoom(userId, message.getChatRoomId());
+        roomTopicRelay.leave(userId, message.getChatRoomId());
 
         if (result.systemMessage() != null) {
             WebSocketMessage outgoing = WebSocketMessage.messageReceived(
@@ -174,19 +290,46 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
-    private void sendPendingMessages(WebSocketSession session, Long userId) {
-        List<UndeliveredMessages> pending = chatMessageService.getUndeliveredMessages(userId);
+    /**
+     * 클라이언트가 보낸 방별 마지막 수신 ID 이후만 요청한 세션으로 보낸다.
+     * 다른 기기 세션에는 보내지 않는다.
+     */
+    private void handleSync(WebSocketSession session, Long userId, WebSocketMessage message) {
+        Map<Long, Long> lastSeen = message.getLastSeen() != null ? message.getLastSeen() : Map.of();
+        sessionManager.getSession(userId, session).ifPresent(outbound -> {
+            outbound.resume();
+            sendMessagesAfter(outbound, userId, lastSeen);
+        });
+    }
+
+    private void sendPendingMessages(OutboundSession session, Long userId) {
+        sendBatches(session, userId, chatMessageService.getUndeliveredMessages(
+                userId, outboundProperties.getPendingPerRoomLimit()));
+    }
+
+    /**
+     * 재연결한 클라이언트에게는 안 읽은 메시지 전체가 아니라 마지막으로 받은 이후(delta)만 보낸다.
+     */
+    private void sendMessagesAfter(OutboundSession session, Long userId, Map<Long, Long> lastSeen) {
+        sendBatches(session, userId, chatMessageService.getMessagesAfter(
+                userId, lastSeen, outboundProperties.getPendingPerRoomLimit()));
+    }
+
+    /**
+     * 밀린 메시지를 방마다 messages.batch 프레임 하나로 보낸다.
+     * 방마다 최신 N개만 보내고, 더 있으면 hasMore로 알려 클라이언트가 방을 열 때 히스토리 API로 가져가게 한다.
+     */
+    private void sendBatches(OutboundSession session, Long userId, List<UndeliveredMessages> pending) {
         for (UndeliveredMessages group : pending) {
-            for (Message msg : group.messages()) {
-                WebSocketMessage outgoing = buildMessageReceived(group.chatRoomId(), msg,
-                        msg.getSender() != null ? msg.getSender().getId() : null,
-                        msg.getSender() != null ? msg.getSender().getUsername() : null);
-                try {
-                    session.sendMessage(new TextMessage(objectMapper.writeValueAsString(outgoing)));
-                } catch (IOException e) {
-                    log.error("Failed to send pending message to userId={}", userId, e);
-                    return;
-                }
+            List<WebSocketMessage> messages = group.messages().stream()
+                    .map(msg -> buildMessageReceived(group.chatRoomId(), msg,
+                            msg.getSender() != null ? msg.getSender().getId() : null,
+                            msg.getSender() != null ? msg.getSender().getUsername() : null))
+                    .toList();
+            OutboundFrame frame = encode(WebSocketMessage.messagesBatch(group.chatRoomId(), messages, group.hasMore()));
+            if (frame == null || !session.send(frame)) {
+                log.warn("Stopped pending delivery: userId={}", userId);
+                return;
             }
         }
     }
@@ -203,48 +346,96 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
                 msg.getContent(), msg.getId(), msg.getUnreadCount());
     }
 
+    /**
+     * 멤버 수와 관계없이 한 번만 직렬화하고, 같은 프레임을 모든 로컬 세션과 Redis 중계에 공유한다.
+     * room 채널 모드면 수신자 서버를 조회하지 않고 로컬 세션에만 직접 보낸 뒤 방 채널에 한 번 publish한다.
+     */
     private void broadcastToMembers(List<ChatRoomUser> members, WebSocketMessage message) {
-        for (ChatRoomUser member : members) {
-            sendToUser(member.getUser().getId(), message);
+        OutboundFrame frame = encode(message);
+        if (frame == null) {
+            return;
+        }
+        List<Long> memberIds = members.stream().map(member -> member.getUser().getId()).toList();
+        Long chatRoomId = message.getChatRoomId();
+        if (roomTopicRelay.shouldPublishToRoom(chatRoomId, memberIds.size(), message.getType())) {
+            memberIds.forEach(memberId -> deliverLocally(memberId, frame));
+            roomTopicRelay.publish(chatRoomId, memberIds, frame);
+            return;
         }
+        deliver(memberIds, frame);
     }
 
-    private void notifyFriendsStatus(Long userId, boolean online) {
-        String username = userRepository.findById(userId)
-                .map(User::getUsername)
-                .orElse("unknown");
-
-        WebSocketMessage statusMessage = WebSocketMessage.userStatus(userId, username, online);
-
-        List<Long> friendIds = friendService.getFriendIds(userId);
-        for (Long friendId : friendIds) {
-            sendToUser(friendId, statusMessage);
+    private void notifyFriendsStatus(Long userId, String username, boolean online) {
+        OutboundFrame frame = encode(WebSocketMessage.userStatus(userId,
+                username != null ? username : "unknown", online));
+        if (frame == null) {
+            return;
         }
+
+        deliver(friendService.getFriendIds(userId), frame);
     }
 
     /**
-     * 유저에게 메시지 전달.
-     * 1. 로컬 세션에 있으면 직접 전달
-     * 2. 없으면 Redis에서 유저가 연결된 서버를 조회해서 Pub/Sub으로 중계
+     * 유저들에게 메시지 전달.
+     * 1. 로컬 세션이 있으면 기기별 세션 아웃바운드 큐에 모두 적재 (전송은 writer 스레드가 비동기로 처리)
+     * 2. 나머지 유저의 서버는 Redis MGET 한 번으로 조회하고, 대상 서버별로 묶어 서버당 한 번만 Pub/Sub으로 중계
      */
-    private void sendToUser(Long userId, WebSocketMessage message) {
-        WebSocketSession session = sessionManager.getSession(userId);
-        if (session != null && session.isOpen()) {
-            try {
-                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
-            } catch (IOException e) {
-                log.error("Failed to send message to userId={}", userId, e);
+    private void deliver(Collection<Long> userIds, OutboundFrame frame) {
+        List<Long> nonLocal = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (!deliverLocally(userId, frame)) {
+                nonLocal.add(userId);
             }
+        }
+        if (nonLocal.isEmpty()) {
             return;
         }
 
-        String targetServerId = onlineStatusService.getServerId(userId);
-        if (targetServerId != null && !targetServerId.equals(serverIdHolder.getServerId())) {
-            redisMessageRelay.relayToUser(userId, targetServerId, message);
+        String localServerId = serverIdHolder.getServerId();
+        Map<Long, String> serverIds = onlineStatusService.getServerIds(nonLocal);
+        Map<String, List<Long>> remoteByServer = new HashMap<>();
+        for (Long userId : nonLocal) {
+            String targetServerId = serverIds.get(userId);
+            if (targetServerId != null && !targetServerId.equals(localServerId)) {
+                remoteByServer.computeIfAbsent(targetServerId, id -> new ArrayList<>()).add(userId);
+            }
+        }
+
+        if (!remoteByServer.isEmpty()) {
+            redisMessageRelay.relay(remoteByServer, frame);
+        }
+    }
+
+    private boolean deliverLocally(Long userId, OutboundFrame frame) {
+        boolean delivered = false;
+        for (OutboundSession session : sessionManager.getSessions(userId)) {
+            if (session.isOpen()) {
+                session.send(frame);
+                delivered = true;
+            }
+        }
+        return delivered;
+    }
+
+    private OutboundFrame encode(WebSocketMessage message) {
+        try {
+            return OutboundFrame.encode(message, objectMapper);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to encode message: type={}", message.getType(), e);
+            return null;
         }
     }
 
     private Long getUserId(WebSocketSession session) {
         return (Long) session.getAttributes().get("userId");
     }
+
+    private String getUsername(WebSocketSession session) {
+        return (String) session.getAttributes().get("username");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> getResumeMarks(WebSocketSession session) {
+        return (Map<Long, Long>) session.getAttributes().get(SyncMarks.ATTRIBUTE);
+    }
 }
@@ -0,0 +1,63 @@
+package com.bok.chat.websocket;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.introspect.AnnotatedField;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.AnnotatedParameter;
+
+import java.util.Map;
+
+/**
+ * 바이너리 프레임 전용 짧은 필드 키.
+ * JSON은 가독성을 위해 원래 이름을 유지하고, CBOR에서만 originalFilename → fn 처럼 줄인다.
+ * 표에 없는 이름은 그대로 쓰므로 새 필드를 추가해도 호환은 깨지지 않는다 (압축만 안 될 뿐).
+ */
+class CompactKeys extends PropertyNamingStrategy {
+
+    private static final Map<String, String> SHORT = Map.ofEntries(
+            Map.entry("type", "t"),
+            Map.entry("chatRoomId", "r"),
+            Map.entry("senderId", "s"),
+            Map.entry("senderName", "n"),
+            Map.entry("content", "c"),
+            Map.entry("messageId", "m"),
+            Map.entry("unreadCount", "u"),
+            Map.entry("online", "o"),
+            Map.entry("userIds", "us"),
+            Map.entry("edited", "e"),
+            Map.entry("deleted", "d"),
+            Map.entry("fileId", "f"),
+            Map.entry("originalFilename", "fn"),
+            Map.entry("contentType", "ct"),
+            Map.entry("fileSize", "fs"),
+            Map.entry("messages", "ms"),
+            Map.entry("hasMore", "hm"),
+            Map.entry("lastSeen", "ls"),
+            Map.entry("error", "er"),
+            Map.entry("reconnectAfterMs", "ra"));
+
+    static String shorten(String name) {
+        return SHORT.getOrDefault(name, name);
+    }
+
+    @Override
+    public String nameForField(MapperConfig<?> config, AnnotatedField field, String defaultName) {
+        return shorten(defaultName);
+    }
+
+    @Override
+    public String nameForGetterMethod(MapperConfig<?> config, AnnotatedMethod method, String defaultName) {
+        return shorten(defaultName);
+    }
+
+    @Override
+    public String nameForSetterMethod(MapperConfig<?> config, AnnotatedMethod method, String defaultName) {
+        return shorten(defaultName);
+    }
+
+    @Override
+    public String nameForConstructorParameter(MapperConfig<?> config, AnnotatedParameter param, String defaultName) {
+        return shorten(defaultName);
+    }
+}
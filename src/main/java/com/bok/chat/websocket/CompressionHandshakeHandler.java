@@ -0,0 +1,36 @@
+package com.bok.chat.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+
+/**
+ * permessage-deflate 협상 여부를 설정으로 제어한다.
+ * 압축을 끄면 클라이언트가 요청해도 응답 확장 목록에서 빼서 압축 없이 연결된다.
+ */
+@Component
+@RequiredArgsConstructor
+public class CompressionHandshakeHandler extends DefaultHandshakeHandler {
+
+    static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private final WebSocketCompressionProperties properties;
+
+    @Override
+    protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                 List<WebSocketExtension> requestedExtensions,
+                                                                 List<WebSocketExtension> supportedExtensions) {
+        List<WebSocketExtension> negotiated =
+                super.filterRequestedExtensions(request, requestedExtensions, supportedExtensions);
+        if (properties.isEnabled()) {
+            return negotiated;
+        }
+        return negotiated.stream()
+                .filter(extension -> !PERMESSAGE_DEFLATE.equalsIgnoreCase(extension.getName()))
+                .toList();
+    }
+}
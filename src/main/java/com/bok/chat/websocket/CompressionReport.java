@@ -0,0 +1,141 @@
+package com.bok.chat.websocket;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * 아웃바운드 프레임 일부를 샘플링해 permessage-deflate 압축률과 CPU 비용을 크기 구간별로 집계한다.
+ * 배포 환경의 실제 트래픽으로 압축 사용 여부를 정하기 위한 리포트다.
+ * 작은 프레임까지 압축하는 비용이 이득보다 크면 압축을 끄는 것 외에 서버 쪽 조절 수단은 없다
+ * (Tomcat permessage-deflate는 프레임 크기 기준 없이 모든 프레임을 압축한다).
+ *
+ * permessage-deflate와 같게 raw deflate(nowrap)로 프레임마다 독립적으로 압축한다
+ * (context takeover가 없다고 가정하므로 실제 연결보다 압축률은 보수적으로 나온다).
+ *
+ * 조회: /actuator/wscompression
+ */
+@Component
+@Endpoint(id = "wscompression")
+public class CompressionReport {
+
+    private static final int[] BUCKET_UPPER_BOUNDS = {128, 512, 2048, 8192, Integer.MAX_VALUE};
+
+    private final WebSocketCompressionProperties properties;
+    private final List<Bucket> buckets = new ArrayList<>();
+    private final Bucket belowThreshold;
+    private final Bucket aboveThreshold;
+
+    public CompressionReport(WebSocketCompressionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        int lowerBound = 0;
+        for (int upperBound : BUCKET_UPPER_BOUNDS) {
+            buckets.add(Bucket.register(meterRegistry, "chat.websocket.deflate", "size", label(lowerBound, upperBound), upperBound));
+            lowerBound = upperBound;
+        }
+        this.belowThreshold = Bucket.register(meterRegistry, "chat.websocket.deflate.threshold", "side", "below", 0);
+        this.aboveThreshold = Bucket.register(meterRegistry, "chat.websocket.deflate.threshold", "side", "above", 0);
+    }
+
+    /**
+     * 이번 프레임을 샘플링할지 결정한다. 샘플링하지 않는 프레임은 바이트 변환 비용도 들지 않도록 먼저 호출한다.
+     */
+    public boolean shouldSample() {
+        double sampleRate = properties.getSampleRate();
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public void record(byte[] payload) {
+        long startedAt = System.nanoTime();
+        int compressed = deflatedSize(payload);
+        long elapsed = System.nanoTime() - startedAt;
+        double ratio = payload.length == 0 ? 1.0 : (double) compressed / payload.length;
+
+        bucketFor(payload.length).record(ratio, elapsed);
+        (payload.length < properties.getReportSmallFrameThreshold() ? belowThreshold : aboveThreshold).record(ratio, elapsed);
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        Map<String, Object> sizes = new LinkedHashMap<>();
+        for (Bucket bucket : buckets) {
+            sizes.put(bucket.label(), bucket.snapshot());
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", properties.isEnabled());
+        report.put("reportSmallFrameThreshold", properties.getReportSmallFrameThreshold());
+        report.put("sampleRate", properties.getSampleRate());
+        report.put("belowThreshold", belowThreshold.snapshot());
+        report.put("aboveThreshold", aboveThreshold.snapshot());
+        report.put("buckets", sizes);
+        return report;
+    }
+
+    private Bucket bucketFor(int size) {
+        for (Bucket bucket : buckets) {
+            if (size < bucket.upperBound()) {
+                return bucket;
+            }
+        }
+        return buckets.get(buckets.size() - 1);
+    }
+
+    private static int deflatedSize(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            byte[] buffer = new byte[Math.max(64, payload.length)];
+            int total = 0;
+            while (!deflater.finished()) {
+                total += deflater.deflate(buffer);
+            }
+            return total;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String label(int lowerBound, int upperBound) {
+        return upperBound == Integer.MAX_VALUE ? lowerBound + "+" : lowerBound + "-" + (upperBound - 1);
+    }
+
+    private record Bucket(String label, int upperBound, DistributionSummary ratio, Timer cpu) {
+
+        static Bucket register(MeterRegistry meterRegistry, String name, String tag, String label, int upperBound) {
+            return new Bucket(label, upperBound,
+                    DistributionSummary.builder(name + ".ratio")
+                            .description("Sampled compressed/original size of outbound frames")
+                            .tag(tag, label)
+                            .register(meterRegistry),
+                    Timer.builder(name + ".cpu")
+                            .description("Sampled time spent deflating one outbound frame")
+                            .tag(tag, label)
+                            .register(meterRegistry));
+        }
+
+        void record(double compressionRatio, long nanos) {
+            ratio.record(compressionRatio);
+            cpu.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("samples", ratio.count());
+            snapshot.put("meanRatio", ratio.mean());
+            snapshot.put("meanCpuMicros", cpu.mean(TimeUnit.MICROSECONDS));
+            return snapshot;
+        }
+    }
+}
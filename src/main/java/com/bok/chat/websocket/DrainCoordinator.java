@@ -0,0 +1,168 @@
+package com.bok.chat.websocket;
+
+import com.bok.chat.redis.ServerRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 노드 드레인. 재배포 때 세션을 한꺼번에 끊으면 모든 클라이언트가 같은 순간 다른 노드로 몰려
+ * 연결 처리(유저 조회, 밀린 메시지 조회, 상태 알림)가 한 번에 터진다.
+ *
+ * 1. 새 핸드셰이크를 거부하고(503) 배치 ring에서 빠진다.
+ * 2. 세션을 waves개 묶음으로 섞어 나누고, 묶음 w의 클라이언트에게 [w, w+1) * waveInterval 사이 임의 시점에
+ *    다시 접속하라는 server.draining 프레임을 보낸다.
+ * 3. 묶음 w의 구간이 끝나면 아직 남은 세션을 1012(Service Restart)로 닫는다. 안내를 따르지 않는 클라이언트용이다.
+ *
+ * 닫힌 세션은 평소처럼 유예 기간을 거치므로 유예 안에 다른 노드로 붙은 유저는 오프라인/온라인 알림이 나가지 않는다.
+ * 종료 시에는 다른 lifecycle보다 먼저 멈추도록 가장 높은 phase에서 드레인이 끝날 때까지 종료를 붙잡는다.
+ */
+@Slf4j
+@Component
+public class DrainCoordinator implements SmartLifecycle {
+
+    private final WebSocketSessionManager sessionManager;
+    private final ServerRegistry serverRegistry;
+    private final ObjectMapper objectMapper;
+    private final DrainProperties properties;
+
+    private final AtomicReference<CompletableFuture<DrainReport>> drain = new AtomicReference<>();
+    private final Counter closed;
+    private volatile boolean running;
+
+    public DrainCoordinator(WebSocketSessionManager sessionManager,
+                            ServerRegistry serverRegistry,
+                            ObjectMapper objectMapper,
+                            DrainProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.sessionManager = sessionManager;
+        this.serverRegistry = serverRegistry;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.closed = Counter.builder("chat.websocket.drain.closed")
+                .description("Sessions closed by the server while draining (client did not reconnect in time)")
+                .register(meterRegistry);
+        Gauge.builder("chat.websocket.draining", this, coordinator -> coordinator.isDraining() ? 1 : 0)
+                .description("1 while this node is draining WebSocket sessions")
+                .register(meterRegistry);
+    }
+
+    public boolean isDraining() {
+        return drain.get() != null;
+    }
+
+    /**
+     * 드레인을 시작한다. 이미 진행 중이면 같은 결과를 돌려준다.
+     */
+    public CompletableFuture<DrainReport> drain() {
+        CompletableFuture<DrainReport> started = new CompletableFuture<>();
+        if (!drain.compareAndSet(null, started)) {
+            return drain.get();
+        }
+        serverRegistry.deregister();
+        Thread.ofVirtual().name("ws-drain").start(() -> {
+            try {
+                started.complete(runWaves());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                started.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                started.completeExceptionally(e);
+            }
+        });
+        return started;
+    }
+
+    DrainReport runWaves() throws InterruptedException {
+        List<OutboundSession> sessions = new ArrayList<>();
+        sessionManager.forEachSession((userId, session) -> sessions.add(session));
+        Collections.shuffle(sessions);
+        int waves = Math.max(1, Math.min(properties.getWaves(), sessions.size()));
+        long intervalMs = Math.max(1, properties.getWaveInterval().toMillis());
+        log.info("Draining {} WebSocket sessions in {} waves of {}ms", sessions.size(), waves, intervalMs);
+
+        for (int i = 0; i < sessions.size(); i++) {
+            long reconnectAfterMs = (i % waves) * intervalMs + ThreadLocalRandom.current().nextLong(intervalMs);
+            announce(sessions.get(i), reconnectAfterMs);
+        }
+
+        long start = System.nanoTime();
+        int closedByServer = 0;
+        for (int wave = 0; wave < waves; wave++) {
+            long waveEndNanos = start + (wave + 1) * intervalMs * 1_000_000;
+            long sleepMs = (waveEndNanos - System.nanoTime()) / 1_000_000;
+            if (sleepMs > 0) {
+                Thread.sleep(sleepMs);
+            }
+            for (int i = wave; i < sessions.size(); i += waves) {
+                OutboundSession session = sessions.get(i);
+                if (session.isOpen()) {
+                    session.close(CloseStatus.SERVICE_RESTARTED);
+                    closed.increment();
+                    closedByServer++;
+                }
+            }
+        }
+        log.info("Drain finished: sessions={}, closedByServer={}", sessions.size(), closedByServer);
+        return new DrainReport(sessions.size(), waves, closedByServer);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        if (!properties.isOnShutdown()) {
+            stop();
+            callback.run();
+            return;
+        }
+        drain().whenComplete((report, e) -> {
+            stop();
+            callback.run();
+        });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    private void announce(OutboundSession session, long reconnectAfterMs) {
+        try {
+            session.send(OutboundFrame.encode(WebSocketMessage.serverDraining(reconnectAfterMs), objectMapper));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to encode drain notice", e);
+        }
+    }
+
+    /**
+     * closedByServer는 안내받은 시점까지 스스로 재접속하지 않아 서버가 닫은 세션 수.
+     */
+    public record DrainReport(int sessions, int waves, int closedByServer) {}
+}
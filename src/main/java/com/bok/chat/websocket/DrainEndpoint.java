@@ -0,0 +1,36 @@
+package com.bok.chat.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 드레인 상태 조회(GET)와 시작(POST /actuator/wsdrain). 시작은 바로 돌아오고 세션은 백그라운드에서 묶음별로 닫힌다.
+ */
+@Component
+@Endpoint(id = "wsdrain")
+@RequiredArgsConstructor
+public class DrainEndpoint {
+
+    private final DrainCoordinator drainCoordinator;
+    private final WebSocketSessionManager sessionManager;
+
+    @ReadOperation
+    public DrainStatus status() {
+        AtomicInteger sessions = new AtomicInteger();
+        sessionManager.forEachSession((userId, session) -> sessions.incrementAndGet());
+        return new DrainStatus(drainCoordinator.isDraining(), sessions.get());
+    }
+
+    @WriteOperation
+    public DrainStatus drain() {
+        drainCoordinator.drain();
+        return status();
+    }
+
+    public record DrainStatus(boolean draining, int sessions) {}
+}
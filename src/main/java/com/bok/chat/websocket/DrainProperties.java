@@ -0,0 +1,30 @@
+package com.bok.chat.websocket;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.websocket.drain")
+public class DrainProperties {
+
+    /**
+     * 세션을 나눠 닫는 묶음 수. 전체 드레인 시간은 waves * waveInterval.
+     */
+    private int waves = 10;
+
+    /**
+     * 묶음 사이 간격. 각 묶음의 클라이언트는 이 구간 안의 임의 시점에 재접속하도록 안내받는다.
+     */
+    private Duration waveInterval = Duration.ofSeconds(2);
+
+    /**
+     * 애플리케이션 종료 시 드레인한다. 전체 드레인 시간이 spring.lifecycle.timeout-per-shutdown-phase보다 짧아야 한다.
+     */
+    private boolean onShutdown = true;
+}
@@ -0,0 +1,66 @@
+package com.bok.chat.websocket;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * CBOR 바이너리 프레임 인코딩/디코딩.
+ * 필드 키는 {@link CompactKeys}로 줄여서 쓴다.
+ */
+@Component
+public class FrameCodec {
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    public FrameCodec(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = CBORMapper.builder()
+                .propertyNamingStrategy(new CompactKeys())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    public byte[] encode(Object message) throws IOException {
+        return cborMapper.writeValueAsBytes(message);
+    }
+
+    public WebSocketMessage decode(ByteBuffer payload) throws IOException {
+        if (payload.hasArray()) {
+            return cborMapper.readValue(payload.array(), payload.arrayOffset() + payload.position(),
+                    payload.remaining(), WebSocketMessage.class);
+        }
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return cborMapper.readValue(bytes, WebSocketMessage.class);
+    }
+
+    /**
+     * 이미 JSON으로 직렬화된 프레임(Redis 중계로 받은 payload)을 객체로 바인딩하지 않고
+     * 토큰 단위로 CBOR로 옮겨 쓴다. 필드 키만 짧은 키로 바꾼다.
+     */
+    public byte[] transcode(String json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length());
+        try (JsonParser parser = jsonMapper.getFactory().createParser(json);
+             JsonGenerator generator = cborMapper.getFactory().createGenerator(out)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME) {
+                    generator.writeFieldName(CompactKeys.shorten(parser.currentName()));
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,69 @@
+package com.bok.chat.websocket;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.websocket.rate-limit")
+public class InboundRateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 세션(기기) 하나에 적용하는 메시지 타입별 한도. 설정하지 않은 타입은 제한하지 않는다.
+     */
+    private Map<MessageType, Limit> session = new EnumMap<>(Map.of(
+            MessageType.MESSAGE_SEND, new Limit(10, 20),
+            MessageType.MESSAGE_READ, new Limit(20, 40),
+            MessageType.ROOM_INVITE, new Limit(1, 5),
+            MessageType.SYNC, new Limit(1, 3)));
+
+    /**
+     * 유저의 모든 기기를 합쳐 적용하는 한도. 세션을 여러 개 열어 세션 한도를 우회하는 것을 막는다.
+     */
+    private Map<MessageType, Limit> user = new EnumMap<>(Map.of(
+            MessageType.MESSAGE_SEND, new Limit(20, 40),
+            MessageType.MESSAGE_READ, new Limit(40, 80),
+            MessageType.ROOM_INVITE, new Limit(2, 10)));
+
+    /**
+     * 한 세션에서 이 횟수만큼 한도를 넘기면 POLICY_VIOLATION으로 연결을 끊는다. 그 전까지는 error 프레임만 보낸다.
+     */
+    private int violationsBeforeClose = 10;
+
+    /**
+     * 마지막 위반 후 이 시간 동안 위반이 없으면 세션의 위반 횟수를 0으로 되돌린다.
+     */
+    private Duration violationWindow = Duration.ofMinutes(1);
+
+    @Getter
+    @Setter
+    public static class Limit {
+
+        /**
+         * 초당 허용 개수.
+         */
+        private double rate;
+
+        /**
+         * 순간적으로 몰아서 허용하는 최대 개수.
+         */
+        private int burst;
+
+        public Limit() {
+        }
+
+        public Limit(double rate, int burst) {
+            this.rate = rate;
+            this.burst = burst;
+        }
+    }
+}
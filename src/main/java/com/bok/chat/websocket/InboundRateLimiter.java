@@ -0,0 +1,116 @@
+package com.bok.chat.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 클라이언트가 보내는 명령을 세션별, 유저별 토큰 버킷으로 제한한다.
+ * 메시지 전송/읽음/초대는 명령마다 DB 트랜잭션을 열기 때문에,
+ * 클라이언트 하나가 커넥션 풀을 다 차지하지 못하도록 DB에 닿기 전에 거른다.
+ *
+ * 버킷은 세션/유저가 처음 보일 때 설정된 타입 전부를 한 번에 만들고 이후에는 읽기만 하므로
+ * 조회와 토큰 차감 모두 락이 없다.
+ */
+@Component
+public class InboundRateLimiter {
+
+    public enum Decision { ALLOWED, THROTTLED, CLOSE }
+
+    private final InboundRateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final Map<String, SessionLimits> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Map<MessageType, TokenBucket>> users = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InboundRateLimiter(InboundRateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    InboundRateLimiter(InboundRateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    public Decision check(WebSocketSession session, Long userId, MessageType type) {
+        if (!properties.isEnabled()) {
+            return Decision.ALLOWED;
+        }
+        SessionLimits limits = sessions.computeIfAbsent(session.getId(),
+                id -> new SessionLimits(buckets(properties.getSession())));
+        String scope = null;
+        if (!tryAcquire(limits.buckets, type)) {
+            scope = "session";
+        } else if (!tryAcquire(users.computeIfAbsent(userId, id -> buckets(properties.getUser())), type)) {
+            scope = "user";
+        }
+        if (scope == null) {
+            return Decision.ALLOWED;
+        }
+
+        Counter.builder("chat.websocket.inbound.throttled")
+                .description("Inbound commands rejected by the per-session or per-user rate limit")
+                .tag("type", type.getValue())
+                .tag("scope", scope)
+                .register(meterRegistry)
+                .increment();
+        if (limits.recordViolation(clock.getAsLong(), properties.getViolationWindow().toNanos())
+                >= properties.getViolationsBeforeClose()) {
+            meterRegistry.counter("chat.websocket.inbound.throttle.closed").increment();
+            return Decision.CLOSE;
+        }
+        return Decision.THROTTLED;
+    }
+
+    /**
+     * 세션이 끊기면 세션 버킷을 정리하고, 유저의 마지막 세션이면 유저 버킷도 정리한다.
+     */
+    public void release(WebSocketSession session, Long userId, boolean lastSession) {
+        sessions.remove(session.getId());
+        if (lastSession) {
+            users.remove(userId);
+        }
+    }
+
+    private static boolean tryAcquire(Map<MessageType, TokenBucket> buckets, MessageType type) {
+        TokenBucket bucket = buckets.get(type);
+        return bucket == null || bucket.tryAcquire();
+    }
+
+    private Map<MessageType, TokenBucket> buckets(Map<MessageType, InboundRateLimitProperties.Limit> limits) {
+        Map<MessageType, TokenBucket> buckets = new EnumMap<>(MessageType.class);
+        limits.forEach((type, limit) -> buckets.put(type, new TokenBucket(limit.getRate(), limit.getBurst(), clock)));
+        return buckets;
+    }
+
+    private static final class SessionLimits {
+        private final Map<MessageType, TokenBucket> buckets;
+        private int violations;
+        private long lastViolationAt;
+
+        private SessionLimits(Map<MessageType, TokenBucket> buckets) {
+            this.buckets = buckets;
+        }
+
+        /**
+         * 마지막 위반 후 window 동안 조용했으면 위반 횟수를 처음부터 다시 센다.
+         * 오래 붙어 있는 정상 세션이 가끔 한도를 넘긴 것이 누적되어 끊기지 않도록 한다. 위반 경로에서만 타므로 락을 써도 된다.
+         */
+        private synchronized int recordViolation(long now, long windowNanos) {
+            if (violations > 0 && now - lastViolationAt > windowNanos) {
+                violations = 0;
+            }
+            lastViolationAt = now;
+            return ++violations;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.bok.chat.websocket;
 
-import com.bok.chat.security.JwtProvider;
+import com.bok.chat.security.JwtPrincipal;
+import com.bok.chat.security.TokenVerifier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -17,27 +20,52 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class JwtHandshakeInterceptor implements HandshakeInterceptor {
 
-    private final JwtProvider jwtProvider;
+    private final TokenVerifier tokenVerifier;
+    private final DrainCoordinator drainCoordinator;
 
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
                                    WebSocketHandler wsHandler, Map<String, Object> attributes) {
-        String token = UriComponentsBuilder.fromUri(request.getURI())
+        if (drainCoordinator.isDraining()) {
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return false;
+        }
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(request.getURI())
                 .build()
-                .getQueryParams()
-                .getFirst("token");
+                .getQueryParams();
+        String token = params.getFirst("token");
 
-        if (token == null || !jwtProvider.validateToken(token)) {
+        JwtPrincipal principal = token != null ? tokenVerifier.verify(token).orElse(null) : null;
+        if (principal == null) {
             log.warn("WebSocket handshake rejected: invalid token");
             return false;
         }
 
-        Long userId = jwtProvider.getUserId(token);
+        Long userId = principal.userId();
         attributes.put("userId", userId);
+        // 연결/해제 알림에 쓸 이름은 서명이 검증된 클레임에서 가져와 DB를 조회하지 않는다
+        if (principal.username() != null) {
+            attributes.put("username", principal.username());
+        }
+        putResumeMarks(params, attributes, userId);
         log.info("WebSocket handshake accepted: userId={}", userId);
         return true;
     }
 
+    /**
+     * 재연결하는 클라이언트가 보낸 방별 high-water mark. 형식이 잘못되면 무시하고 일반 연결처럼 처리한다.
+     */
+    private void putResumeMarks(MultiValueMap<String, String> params, Map<String, Object> attributes, Long userId) {
+        if (!params.containsKey(SyncMarks.PARAM)) {
+            return;
+        }
+        try {
+            attributes.put(SyncMarks.ATTRIBUTE, SyncMarks.parse(params.getFirst(SyncMarks.PARAM)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed resume marks: userId={}", userId);
+        }
+    }
+
     @Override
     public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
                                WebSocketHandler wsHandler, Exception exception) {
@@ -13,6 +13,11 @@ public enum MessageType {
     HEARTBEAT("heartbeat"),
     USER_STATUS("user.status"),
     MESSAGES_READ("messages.read"),
+    MESSAGES_BATCH("messages.batch"),
+    SYNC("sync"),
+    SYNC_REQUIRED("sync.required"),
+    ERROR("error"),
+    SERVER_DRAINING("server.draining"),
     ROOM_INVITE("room.invite"),
     ROOM_LEAVE("room.leave");
 
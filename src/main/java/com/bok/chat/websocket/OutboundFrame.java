@@ -0,0 +1,70 @@
+package com.bok.chat.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+
+/**
+ * 한 번만 직렬화된 불변 프레임.
+ * 같은 방 멤버 전원의 로컬 세션과 Redis 중계 payload가 이 인스턴스를 그대로 공유한다.
+ *
+ * CBOR 바이너리 인코딩은 CBOR 세션이 처음 꺼낼 때 한 번만 만들고 이후 공유한다.
+ * JSON만 쓰는 방에서는 바이너리 인코딩 비용이 들지 않는다.
+ */
+public final class OutboundFrame {
+
+    private final MessageType type;
+    private final TextMessage message;
+    private final Object source;
+    private volatile byte[] binary;
+
+    private OutboundFrame(MessageType type, TextMessage message, Object source) {
+        this.type = type;
+        this.message = message;
+        this.source = source;
+    }
+
+    public static OutboundFrame encode(WebSocketMessage message, ObjectMapper objectMapper)
+            throws JsonProcessingException {
+        return new OutboundFrame(message.getType(), new TextMessage(objectMapper.writeValueAsString(message)), message);
+    }
+
+    public static OutboundFrame of(MessageType type, String json) {
+        return new OutboundFrame(type, new TextMessage(json), null);
+    }
+
+    public MessageType type() {
+        return type;
+    }
+
+    public TextMessage message() {
+        return message;
+    }
+
+    public String payload() {
+        return message.getPayload();
+    }
+
+    public int payloadLength() {
+        return message.getPayloadLength();
+    }
+
+    public OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.of(type);
+    }
+
+    /**
+     * 원본 객체가 있으면 바로 CBOR로 쓰고, 중계로 받은 프레임처럼 JSON만 있으면 토큰 단위로 변환한다.
+     * 동시에 처음 호출되면 두 번 인코딩될 수 있지만 결과는 같으므로 락을 잡지 않는다.
+     */
+    public byte[] binary(FrameCodec codec) throws IOException {
+        byte[] encoded = binary;
+        if (encoded == null) {
+            encoded = source != null ? codec.encode(source) : codec.transcode(payload());
+            binary = encoded;
+        }
+        return encoded;
+    }
+}
@@ -0,0 +1,415 @@
+package com.bok.chat.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.AbstractWebSocketMessage;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 세션별 아웃바운드 큐.
+ * 보내는 쪽은 큐에 적재만 하고 바로 반환하며, 실제 전송은 writer 스레드가 세션 단위로 순서대로 처리한다.
+ * 느린 클라이언트 하나가 그룹 fan-out이나 컨테이너 스레드를 붙잡지 않도록 한다.
+ *
+ * writer와 보내는 쪽이 가상 스레드일 수 있으므로 synchronized 대신 ReentrantLock을 쓴다 (JDK 21 모니터 pinning 회피).
+ *
+ * 느린 소비자는 연속으로 느린 전송을 기준으로 단계적으로 처리한다.
+ * NORMAL → SLOW(표시만) → DEMOTED(큐를 비우고 sync.required 하나만 보냄) → 4008로 종료
+ * 빠른 전송이 한 번이라도 끼거나 idleReset 이상 보낼 것이 없었으면 느린 구간을 끝낸다. EWMA는 조회용으로만 쓴다.
+ * DEMOTED 세션은 보내는 프레임이 없어 전송 시간으로 판단할 수 없으므로 send()와 주기 점검에서 closeAfter를 확인한다.
+ */
+@Slf4j
+public class OutboundSession {
+
+    private static final String TOMCAT_BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    /**
+     * 계속 느린 세션을 끊을 때 쓰는 상태 코드. 클라이언트는 재연결 후 resume으로 밀린 메시지를 받는다.
+     */
+    public static final CloseStatus SLOW_CONSUMER = new CloseStatus(4008, "Slow consumer");
+
+    private static final double EWMA_ALPHA = 0.2;
+    private static final OutboundFrame SYNC_REQUIRED =
+            OutboundFrame.of(MessageType.SYNC_REQUIRED, "{\"type\":\"sync.required\"}");
+
+    public enum SlowState { NORMAL, SLOW, DEMOTED }
+
+    private final WebSocketSession delegate;
+    private final WireFormat format;
+    private final FrameCodec codec;
+    private final CompressionReport compressionReport;
+    private final Executor writer;
+    private final int bufferSizeLimit;
+    private final long sendTimeLimitNanos;
+    private final WebSocketOutboundProperties.SlowConsumer slowConsumer;
+    private final Meters meters;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<OutboundFrame> queue = new ArrayDeque<>();
+    private int bufferedBytes;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile long sendStartedAt;
+    private volatile boolean closing;
+
+    private volatile long sendLatencyNanos;
+    private volatile long lastSendEndedAt;
+    private volatile long slowSince;
+    private volatile SlowState slowState = SlowState.NORMAL;
+
+    OutboundSession(WebSocketSession delegate, FrameCodec codec, CompressionReport compressionReport,
+                    Executor writer, int bufferSizeLimit, long sendTimeLimitMillis,
+                    WebSocketOutboundProperties.SlowConsumer slowConsumer, Meters meters, LongSupplier clock) {
+        this.delegate = delegate;
+        this.format = WireFormat.of(delegate.getAcceptedProtocol());
+        this.codec = codec;
+        this.compressionReport = compressionReport;
+        this.writer = writer;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimitNanos = sendTimeLimitMillis * 1_000_000L;
+        this.slowConsumer = slowConsumer;
+        this.meters = meters;
+        this.clock = clock;
+        applyContainerSendTimeout(sendTimeLimitMillis);
+    }
+
+    /**
+     * 프레임을 큐에 적재한다.
+     * 세션이 닫혔거나 버퍼 초과/전송 지연으로 세션을 끊었으면 false를 반환한다.
+     */
+    public boolean send(OutboundFrame frame) {
+        if (closing || !delegate.isOpen()) {
+            return false;
+        }
+        if (isSendTimedOut()) {
+            log.warn("Send time limit exceeded: sessionId={}", delegate.getId());
+            meters.timedOut().increment();
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return false;
+        }
+        if (slowState == SlowState.DEMOTED) {
+            if (closeIfSlowTooLong(clock.getAsLong())) {
+                return false;
+            }
+            // 이미 sync.required를 보냈으므로 클라이언트가 sync로 따라잡을 때까지 개별 프레임은 보내지 않는다
+            meters.suppressed().increment();
+            return true;
+        }
+
+        boolean overflow = false;
+        int depth;
+        lock.lock();
+        try {
+            queue.addLast(frame);
+            bufferedBytes += frame.payloadLength();
+            while (bufferedBytes > bufferSizeLimit) {
+                if (!dropOldestDroppable()) {
+                    overflow = true;
+                    break;
+                }
+                meters.dropped().increment();
+            }
+            depth = queue.size();
+        } finally {
+            lock.unlock();
+        }
+        meters.queueDepth().record(depth);
+
+        if (overflow) {
+            log.warn("Outbound buffer overflow: sessionId={}, limit={}", delegate.getId(), bufferSizeLimit);
+            meters.overflowed().increment();
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return false;
+        }
+
+        scheduleDrain();
+        return true;
+    }
+
+    public boolean isOpen() {
+        return !closing && delegate.isOpen();
+    }
+
+    public WireFormat getFormat() {
+        return format;
+    }
+
+    public WebSocketSession getDelegate() {
+        return delegate;
+    }
+
+    public long getSendLatencyNanos() {
+        return sendLatencyNanos;
+    }
+
+    public SlowState getSlowState() {
+        return slowState;
+    }
+
+    /**
+     * @return 느린 상태가 이어진 시간. 느리지 않으면 0
+     */
+    public long getSlowForNanos() {
+        long since = slowSince;
+        return since == 0 ? 0 : clock.getAsLong() - since;
+    }
+
+    /**
+     * 클라이언트가 sync를 보내 따라잡기 시작하면 다시 프레임을 받는다.
+     * 느린 시간은 초기화하지 않으므로, 여전히 느리면 바로 다시 강등되고 결국 끊긴다.
+     * 강등된 동안 전송이 없던 시간은 유휴로 보지 않도록 마지막 전송 시각을 지금으로 당긴다.
+     */
+    public void resume() {
+        if (slowState == SlowState.DEMOTED) {
+            lastSendEndedAt = clock.getAsLong();
+            slowState = SlowState.SLOW;
+        }
+    }
+
+    /**
+     * 주기 점검. DEMOTED인 채로 closeAfter가 지나면 끊고, SLOW인데 idleReset 이상 보낼 것이 없었으면 느린 구간을 끝낸다.
+     */
+    public void checkSlowConsumer() {
+        if (!slowConsumer.isEnabled() || closing) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (slowState == SlowState.DEMOTED) {
+            closeIfSlowTooLong(now);
+        } else if (slowSince != 0 && !draining.get() && isIdleSince(now)) {
+            endSlowRun();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close(CloseStatus status) {
+        closing = true;
+        lock.lock();
+        try {
+            queue.clear();
+            bufferedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            delegate.close(status);
+        } catch (IOException e) {
+            log.debug("Failed to close sessionId={}", delegate.getId(), e);
+        }
+    }
+
+    private boolean dropOldestDroppable() {
+        Iterator<OutboundFrame> it = queue.iterator();
+        while (it.hasNext()) {
+            OutboundFrame frame = it.next();
+            if (frame.overflowPolicy() == OverflowPolicy.DROP_OLDEST) {
+                it.remove();
+                bufferedBytes -= frame.payloadLength();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSendTimedOut() {
+        long startedAt = sendStartedAt;
+        return startedAt != 0 && clock.getAsLong() - startedAt > sendTimeLimitNanos;
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writer.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            log.error("Outbound writer rejected sessionId={}", delegate.getId(), e);
+        }
+    }
+
+    private void drain() {
+        try {
+            OutboundFrame frame;
+            while (!closing && (frame = poll()) != null) {
+                long startedAt = clock.getAsLong();
+                sendStartedAt = startedAt;
+                try {
+                    delegate.sendMessage(encodeFor(frame));
+                } finally {
+                    sendStartedAt = 0;
+                }
+                recordSendLatency(startedAt, clock.getAsLong());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to send message to sessionId={}", delegate.getId(), e);
+            meters.failed().increment();
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+        } finally {
+            draining.set(false);
+        }
+
+        if (!closing && getQueueDepth() > 0) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * 유휴 구간 뒤의 첫 전송이면 EWMA와 느린 구간을 처음부터 다시 잰다.
+     * 예전 느린 표본이 쉬는 동안 그대로 남아 있다가 다음 전송 때 세션을 끊지 않도록 한다.
+     */
+    private void recordSendLatency(long startedAt, long endedAt) {
+        long elapsedNanos = endedAt - startedAt;
+        boolean afterIdle = slowState != SlowState.DEMOTED && isIdleSince(startedAt);
+        long previous = afterIdle ? 0 : sendLatencyNanos;
+        sendLatencyNanos = previous == 0 ? elapsedNanos
+                : (long) (EWMA_ALPHA * elapsedNanos + (1 - EWMA_ALPHA) * previous);
+        lastSendEndedAt = endedAt;
+        if (!slowConsumer.isEnabled()) {
+            return;
+        }
+        if (afterIdle) {
+            endSlowRun();
+        }
+        evaluateSlowness(elapsedNanos, endedAt);
+    }
+
+    private boolean isIdleSince(long now) {
+        long endedAt = lastSendEndedAt;
+        return endedAt != 0 && now - endedAt >= slowConsumer.getIdleReset().toNanos();
+    }
+
+    /**
+     * 전송 한 번이 threshold 이상 걸리면 느린 구간을 시작하거나 이어 가고, 빠른 전송이 끼면 구간을 끝낸다.
+     * 강등된 동안 보내는 것은 sync.required 하나뿐이라 그 표본으로는 상태를 바꾸지 않는다.
+     */
+    private void evaluateSlowness(long sampleNanos, long now) {
+        if (slowState == SlowState.DEMOTED) {
+            return;
+        }
+        if (sampleNanos < slowConsumer.getThreshold().toNanos()) {
+            endSlowRun();
+            return;
+        }
+
+        if (slowSince == 0) {
+            slowSince = now;
+            slowState = SlowState.SLOW;
+            meters.slow().increment();
+            log.info("Slow consumer flagged: sessionId={}, sendLatencyMs={}", delegate.getId(), sampleNanos / 1_000_000);
+        }
+        if (closeIfSlowTooLong(now)) {
+            return;
+        }
+        if (now - slowSince >= slowConsumer.getDemoteAfter().toNanos()) {
+            demote();
+        }
+    }
+
+    private void endSlowRun() {
+        if (slowState == SlowState.DEMOTED) {
+            return;
+        }
+        slowSince = 0;
+        slowState = SlowState.NORMAL;
+    }
+
+    private boolean closeIfSlowTooLong(long now) {
+        long since = slowSince;
+        if (closing || since == 0 || now - since < slowConsumer.getCloseAfter().toNanos()) {
+            return false;
+        }
+        log.warn("Closing slow consumer: sessionId={}, slowForMs={}, state={}",
+                delegate.getId(), (now - since) / 1_000_000, slowState);
+        meters.slowClosed().increment();
+        close(SLOW_CONSUMER);
+        return true;
+    }
+
+    /**
+     * 쌓인 프레임을 버리고 sync.required 하나만 남긴다. 버린 메시지는 저장되어 있으므로 sync로 다시 받는다.
+     */
+    private void demote() {
+        slowState = SlowState.DEMOTED;
+        meters.demoted().increment();
+        log.warn("Slow consumer demoted to sync.required: sessionId={}", delegate.getId());
+        lock.lock();
+        try {
+            queue.clear();
+            queue.addLast(SYNC_REQUIRED);
+            bufferedBytes = SYNC_REQUIRED.payloadLength();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * BinaryMessage는 전송 중 ByteBuffer position이 바뀌므로 세션마다 새로 감싼다 (바이트 배열은 공유).
+     */
+    private AbstractWebSocketMessage<?> encodeFor(OutboundFrame frame) throws IOException {
+        boolean sampled = compressionReport.shouldSample();
+        if (format == WireFormat.CBOR) {
+            byte[] binary = frame.binary(codec);
+            if (sampled) {
+                compressionReport.record(binary);
+            }
+            return new BinaryMessage(binary);
+        }
+        if (sampled) {
+            compressionReport.record(frame.payload().getBytes(StandardCharsets.UTF_8));
+        }
+        return frame.message();
+    }
+
+    private OutboundFrame poll() {
+        lock.lock();
+        try {
+            OutboundFrame frame = queue.pollFirst();
+            if (frame != null) {
+                bufferedBytes -= frame.payloadLength();
+            }
+            return frame;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 컨테이너 레벨 블로킹 전송 타임아웃도 같은 한도로 맞춰, writer 스레드가 한도 이상 묶이지 않도록 한다.
+     */
+    private void applyContainerSendTimeout(long sendTimeLimitMillis) {
+        if (delegate instanceof NativeWebSocketSession nativeSession) {
+            jakarta.websocket.Session session = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+            if (session != null) {
+                session.getUserProperties().put(TOMCAT_BLOCKING_SEND_TIMEOUT, sendTimeLimitMillis);
+            }
+        }
+    }
+
+    record Meters(DistributionSummary queueDepth, Counter dropped, Counter overflowed,
+                  Counter timedOut, Counter failed,
+                  Counter slow, Counter demoted, Counter suppressed, Counter slowClosed) {}
+}
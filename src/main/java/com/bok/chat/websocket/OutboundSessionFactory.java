@@ -0,0 +1,111 @@
+package com.bok.chat.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+/**
+ * 세션마다 {@link OutboundSession}을 만들어 주고, writer 스레드 풀과 메트릭을 공유한다.
+ */
+@Component
+public class OutboundSessionFactory {
+
+    private final WebSocketOutboundProperties properties;
+    private final FrameCodec codec;
+    private final CompressionReport compressionReport;
+    private final Executor writer;
+    private final OutboundSession.Meters meters;
+    private final LongSupplier clock;
+
+    @Autowired
+    public OutboundSessionFactory(WebSocketOutboundProperties properties, FrameCodec codec,
+                                  CompressionReport compressionReport, MeterRegistry meterRegistry,
+                                  Environment environment) {
+        this(properties, codec, compressionReport, writerExecutor(properties, environment), meterRegistry);
+    }
+
+    OutboundSessionFactory(WebSocketOutboundProperties properties, FrameCodec codec,
+                           CompressionReport compressionReport, Executor writer, MeterRegistry meterRegistry) {
+        this(properties, codec, compressionReport, writer, meterRegistry, System::nanoTime);
+    }
+
+    OutboundSessionFactory(WebSocketOutboundProperties properties, FrameCodec codec,
+                           CompressionReport compressionReport, Executor writer, MeterRegistry meterRegistry,
+                           LongSupplier clock) {
+        this.clock = clock;
+        this.properties = properties;
+        this.codec = codec;
+        this.compressionReport = compressionReport;
+        this.writer = writer;
+        this.meters = new OutboundSession.Meters(
+                DistributionSummary.builder("chat.websocket.outbound.queue.depth")
+                        .description("Frames waiting in a session's outbound queue")
+                        .baseUnit("frames")
+                        .register(meterRegistry),
+                Counter.builder("chat.websocket.outbound.dropped")
+                        .description("Frames dropped by the DROP_OLDEST overflow policy")
+                        .register(meterRegistry),
+                disconnects(meterRegistry, "overflow"),
+                disconnects(meterRegistry, "send_timeout"),
+                disconnects(meterRegistry, "send_error"),
+                slowConsumers(meterRegistry, "slow"),
+                slowConsumers(meterRegistry, "demoted"),
+                Counter.builder("chat.websocket.outbound.suppressed")
+                        .description("Frames not sent to a demoted slow consumer")
+                        .register(meterRegistry),
+                disconnects(meterRegistry, "slow_consumer"));
+    }
+
+    public OutboundSession create(WebSocketSession session) {
+        return new OutboundSession(session, codec, compressionReport, writer,
+                properties.getBufferSizeLimit(),
+                properties.getSendTimeLimit().toMillis(),
+                properties.getSlowConsumer(),
+                meters, clock);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * 가상 스레드 모드에서는 drain 작업마다 가상 스레드를 하나씩 쓴다.
+     * 세션당 drain은 한 번에 하나만 돌기 때문에 전송 순서는 그대로 유지되고,
+     * 블로킹 전송이 플랫폼 스레드를 붙잡지 않으므로 writer-threads 상한이 필요 없다.
+     */
+    private static ExecutorService writerExecutor(WebSocketOutboundProperties properties, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-writer-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(properties.getWriterThreads(), new CustomizableThreadFactory("ws-writer-"));
+    }
+
+    private static Counter slowConsumers(MeterRegistry meterRegistry, String state) {
+        return Counter.builder("chat.websocket.outbound.slow")
+                .description("Sessions whose send latency stayed above the slow-consumer threshold")
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+
+    private static Counter disconnects(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("chat.websocket.outbound.disconnects")
+                .description("Sessions closed by the outbound writer")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
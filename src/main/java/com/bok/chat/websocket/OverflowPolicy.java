@@ -0,0 +1,23 @@
+package com.bok.chat.websocket;
+
+/**
+ * 세션 아웃바운드 버퍼가 가득 찼을 때의 처리 방식.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 가장 오래된 프레임부터 버린다.
+     * 최신 상태만 의미가 있는 presence 알림용.
+     */
+    DROP_OLDEST,
+
+    /**
+     * 세션을 끊는다.
+     * 유실되면 안 되는 채팅 프레임용 — 재연결 시 밀린 메시지로 복구된다.
+     */
+    DISCONNECT;
+
+    public static OverflowPolicy of(MessageType type) {
+        return type == MessageType.USER_STATUS ? DROP_OLDEST : DISCONNECT;
+    }
+}
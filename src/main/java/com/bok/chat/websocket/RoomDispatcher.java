@@ -0,0 +1,104 @@
+package com.bok.chat.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * chatRoomId 기준으로 작업을 직렬화하는 디스패처.
+ * 방을 고정된 수의 단일 소비자 레인에 해시로 배정해서, 같은 방의 저장과 브로드캐스트는 도착 순서대로 처리되고
+ * 서로 다른 방은 여러 레인에서 병렬로 처리된다.
+ *
+ * 레인은 단일 스레드이고 작업에 DB 트랜잭션이 들어 있으므로, 느린 방 하나가 같은 레인에 해시된 다른 방을 붙잡는다(head-of-line).
+ * 방별 순서를 지키는 대가이며, 레인 수를 DB 커넥션 풀보다 넉넉하게 잡아 한 레인에 몰리는 방 수를 줄인다.
+ * 작업이 레인에서 기다린 시간을 chat.room.dispatcher.wait으로 기록하므로 이 지연이 커지면 레인 수를 늘린다.
+ *
+ * 레인이 가득 차면 false를 반환한다. 예외를 컨테이너 I/O 스레드로 던지지 않고, 호출한 쪽이 요청한 세션에 busy 응답을 보낸다.
+ * 작업 예외는 호출한 쪽이 감싸서 처리하고, 여기서는 레인이 멈추지 않도록 남은 예외만 로그로 남긴다.
+ */
+@Slf4j
+@Component
+public class RoomDispatcher {
+
+    private final ThreadPoolExecutor[] lanes;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    @Autowired
+    public RoomDispatcher(RoomDispatcherProperties properties, MeterRegistry meterRegistry, Environment environment) {
+        this(properties.getLanes(), properties.getQueueCapacity(), laneThreadFactory(environment), meterRegistry);
+    }
+
+    RoomDispatcher(int laneCount, int queueCapacity, ThreadFactory threadFactory, MeterRegistry meterRegistry) {
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        this.waitTimer = Timer.builder("chat.room.dispatcher.wait")
+                .description("Time a room task waited in its lane before running (head-of-line delay)")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("chat.room.dispatcher.rejected")
+                .description("Room tasks rejected because their lane queue was full")
+                .register(meterRegistry);
+        for (int i = 0; i < laneCount; i++) {
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), threadFactory);
+            Gauge.builder("chat.room.dispatcher.queue.depth", lane, l -> l.getQueue().size())
+                    .description("Tasks waiting in a room dispatcher lane")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+            lanes[i] = lane;
+        }
+    }
+
+    /**
+     * @return 레인에 넣었으면 true, 레인이 가득 찼거나 종료 중이면 false
+     */
+    public boolean execute(Long chatRoomId, Runnable task) {
+        long submittedAt = System.nanoTime();
+        try {
+            lanes[laneOf(chatRoomId)].execute(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Room task failed: chatRoomId={}", chatRoomId, e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Room dispatcher lane is full: chatRoomId={}, lane={}", chatRoomId, laneOf(chatRoomId));
+            return false;
+        }
+    }
+
+    int laneOf(Long chatRoomId) {
+        return Math.floorMod(Long.hashCode(chatRoomId), lanes.length);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private static ThreadFactory laneThreadFactory(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Thread.ofVirtual().name("room-lane-", 0).factory();
+        }
+        return new CustomizableThreadFactory("room-lane-");
+    }
+}
@@ -0,0 +1,24 @@
+package com.bok.chat.websocket;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.websocket.dispatcher")
+public class RoomDispatcherProperties {
+
+    /**
+     * 방별 작업을 나눠 담는 레인 수. 같은 방은 항상 같은 레인에서 순서대로 처리된다.
+     * 레인 작업은 DB 트랜잭션을 포함해 느린 방이 같은 레인의 다른 방을 기다리게 하므로 코어 수와 DB 풀보다 넉넉하게 잡는다.
+     */
+    private int lanes = 64;
+
+    /**
+     * 레인당 대기 가능한 최대 작업 수. 초과하면 요청을 처리하지 않고 보낸 세션에 busy error 프레임을 보낸다.
+     */
+    private int queueCapacity = 10_000;
+}
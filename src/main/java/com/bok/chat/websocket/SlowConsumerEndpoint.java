@@ -0,0 +1,44 @@
+package com.bok.chat.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 이 노드에서 전송 지연이 가장 큰 세션 목록 (/actuator/wsslowconsumers?limit=20).
+ */
+@Component
+@Endpoint(id = "wsslowconsumers")
+@RequiredArgsConstructor
+public class SlowConsumerEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final WebSocketSessionManager sessionManager;
+
+    @ReadOperation
+    public List<SessionView> worst(@Nullable Integer limit) {
+        List<SessionView> views = new ArrayList<>();
+        sessionManager.forEachSession((userId, session) -> views.add(SessionView.of(userId, session)));
+        return views.stream()
+                .sorted(Comparator.comparingDouble(SessionView::sendLatencyMillis).reversed())
+                .limit(limit != null ? limit : DEFAULT_LIMIT)
+                .toList();
+    }
+
+    public record SessionView(Long userId, String sessionId, double sendLatencyMillis,
+                              OutboundSession.SlowState state, long slowForMillis, int queueDepth) {
+
+        static SessionView of(Long userId, OutboundSession session) {
+            return new SessionView(userId, session.getDelegate().getId(),
+                    session.getSendLatencyNanos() / 1_000_000.0, session.getSlowState(),
+                    session.getSlowForNanos() / 1_000_000, session.getQueueDepth());
+        }
+    }
+}
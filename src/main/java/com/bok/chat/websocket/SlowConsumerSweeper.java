@@ -0,0 +1,21 @@
+package com.bok.chat.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 강등된 세션은 개별 프레임을 보내지 않아 전송 시간으로 상태가 바뀌지 않는다.
+ * 클라이언트가 sync를 보내지 않으면 메시지를 조용히 잃은 채 연결만 남으므로 주기적으로 closeAfter를 확인한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlowConsumerSweeper {
+
+    private final WebSocketSessionManager sessionManager;
+
+    @Scheduled(fixedDelayString = "${chat.websocket.outbound.slow-consumer.sweep-interval:5s}")
+    public void sweep() {
+        sessionManager.forEachSession((userId, session) -> session.checkSlowConsumer());
+    }
+}
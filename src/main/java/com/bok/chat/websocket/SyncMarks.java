@@ -0,0 +1,33 @@
+package com.bok.chat.websocket;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 재연결 시 클라이언트가 보내는 방별 마지막 수신 메시지 ID (high-water mark).
+ * 핸드셰이크 쿼리 파라미터 형식: resume=chatRoomId:messageId,chatRoomId:messageId
+ */
+final class SyncMarks {
+
+    static final String PARAM = "resume";
+    static final String ATTRIBUTE = "resumeMarks";
+
+    private SyncMarks() {
+    }
+
+    static Map<Long, Long> parse(String value) {
+        Map<Long, Long> marks = new HashMap<>();
+        if (value == null || value.isBlank()) {
+            return marks;
+        }
+        for (String pair : value.split(",")) {
+            int separator = pair.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid resume mark: " + pair);
+            }
+            marks.put(Long.valueOf(pair.substring(0, separator).trim()),
+                    Long.valueOf(pair.substring(separator + 1).trim()));
+        }
+        return marks;
+    }
+}
@@ -0,0 +1,42 @@
+package com.bok.chat.websocket;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 락 없는 토큰 버킷. GCRA(Generic Cell Rate Algorithm) 방식으로
+ * "다음 토큰이 생기는 이론적 시각(tat)" 하나만 AtomicLong에 두고 CAS로 갱신한다.
+ *
+ * 초당 rate개씩 채워지고 최대 burst개까지 몰아서 쓸 수 있는 버킷과 같다.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstWindowNanos;
+    private final LongSupplier clock;
+    private final AtomicLong tat;
+
+    TokenBucket(double ratePerSecond, int burst, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstWindowNanos = emissionIntervalNanos * burst;
+        this.clock = clock;
+        this.tat = new AtomicLong(clock.getAsLong());
+    }
+
+    boolean tryAcquire() {
+        long now = clock.getAsLong();
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            if (next - now > burstWindowNanos) {
+                return false;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bok.chat.websocket;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.websocket.compression")
+public class WebSocketCompressionProperties {
+
+    /**
+     * 클라이언트가 요청하면 permessage-deflate를 협상할지 여부.
+     */
+    private boolean enabled = true;
+
+    /**
+     * 압축 리포트가 작은 프레임과 큰 프레임의 압축률/CPU 비용을 나눠 집계하는 기준 크기(바이트).
+     * 리포트 집계에만 쓰인다. Tomcat의 permessage-deflate는 크기 기준을 지원하지 않아
+     * 협상된 연결에서는 이보다 작은 프레임도 모두 압축한다.
+     */
+    private int reportSmallFrameThreshold = 256;
+
+    /**
+     * 압축 리포트를 위해 샘플링할 아웃바운드 프레임 비율 (0 이면 샘플링하지 않는다).
+     */
+    private double sampleRate = 0.01;
+}
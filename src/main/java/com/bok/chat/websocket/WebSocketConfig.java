@@ -13,10 +13,12 @@ public class WebSocketConfig implements WebSocketConfigurer {
 
     private final ChatWebSocketHandler chatWebSocketHandler;
     private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final CompressionHandshakeHandler compressionHandshakeHandler;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(chatWebSocketHandler, "/ws")
+                .setHandshakeHandler(compressionHandshakeHandler)
                 .addInterceptors(jwtHandshakeInterceptor)
                 .setAllowedOrigins("*");
     }
@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Getter
 @NoArgsConstructor
@@ -27,6 +28,11 @@ public class WebSocketMessage {
     private String originalFilename;
     private String contentType;
     private Long fileSize;
+    private List<WebSocketMessage> messages;
+    private Boolean hasMore;
+    private Map<Long, Long> lastSeen;
+    private String error;
+    private Long reconnectAfterMs;
 
     private WebSocketMessage(MessageType type, Long chatRoomId, Long senderId,
                              String senderName, String content, Long messageId,
@@ -85,6 +91,48 @@ public class WebSocketMessage {
         return msg;
     }
 
+    /**
+     * 한 방의 밀린 메시지를 프레임 하나로 묶는다.
+     * 항목의 type/chatRoomId는 바깥 프레임과 같으므로 빼고, hasMore면 나머지는 클라이언트가 히스토리 API로 가져간다.
+     */
+    public static WebSocketMessage messagesBatch(Long chatRoomId, List<WebSocketMessage> messages, boolean hasMore) {
+        WebSocketMessage msg = new WebSocketMessage(MessageType.MESSAGES_BATCH, chatRoomId,
+                null, null, null, null, null, null);
+        msg.messages = messages.stream().map(WebSocketMessage::withoutEnvelope).toList();
+        msg.hasMore = hasMore;
+        return msg;
+    }
+
+    /**
+     * 클라이언트 명령을 처리하지 않았을 때 돌려주는 프레임. content에는 거부된 명령 타입을 담는다.
+     */
+    public static WebSocketMessage error(String error, MessageType rejected, Long chatRoomId) {
+        WebSocketMessage msg = new WebSocketMessage(MessageType.ERROR, chatRoomId,
+                null, null, rejected.getValue(), null, null, null);
+        msg.error = error;
+        return msg;
+    }
+
+    /**
+     * 이 노드가 내려간다. 클라이언트는 reconnectAfterMs 뒤에 다른 노드로 다시 접속한다.
+     */
+    public static WebSocketMessage serverDraining(long reconnectAfterMs) {
+        WebSocketMessage msg = new WebSocketMessage(MessageType.SERVER_DRAINING, null,
+                null, null, null, null, null, null);
+        msg.reconnectAfterMs = reconnectAfterMs;
+        return msg;
+    }
+
+    private WebSocketMessage withoutEnvelope() {
+        WebSocketMessage item = new WebSocketMessage(null, null, senderId, senderName,
+                content, messageId, unreadCount, online);
+        item.fileId = fileId;
+        item.originalFilename = originalFilename;
+        item.contentType = contentType;
+        item.fileSize = fileSize;
+        return item;
+    }
+
     @JsonIgnore
     public boolean isFileMessage() {
         return fileId != null;
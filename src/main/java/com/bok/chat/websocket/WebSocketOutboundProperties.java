@@ -0,0 +1,74 @@
+package com.bok.chat.websocket;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("chat.websocket.outbound")
+public class WebSocketOutboundProperties {
+
+    /**
+     * 세션당 전송 대기 중인 프레임의 최대 바이트 수.
+     */
+    private int bufferSizeLimit = 512 * 1024;
+
+    /**
+     * 프레임 하나를 보내는 데 허용하는 최대 시간. 초과하면 세션을 끊는다.
+     */
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+
+    /**
+     * 세션 큐를 비우는 writer 스레드 수. 가상 스레드 모드(spring.threads.virtual.enabled)에서는 쓰지 않는다.
+     */
+    private int writerThreads = 16;
+
+    /**
+     * catch-up 때 방마다 보내는 밀린 메시지 최대 개수. 나머지는 클라이언트가 히스토리 API로 가져간다.
+     */
+    private int pendingPerRoomLimit = 20;
+
+    /**
+     * 연결 직후 서버가 먼저 밀린 메시지를 보낸다. 끄면(기본) 클라이언트가 sync를 보낼 때 catch-up한다.
+     * sync를 보내지 않는 구버전 클라이언트를 지원해야 할 때만 켠다.
+     */
+    private boolean catchUpOnConnect = false;
+
+    private SlowConsumer slowConsumer = new SlowConsumer();
+
+    /**
+     * 프레임 전송이 연속으로 threshold를 넘는 세션 처리.
+     * 느린 전송이 demoteAfter 동안 이어지면 개별 프레임 대신 sync.required 하나만 보내고,
+     * closeAfter 동안 이어지면(강등된 채 sync를 보내지 않는 경우 포함) 4008로 끊어 재연결 후 resume으로 따라잡게 한다.
+     */
+    @Getter
+    @Setter
+    public static class SlowConsumer {
+
+        private boolean enabled = true;
+
+        /**
+         * 프레임 하나의 전송 시간이 이 값 이상이면 느린 전송으로 센다.
+         */
+        private Duration threshold = Duration.ofMillis(250);
+
+        private Duration demoteAfter = Duration.ofSeconds(10);
+
+        private Duration closeAfter = Duration.ofSeconds(60);
+
+        /**
+         * 이 시간 이상 보낼 프레임이 없었으면 느린 구간과 EWMA를 초기화한다.
+         */
+        private Duration idleReset = Duration.ofSeconds(5);
+
+        /**
+         * 강등된 세션의 closeAfter와 유휴 초기화를 확인하는 주기.
+         */
+        private Duration sweepInterval = Duration.ofSeconds(5);
+    }
+}
@@ -1,30 +1,100 @@
 package com.bok.chat.websocket;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
+/**
+ * userId → 세션 목록 (폰, 데스크톱, 웹 등 기기별 세션).
+ * 값은 불변 리스트로, 추가/제거 시 compute 안에서 새 리스트로 교체한다.
+ * 유저당 기기 수는 몇 개로 한정되므로 교체 비용은 상수이고, fan-out 쪽은 락 없이 스냅샷을 순회한다.
+ * 대부분의 유저는 세션이 하나라 List.of(e)의 작은 인스턴스 하나만 차지한다.
+ */
 @Component
+@RequiredArgsConstructor
 public class WebSocketSessionManager {
 
-    private final Map<Long, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final OutboundSessionFactory outboundSessionFactory;
 
-    public void register(Long userId, WebSocketSession session) {
-        sessions.put(userId, session);
+    private final Map<Long, List<OutboundSession>> sessions = new ConcurrentHashMap<>();
+
+    public OutboundSession register(Long userId, WebSocketSession session) {
+        OutboundSession outbound = outboundSessionFactory.create(session);
+        sessions.compute(userId, (id, current) -> current == null ? List.of(outbound) : append(current, outbound));
+        return outbound;
     }
 
+    /**
+     * 세션을 제거한다.
+     * @return 유저의 마지막 세션이 제거되었으면 true (이때만 오프라인으로 전환한다)
+     */
     public boolean remove(Long userId, WebSocketSession session) {
-        return sessions.remove(userId, session);
+        boolean[] lastSessionRemoved = {false};
+        sessions.computeIfPresent(userId, (id, current) -> {
+            List<OutboundSession> remaining = without(current, session);
+            if (remaining.isEmpty()) {
+                lastSessionRemoved[0] = true;
+                return null;
+            }
+            return remaining;
+        });
+        return lastSessionRemoved[0];
+    }
+
+    public List<OutboundSession> getSessions(Long userId) {
+        return sessions.getOrDefault(userId, List.of());
     }
 
-    public WebSocketSession getSession(Long userId) {
-        return sessions.get(userId);
+    public Optional<OutboundSession> getSession(Long userId, WebSocketSession session) {
+        for (OutboundSession outbound : getSessions(userId)) {
+            if (outbound.getDelegate() == session) {
+                return Optional.of(outbound);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void forEachSession(BiConsumer<Long, OutboundSession> action) {
+        sessions.forEach((userId, list) -> list.forEach(session -> action.accept(userId, session)));
+    }
+
+    /**
+     * 이 노드에 세션이 하나 이상 있는 유저 수.
+     */
+    public int userCount() {
+        return sessions.size();
     }
 
     public boolean isOnline(Long userId) {
-        WebSocketSession session = sessions.get(userId);
-        return session != null && session.isOpen();
+        for (OutboundSession session : getSessions(userId)) {
+            if (session.isOpen()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<OutboundSession> append(List<OutboundSession> current, OutboundSession added) {
+        List<OutboundSession> next = new ArrayList<>(current.size() + 1);
+        next.addAll(current);
+        next.add(added);
+        return List.copyOf(next);
+    }
+
+    private static List<OutboundSession> without(List<OutboundSession> current, WebSocketSession removed) {
+        List<OutboundSession> next = new ArrayList<>(current.size());
+        for (OutboundSession session : current) {
+            if (session.getDelegate() != removed) {
+                next.add(session);
+            }
+        }
+        return next.size() == current.size() ? current : List.copyOf(next);
     }
 }
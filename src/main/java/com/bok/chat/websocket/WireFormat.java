@@ -0,0 +1,31 @@
+package com.bok.chat.websocket;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 핸드셰이크의 Sec-WebSocket-Protocol로 협상하는 프레임 인코딩.
+ * 클라이언트가 서브프로토콜을 요청하지 않으면 기존과 같이 JSON 텍스트 프레임을 쓴다.
+ */
+public enum WireFormat {
+    JSON("chat.json.v1"),
+    CBOR("chat.cbor.v1");
+
+    private final String subprotocol;
+
+    WireFormat(String subprotocol) {
+        this.subprotocol = subprotocol;
+    }
+
+    public String getSubprotocol() {
+        return subprotocol;
+    }
+
+    public static WireFormat of(String acceptedProtocol) {
+        return CBOR.subprotocol.equals(acceptedProtocol) ? CBOR : JSON;
+    }
+
+    public static List<String> subprotocols() {
+        return Arrays.stream(values()).map(WireFormat::getSubprotocol).toList();
+    }
+}
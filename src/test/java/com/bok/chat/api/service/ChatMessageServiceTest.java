@@ -23,6 +23,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.bok.chat.support.TestFixtures.*;
@@ -30,6 +31,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @DisplayName("ChatMessageService")
@@ -59,63 +61,79 @@ class ChatMessageServiceTest {
     class GetUndeliveredMessages {
 
         @Test
-        @DisplayName("안 읽은 메시지가 있는 채팅방의 메시지를 반환한다")
-        void getUndeliveredMessages_shouldReturnUnreadMessages() {
-            ChatRoom chatRoom = createChatRoom(1L, 2);
-            User user = createUser(1L, "user1");
+        @DisplayName("모든 방의 밀린 메시지를 한 번에 조회해 방별로 오래된 순으로 묶는다")
+        void getUndeliveredMessages_shouldGroupByRoom() {
+            ChatRoom room1 = createChatRoom(1L, 2);
+            ChatRoom room2 = createChatRoom(2L, 2);
             User sender = createUser(2L, "sender");
-            ChatRoomUser chatRoomUser = createChatRoomUser(1L, chatRoom, user);
-            Message msg = createMessage(10L, chatRoom, sender, "hello", 2);
+            Message msg10 = createMessage(10L, room1, sender, "a", 2);
+            Message msg11 = createMessage(11L, room2, sender, "b", 2);
+            Message msg12 = createMessage(12L, room1, sender, "c", 2);
 
-            given(chatRoomUserRepository.findByUserIdAndStatus(1L, ChatRoomUser.Status.ACTIVE))
-                    .willReturn(List.of(chatRoomUser));
-            given(messageRepository.findUnreadMessages(1L, 0L))
-                    .willReturn(List.of(msg));
+            given(messageRepository.findLatestMessageIdsAfter(1L, new Long[0], new Long[0], 21))
+                    .willReturn(List.of(12L, 11L, 10L));
+            given(messageRepository.findAllByIdWithSenderAndFile(List.of(12L, 11L, 10L)))
+                    .willReturn(List.of(msg12, msg11, msg10));
 
-            var result = chatMessageService.getUndeliveredMessages(1L);
+            var result = chatMessageService.getUndeliveredMessages(1L, 20);
 
-            assertThat(result).hasSize(1);
+            assertThat(result).hasSize(2);
             assertThat(result.get(0).chatRoomId()).isEqualTo(1L);
-            assertThat(result.get(0).messages()).containsExactly(msg);
+            assertThat(result.get(0).messages()).containsExactly(msg10, msg12);
+            assertThat(result.get(0).hasMore()).isFalse();
+            assertThat(result.get(1).chatRoomId()).isEqualTo(2L);
+            assertThat(result.get(1).messages()).containsExactly(msg11);
         }
 
         @Test
-        @DisplayName("안 읽은 메시지가 없는 채팅방은 필터링된다")
-        void getUndeliveredMessages_emptyRoom_shouldBeFiltered() {
-            ChatRoom chatRoom = createChatRoom(1L, 2);
-            User user = createUser(1L, "user1");
-            ChatRoomUser chatRoomUser = createChatRoomUser(1L, chatRoom, user);
+        @DisplayName("방의 밀린 메시지가 limit를 넘으면 최신 limit개만 담고 hasMore를 표시한다")
+        void getUndeliveredMessages_overLimit_marksHasMore() {
+            ChatRoom room = createChatRoom(1L, 2);
+            User sender = createUser(2L, "sender");
+            Message msg10 = createMessage(10L, room, sender, "a", 2);
+            Message msg11 = createMessage(11L, room, sender, "b", 2);
+            Message msg12 = createMessage(12L, room, sender, "c", 2);
 
-            given(chatRoomUserRepository.findByUserIdAndStatus(1L, ChatRoomUser.Status.ACTIVE))
-                    .willReturn(List.of(chatRoomUser));
-            given(messageRepository.findUnreadMessages(1L, 0L))
-                    .willReturn(List.of());
+            given(messageRepository.findLatestMessageIdsAfter(1L, new Long[0], new Long[0], 3))
+                    .willReturn(List.of(12L, 11L, 10L));
+            given(messageRepository.findAllByIdWithSenderAndFile(List.of(12L, 11L, 10L)))
+                    .willReturn(List.of(msg12, msg11, msg10));
 
-            var result = chatMessageService.getUndeliveredMessages(1L);
+            var result = chatMessageService.getUndeliveredMessages(1L, 2);
 
-            assertThat(result).isEmpty();
+            assertThat(result).hasSize(1);
+            assertThat(result.get(0).messages()).containsExactly(msg11, msg12);
+            assertThat(result.get(0).hasMore()).isTrue();
         }
 
         @Test
-        @DisplayName("lastReadMessageId가 있으면 해당 ID 이후의 메시지만 조회한다")
-        void getUndeliveredMessages_withLastRead_shouldUseLastReadId() {
-            ChatRoom chatRoom = createChatRoom(1L, 2);
-            User user = createUser(1L, "user1");
+        @DisplayName("재연결 시 클라이언트가 보낸 방별 마지막 수신 ID를 기준으로 delta만 조회한다")
+        void getMessagesAfter_usesClientMarks() {
+            ChatRoom room = createChatRoom(1L, 2);
             User sender = createUser(2L, "sender");
-            ChatRoomUser chatRoomUser = createChatRoomUser(1L, chatRoom, user);
-            chatRoomUser.updateLastReadMessageId(5L);
-            Message msg = createMessage(10L, chatRoom, sender, "new msg", 2);
+            Message msg12 = createMessage(12L, room, sender, "c", 2);
 
-            given(chatRoomUserRepository.findByUserIdAndStatus(1L, ChatRoomUser.Status.ACTIVE))
-                    .willReturn(List.of(chatRoomUser));
-            given(messageRepository.findUnreadMessages(1L, 5L))
-                    .willReturn(List.of(msg));
+            given(messageRepository.findLatestMessageIdsAfter(1L, new Long[]{1L}, new Long[]{11L}, 21))
+                    .willReturn(List.of(12L));
+            given(messageRepository.findAllByIdWithSenderAndFile(List.of(12L)))
+                    .willReturn(List.of(msg12));
 
-            var result = chatMessageService.getUndeliveredMessages(1L);
+            var result = chatMessageService.getMessagesAfter(1L, Map.of(1L, 11L), 20);
 
             assertThat(result).hasSize(1);
-            assertThat(result.get(0).messages()).containsExactly(msg);
-            verify(messageRepository).findUnreadMessages(1L, 5L);
+            assertThat(result.get(0).messages()).containsExactly(msg12);
+            assertThat(result.get(0).hasMore()).isFalse();
+        }
+
+        @Test
+        @DisplayName("밀린 메시지가 없으면 본문을 조회하지 않는다")
+        void getUndeliveredMessages_nothingPending() {
+            given(messageRepository.findLatestMessageIdsAfter(1L, new Long[0], new Long[0], 21)).willReturn(List.of());
+
+            var result = chatMessageService.getUndeliveredMessages(1L, 20);
+
+            assertThat(result).isEmpty();
+            verify(messageRepository, never()).findAllByIdWithSenderAndFile(any());
         }
     }
 
@@ -8,6 +8,8 @@ import com.bok.chat.entity.ChatRoom;
 import com.bok.chat.entity.ChatRoomUser;
 import com.bok.chat.entity.Message;
 import com.bok.chat.entity.User;
+import com.bok.chat.event.ChatRoomMembersJoinedEvent;
+import com.bok.chat.event.MembershipChangedEvent;
 import com.bok.chat.repository.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -50,6 +53,9 @@ class ChatRoomServiceTest {
     @Mock
     private MessageRepository messageRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Test
     @DisplayName("1:1 채팅방 생성 시 DIRECT 타입으로 생성된다")
     void create_dm_shouldReturnDirectChatRoom() {
@@ -89,6 +95,7 @@ class ChatRoomServiceTest {
         ChatRoomResponse response = chatRoomService.create(1L, request);
 
         assertThat(response.type()).isEqualTo(ChatRoom.ChatRoomType.GROUP);
+        verify(eventPublisher).publishEvent(new ChatRoomMembersJoinedEvent(1L, List.of(2L, 3L, 1L), 3));
     }
 
     @Test
@@ -166,6 +173,7 @@ class ChatRoomServiceTest {
             assertThat(result.invitedUserIds()).containsExactly(3L);
             assertThat(result.systemMessage()).isNotNull();
             assertThat(result.systemMessage().getContent()).contains("newbie");
+            verify(eventPublisher).publishEvent(new ChatRoomMembersJoinedEvent(1L, List.of(3L), 2));
         }
 
         @Test
@@ -273,6 +281,7 @@ class ChatRoomServiceTest {
             assertThat(result.systemMessage()).isNotNull();
             assertThat(result.systemMessage().getContent()).contains("alice");
             assertThat(result.remainingMembers()).hasSize(1);
+            verify(eventPublisher).publishEvent(new MembershipChangedEvent(List.of(1L)));
         }
 
         @Test
@@ -3,6 +3,8 @@ package com.bok.chat.api.service;
 import com.bok.chat.api.dto.FriendResponse;
 import com.bok.chat.entity.Friendship;
 import com.bok.chat.entity.User;
+import com.bok.chat.event.MembershipChangedEvent;
+import com.bok.chat.redis.MembershipCache;
 import com.bok.chat.redis.OnlineStatusService;
 import com.bok.chat.repository.FriendshipRepository;
 import com.bok.chat.repository.UserRepository;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -39,8 +42,14 @@ class FriendServiceTest {
     @Mock
     private OnlineStatusService onlineStatusService;
 
+    @Mock
+    private MembershipCache membershipCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Test
-    @DisplayName("친구 추가 성공 시 Friendship이 저장된다")
+    @DisplayName("친구 추가 성공 시 Friendship이 저장되고 두 유저의 친구 목록 캐시 무효화 이벤트를 발행한다")
     void addFriend_shouldSaveFriendship() {
         User user = createUser(1L, "user1");
         User friend = createUser(2L, "user2");
@@ -52,6 +61,7 @@ class FriendServiceTest {
         friendService.addFriend(1L, "user2");
 
         verify(friendshipRepository).save(any(Friendship.class));
+        verify(eventPublisher).publishEvent(new MembershipChangedEvent(List.of(1L, 2L)));
     }
 
     @Test
@@ -124,13 +134,9 @@ class FriendServiceTest {
     }
 
     @Test
-    @DisplayName("친구 ID 목록을 반환한다")
+    @DisplayName("친구 ID 목록은 MembershipCache에서 읽는다")
     void getFriendIds_shouldReturnIds() {
-        User user = createUser(1L, "user1");
-        User friend = createUser(2L, "user2");
-        Friendship friendship = createFriendship(1L, user, friend);
-
-        given(friendshipRepository.findAllByUserId(1L)).willReturn(List.of(friendship));
+        given(membershipCache.friendIds(1L)).willReturn(List.of(2L));
 
         List<Long> friendIds = friendService.getFriendIds(1L);
 
@@ -21,6 +21,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @DisplayName("UserService")
 @ExtendWith(MockitoExtension.class)
@@ -82,6 +84,37 @@ class UserServiceTest {
         assertThat(response.username()).isEqualTo("testuser");
     }
 
+    @Test
+    @DisplayName("저장된 해시가 설정된 BCrypt 강도보다 약하면 로그인 성공 시 새 강도로 다시 저장한다")
+    void login_weakHash_upgradesPassword() {
+        LoginRequest request = new LoginRequest("testuser", "password");
+        User user = createUser(1L, "testuser");
+        String oldHash = user.getPassword();
+
+        given(userRepository.findByUsername("testuser")).willReturn(Optional.of(user));
+        given(passwordEncoder.matches("password", oldHash)).willReturn(true);
+        given(passwordEncoder.upgradeEncoding(oldHash)).willReturn(true);
+        given(passwordEncoder.encode("password")).willReturn("stronger-hash");
+
+        userService.login(request);
+
+        assertThat(user.getPassword()).isEqualTo("stronger-hash");
+    }
+
+    @Test
+    @DisplayName("해시 강도가 충분하면 비밀번호를 다시 인코딩하지 않는다")
+    void login_currentHash_keepsPassword() {
+        LoginRequest request = new LoginRequest("testuser", "password");
+        User user = createUser(1L, "testuser");
+
+        given(userRepository.findByUsername("testuser")).willReturn(Optional.of(user));
+        given(passwordEncoder.matches("password", user.getPassword())).willReturn(true);
+
+        userService.login(request);
+
+        verify(passwordEncoder, never()).encode("password");
+    }
+
     @Test
     @DisplayName("비밀번호가 틀리면 예외가 발생한다")
     void login_wrongPassword_shouldThrow() {
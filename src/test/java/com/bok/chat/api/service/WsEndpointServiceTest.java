@@ -0,0 +1,82 @@
+package com.bok.chat.api.service;
+
+import com.bok.chat.api.dto.WsEndpointResponse;
+import com.bok.chat.entity.ChatRoomUser;
+import com.bok.chat.redis.PlacementProperties;
+import com.bok.chat.redis.ServerRegistry;
+import com.bok.chat.repository.ChatRoomUserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DisplayName("WsEndpointService")
+@ExtendWith(MockitoExtension.class)
+class WsEndpointServiceTest {
+
+    @InjectMocks
+    private WsEndpointService wsEndpointService;
+
+    @Spy
+    private PlacementProperties properties = new PlacementProperties();
+
+    @Mock
+    private ServerRegistry serverRegistry;
+
+    @Mock
+    private ChatRoomUserRepository chatRoomUserRepository;
+
+    @Test
+    @DisplayName("ROOM_AFFINITY면 멤버가 가장 많은 방을 키로 접속 노드를 고른다")
+    void roomAffinity_usesLargestRoom() {
+        properties.setEnabled(true);
+        given(chatRoomUserRepository.findLargestChatRoomIds(eq(1L), eq(ChatRoomUser.Status.ACTIVE), any()))
+                .willReturn(List.of(10L));
+        given(serverRegistry.serverFor("room:10")).willReturn("server-b");
+        given(serverRegistry.endpointOf("server-b")).willReturn("ws://chat-b/ws");
+
+        assertThat(wsEndpointService.resolve(1L))
+                .contains(new WsEndpointResponse("server-b", "ws://chat-b/ws"));
+    }
+
+    @Test
+    @DisplayName("속한 방이 없으면 유저 ID를 키로 쓴다")
+    void noRooms_fallsBackToUserKey() {
+        given(chatRoomUserRepository.findLargestChatRoomIds(eq(1L), eq(ChatRoomUser.Status.ACTIVE), any()))
+                .willReturn(List.of());
+
+        assertThat(wsEndpointService.placementKey(1L)).isEqualTo("user:1");
+    }
+
+    @Test
+    @DisplayName("USER_HASH면 방을 조회하지 않고 유저 ID를 키로 쓴다")
+    void userHash_skipsRoomLookup() {
+        properties.setStrategy(PlacementProperties.Strategy.USER_HASH);
+
+        assertThat(wsEndpointService.placementKey(1L)).isEqualTo("user:1");
+        verifyNoInteractions(chatRoomUserRepository);
+    }
+
+    @Test
+    @DisplayName("배치가 꺼져 있거나 살아 있는 서버가 없으면 비어 있다")
+    void disabledOrNoServers_empty() {
+        assertThat(wsEndpointService.resolve(1L)).isEmpty();
+
+        properties.setEnabled(true);
+        properties.setStrategy(PlacementProperties.Strategy.USER_HASH);
+        given(serverRegistry.serverFor("user:1")).willReturn(null);
+
+        assertThat(wsEndpointService.resolve(1L)).isEmpty();
+    }
+}
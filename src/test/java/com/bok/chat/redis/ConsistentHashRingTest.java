@@ -0,0 +1,74 @@
+package com.bok.chat.redis;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ConsistentHashRing")
+class ConsistentHashRingTest {
+
+    private static final List<String> SERVERS = List.of("server-a", "server-b", "server-c", "server-d");
+
+    @Test
+    @DisplayName("서버 목록이 같으면 입력 순서와 무관하게 같은 키는 같은 서버로 간다")
+    void sameServers_sameAssignment() {
+        ConsistentHashRing ring = ConsistentHashRing.of(SERVERS, 160);
+        ConsistentHashRing reordered = ConsistentHashRing.of(List.of("server-d", "server-b", "server-a", "server-c"), 160);
+
+        IntStream.range(0, 1_000).mapToObj(i -> "room:" + i)
+                .forEach(key -> assertThat(reordered.nodeFor(key)).isEqualTo(ring.nodeFor(key)));
+    }
+
+    @Test
+    @DisplayName("서버 하나가 빠지면 그 서버에 있던 키만 옮겨진다")
+    void serverRemoved_onlyItsKeysMove() {
+        ConsistentHashRing before = ConsistentHashRing.of(SERVERS, 160);
+        ConsistentHashRing after = ConsistentHashRing.of(List.of("server-a", "server-b", "server-c"), 160);
+
+        IntStream.range(0, 10_000).mapToObj(i -> "user:" + i).forEach(key -> {
+            if (!before.nodeFor(key).equals("server-d")) {
+                assertThat(after.nodeFor(key)).isEqualTo(before.nodeFor(key));
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("가상 노드로 키가 서버마다 고르게 나뉜다")
+    void keysSpreadEvenly() {
+        ConsistentHashRing ring = ConsistentHashRing.of(SERVERS, 160);
+        Map<String, Integer> counts = new HashMap<>();
+
+        IntStream.range(0, 40_000).forEach(i -> counts.merge(ring.nodeFor("user:" + i), 1, Integer::sum));
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(8_000, 12_000));
+    }
+
+    @Test
+    @DisplayName("부하 상한으로 건너뛰면 키마다 정해진 다음 서버로 가고, 모두 넘치면 원래 서버로 간다")
+    void bounded_skipsToNextServer() {
+        ConsistentHashRing ring = ConsistentHashRing.of(SERVERS, 160);
+        String owner = ring.nodeFor("room:1");
+
+        String fallback = ring.nodeFor("room:1", server -> !server.equals(owner));
+
+        assertThat(fallback).isNotEqualTo(owner);
+        assertThat(ring.nodeFor("room:1", server -> !server.equals(owner))).isEqualTo(fallback);
+        assertThat(ring.nodeFor("room:1", server -> false)).isEqualTo(owner);
+    }
+
+    @Test
+    @DisplayName("서버가 없으면 null을 돌려준다")
+    void empty_returnsNull() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of(), 160);
+
+        assertThat(ring.isEmpty()).isTrue();
+        assertThat(ring.nodeFor("room:1")).isNull();
+    }
+}
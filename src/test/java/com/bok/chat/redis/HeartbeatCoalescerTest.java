@@ -0,0 +1,99 @@
+package com.bok.chat.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("HeartbeatCoalescer")
+class HeartbeatCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StringRedisTemplate redisTemplate;
+    private HeartbeatCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        HeartbeatProperties properties = new HeartbeatProperties();
+        properties.setBatchSize(2);
+        coalescer = new HeartbeatCoalescer(redisTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("같은 유저의 heartbeat은 flush 한 번에 EXPIRE 하나로 합쳐지고 절약한 명령 수를 기록한다")
+    void flush_coalescesSameUser() {
+        coalescer.record(1L);
+        coalescer.record(1L);
+        coalescer.record(2L);
+
+        coalescer.flush();
+
+        ArgumentCaptor<RedisCallback<Object>> callback = captor();
+        verify(redisTemplate).executePipelined(callback.capture());
+        RedisKeyCommands keyCommands = run(callback.getValue());
+        verify(keyCommands).expire("online:1".getBytes(StandardCharsets.UTF_8), 300);
+        verify(keyCommands).expire("online:2".getBytes(StandardCharsets.UTF_8), 300);
+        assertThat(meterRegistry.counter("chat.presence.heartbeat.received").count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("chat.presence.heartbeat.commands.saved").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("batchSize를 넘으면 파이프라인을 나눠서 보낸다")
+    void flush_splitsIntoBatches() {
+        coalescer.record(1L);
+        coalescer.record(2L);
+        coalescer.record(3L);
+
+        coalescer.flush();
+
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @DisplayName("모인 heartbeat이 없으면 Redis를 호출하지 않고, flush한 항목은 다시 보내지 않는다")
+    void flush_emptyAfterDrain() {
+        coalescer.record(1L);
+        coalescer.flush();
+
+        coalescer.flush();
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @DisplayName("아무것도 기록되지 않았으면 flush는 아무 일도 하지 않는다")
+    void flush_nothingRecorded() {
+        coalescer.flush();
+
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<RedisCallback<Object>> captor() {
+        return ArgumentCaptor.forClass(RedisCallback.class);
+    }
+
+    private static RedisKeyCommands run(RedisCallback<Object> callback) {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        given(connection.keyCommands()).willReturn(keyCommands);
+        callback.doInRedis(connection);
+        return keyCommands;
+    }
+}
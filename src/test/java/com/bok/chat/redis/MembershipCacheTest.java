@@ -0,0 +1,112 @@
+package com.bok.chat.redis;
+
+import com.bok.chat.entity.ChatRoomUser;
+import com.bok.chat.event.ChatRoomMembersJoinedEvent;
+import com.bok.chat.repository.ChatRoomUserRepository;
+import com.bok.chat.repository.FriendshipRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("MembershipCache")
+class MembershipCacheTest {
+
+    private FriendshipRepository friendshipRepository;
+    private ChatRoomUserRepository chatRoomUserRepository;
+    private StringRedisTemplate redisTemplate;
+    private MembershipCache cache;
+
+    @BeforeEach
+    void setUp() {
+        friendshipRepository = mock(FriendshipRepository.class);
+        chatRoomUserRepository = mock(ChatRoomUserRepository.class);
+        redisTemplate = mock(StringRedisTemplate.class);
+        cache = new MembershipCache(friendshipRepository, chatRoomUserRepository, redisTemplate,
+                mock(RedisMessageListenerContainer.class), new MembershipCacheProperties(),
+                new SimpleMeterRegistry());
+        given(friendshipRepository.findFriendIdsByUserId(1L)).willReturn(List.of(2L, 3L));
+        given(chatRoomUserRepository.findChatRoomIdsByUserIdAndStatus(1L, ChatRoomUser.Status.ACTIVE))
+                .willReturn(List.of(10L));
+    }
+
+    @Test
+    @DisplayName("같은 유저의 친구/방 목록은 한 번만 DB에서 읽는다")
+    void loadsOnce() {
+        cache.friendIds(1L);
+        cache.roomIds(1L);
+
+        assertThat(cache.friendIds(1L)).containsExactly(2L, 3L);
+        assertThat(cache.roomIds(1L)).containsExactly(10L);
+        verify(friendshipRepository, times(1)).findFriendIdsByUserId(1L);
+        verify(chatRoomUserRepository, times(1)).findChatRoomIdsByUserIdAndStatus(1L, ChatRoomUser.Status.ACTIVE);
+    }
+
+    @Test
+    @DisplayName("방별 멤버 수는 캐시에 없는 방만 한 번에 읽고, 멤버가 없는 방은 0으로 둔다")
+    void memberCounts_loadsMissingRoomsOnce() {
+        ChatRoomUserRepository.RoomMemberCount room10 = mock(ChatRoomUserRepository.RoomMemberCount.class);
+        given(room10.getChatRoomId()).willReturn(10L);
+        given(room10.getMemberCount()).willReturn(60L);
+        given(chatRoomUserRepository.countMembersByChatRoomIds(anyCollection(), eq(ChatRoomUser.Status.ACTIVE)))
+                .willReturn(List.of(room10));
+
+        assertThat(cache.memberCounts(List.of(10L, 20L))).containsEntry(10L, 60).containsEntry(20L, 0);
+        cache.updateMemberCount(20L, 3);
+
+        assertThat(cache.memberCounts(List.of(10L, 20L))).containsEntry(10L, 60).containsEntry(20L, 3);
+        verify(chatRoomUserRepository, times(1))
+                .countMembersByChatRoomIds(anyCollection(), eq(ChatRoomUser.Status.ACTIVE));
+    }
+
+    @Test
+    @DisplayName("멤버 변경이 커밋되면 로컬 항목을 지우고 무효화 채널로 publish한다")
+    void onMembersJoined_publishesInvalidation() {
+        cache.roomIds(1L);
+
+        cache.onMembersJoined(new ChatRoomMembersJoinedEvent(10L, List.of(1L, 2L), 2));
+        cache.roomIds(1L);
+
+        verify(chatRoomUserRepository, times(2)).findChatRoomIdsByUserIdAndStatus(1L, ChatRoomUser.Status.ACTIVE);
+        verify(redisTemplate).convertAndSend(MembershipCache.INVALIDATION_CHANNEL, "1,2");
+    }
+
+    @Test
+    @DisplayName("다른 노드의 무효화 메시지를 받으면 두 목록 모두 다시 읽는다")
+    void onMessage_invalidates() {
+        cache.friendIds(1L);
+        cache.roomIds(1L);
+
+        cache.onMessage(new DefaultMessage(new byte[0], "1,5".getBytes(StandardCharsets.UTF_8)), null);
+        cache.friendIds(1L);
+        cache.roomIds(1L);
+
+        verify(friendshipRepository, times(2)).findFriendIdsByUserId(1L);
+        verify(chatRoomUserRepository, times(2)).findChatRoomIdsByUserIdAndStatus(1L, ChatRoomUser.Status.ACTIVE);
+    }
+
+    @Test
+    @DisplayName("형식이 잘못된 무효화 메시지는 무시한다")
+    void onMessage_malformed_ignored() {
+        cache.friendIds(1L);
+
+        cache.onMessage(new DefaultMessage(new byte[0], "garbage".getBytes(StandardCharsets.UTF_8)), null);
+        cache.friendIds(1L);
+
+        verify(friendshipRepository, times(1)).findFriendIdsByUserId(1L);
+    }
+}
@@ -6,14 +6,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @DisplayName("OnlineStatusService")
@@ -29,34 +40,75 @@ class OnlineStatusServiceTest {
     @Mock
     private ServerIdHolder serverIdHolder;
 
+    @Mock
+    private ServerRoutingCache routingCache;
+
+    @Mock
+    private HeartbeatCoalescer heartbeatCoalescer;
+
+    @Spy
+    private PresenceProperties presenceProperties = new PresenceProperties();
+
     @Mock
     private ValueOperations<String, String> valueOperations;
 
     @Test
-    @DisplayName("setOnline 호출 시 서버 ID와 TTL로 Redis에 저장한다")
+    @DisplayName("setOnline 호출 시 서버 ID와 TTL을 SET GET EX 한 번으로 저장하고, 서버가 바뀌었으면 라우팅 캐시를 무효화한다")
     void setOnline() {
         given(redisTemplate.opsForValue()).willReturn(valueOperations);
         given(serverIdHolder.getServerId()).willReturn("server-1");
+        given(valueOperations.setGet("online:1", "server-1", Duration.ofMinutes(5))).willReturn("server-0");
+
+        onlineStatusService.setOnline(1L);
+
+        verify(valueOperations).setGet("online:1", "server-1", Duration.ofMinutes(5));
+        verify(redisTemplate, never()).expire(anyString(), any(Duration.class));
+        verify(routingCache).publishInvalidation(1L);
+    }
+
+    @Test
+    @DisplayName("같은 서버로 다시 setOnline 하면 무효화를 전파하지 않는다")
+    void setOnline_sameServer_noInvalidation() {
+        given(redisTemplate.opsForValue()).willReturn(valueOperations);
+        given(serverIdHolder.getServerId()).willReturn("server-1");
+        given(valueOperations.setGet("online:1", "server-1", Duration.ofMinutes(5))).willReturn("server-1");
 
         onlineStatusService.setOnline(1L);
 
-        verify(valueOperations).set("online:1", "server-1", Duration.ofMinutes(5));
+        verify(routingCache, never()).publishInvalidation(anyLong());
     }
 
     @Test
-    @DisplayName("refreshOnline 호출 시 TTL을 갱신한다")
+    @DisplayName("refreshOnline 호출 시 바로 EXPIRE하지 않고 heartbeat을 모아둔다")
     void refreshOnline() {
         onlineStatusService.refreshOnline(1L);
 
-        verify(redisTemplate).expire("online:1", Duration.ofMinutes(5));
+        verify(heartbeatCoalescer).record(1L);
+        verify(redisTemplate, never()).expire(anyString(), any(Duration.class));
     }
 
     @Test
-    @DisplayName("setOffline 호출 시 Redis에서 키를 삭제한다")
+    @DisplayName("setOffline 호출 시 키가 이 서버를 가리키면 삭제하고 라우팅 캐시를 무효화한다")
     void setOffline() {
-        onlineStatusService.setOffline(1L);
+        given(serverIdHolder.getServerId()).willReturn("server-1");
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of("online:1")), eq("server-1")))
+                .willReturn(1L);
 
-        verify(redisTemplate).delete("online:1");
+        assertThat(onlineStatusService.setOffline(1L)).isTrue();
+
+        verify(routingCache).publishInvalidation(1L);
+    }
+
+    @Test
+    @DisplayName("setOffline 시 키가 이미 다른 서버로 옮겨갔으면 지우지 않고 무효화도 하지 않는다")
+    void setOffline_ownedByOtherServer() {
+        given(serverIdHolder.getServerId()).willReturn("server-1");
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of("online:1")), eq("server-1")))
+                .willReturn(0L);
+
+        assertThat(onlineStatusService.setOffline(1L)).isFalse();
+
+        verify(routingCache, never()).publishInvalidation(anyLong());
     }
 
     @Test
@@ -82,5 +134,54 @@ class OnlineStatusServiceTest {
         given(valueOperations.get("online:1")).willReturn("server-1");
 
         assertThat(onlineStatusService.getServerId(1L)).isEqualTo("server-1");
+        verify(routingCache).put(1L, "server-1");
+    }
+
+    @Test
+    @DisplayName("getServerId는 라우팅 캐시에 있으면 Redis를 조회하지 않는다")
+    void getServerId_cacheHit() {
+        given(routingCache.get(1L)).willReturn("server-1");
+
+        assertThat(onlineStatusService.getServerId(1L)).isEqualTo("server-1");
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    @DisplayName("getServerIds는 캐시에 없는 유저만 Redis에서 조회한다")
+    void getServerIds_onlyMissesHitRedis() {
+        given(routingCache.getAll(List.of(1L, 2L))).willReturn(Map.of(1L, "server-1"));
+        given(redisTemplate.opsForValue()).willReturn(valueOperations);
+        given(valueOperations.multiGet(List.of("online:2"))).willReturn(List.of("server-2"));
+
+        Map<Long, String> result = onlineStatusService.getServerIds(List.of(1L, 2L));
+
+        assertThat(result).containsExactlyInAnyOrderEntriesOf(Map.of(1L, "server-1", 2L, "server-2"));
+        verify(routingCache).putAll(Map.of(2L, "server-2"));
+    }
+
+    @Test
+    @DisplayName("getServerIds는 MGET 한 번으로 조회하고 온라인 유저만 반환한다")
+    void getServerIds_singleMget() {
+        given(redisTemplate.opsForValue()).willReturn(valueOperations);
+        given(valueOperations.multiGet(List.of("online:1", "online:2", "online:3")))
+                .willReturn(Arrays.asList("server-1", null, "server-2"));
+
+        Map<Long, String> result = onlineStatusService.getServerIds(List.of(1L, 2L, 3L));
+
+        assertThat(result).containsExactlyInAnyOrderEntriesOf(Map.of(1L, "server-1", 3L, "server-2"));
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    @DisplayName("getServerIds는 키가 lookupBatchSize를 넘으면 MGET을 나눠 파이프라인 한 번으로 보낸다")
+    void getServerIds_largeLookup_pipelinesChunks() {
+        presenceProperties.setLookupBatchSize(2);
+        given(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .willReturn(List.<Object>of(Arrays.asList("server-1", null), Arrays.asList((String) null)));
+
+        Map<Long, String> result = onlineStatusService.getServerIds(List.of(1L, 2L, 3L));
+
+        assertThat(result).containsExactlyEntriesOf(Map.of(1L, "server-1"));
+        verify(redisTemplate, never()).opsForValue();
     }
 }
@@ -0,0 +1,197 @@
+package com.bok.chat.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("PresenceTracker")
+class PresenceTrackerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger onlineNotified = new AtomicInteger();
+    private final AtomicInteger offlineNotified = new AtomicInteger();
+    private OnlineStatusService onlineStatusService;
+    private TaskScheduler taskScheduler;
+    private ScheduledFuture<?> offlineTask;
+    private PresenceTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        onlineStatusService = mock(OnlineStatusService.class);
+        taskScheduler = mock(TaskScheduler.class);
+        offlineTask = mock(ScheduledFuture.class);
+        doReturn(offlineTask).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        tracker = new PresenceTracker(onlineStatusService, taskScheduler, new PresenceProperties(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("처음 연결하면 온라인 키를 설정하고 온라인을 알린다. 두 번째 기기 연결은 알리지 않는다")
+    void connected_notifiesOnlyFirstTime() {
+        tracker.connected(1L, onlineNotified::incrementAndGet);
+        tracker.connected(1L, onlineNotified::incrementAndGet);
+
+        assertThat(onlineNotified).hasValue(1);
+        assertThat(tracker.stateOf(1L)).isEqualTo(PresenceTracker.State.ONLINE);
+        assertThat(transitions("offline", "online")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("유예 기간 안에 재연결하면 오프라인/온라인을 알리지 않는다")
+    void reconnectWithinGrace_noBroadcast() {
+        tracker.connected(1L, onlineNotified::incrementAndGet);
+
+        tracker.disconnected(1L, offlineNotified::incrementAndGet);
+        assertThat(tracker.stateOf(1L)).isEqualTo(PresenceTracker.State.GRACE);
+        tracker.connected(1L, onlineNotified::incrementAndGet);
+
+        assertThat(onlineNotified).hasValue(1);
+        assertThat(offlineNotified).hasValue(0);
+        verify(offlineTask).cancel(false);
+        verify(onlineStatusService, never()).setOffline(anyLong());
+        assertThat(transitions("grace", "online")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("다른 노드에서 옮겨 온 유저는 이 노드에서 처음 연결해도 온라인을 알리지 않는다")
+    void connectedAfterNodeHop_noBroadcast() {
+        given(onlineStatusService.setOnline(1L)).willReturn(true);
+
+        tracker.connected(1L, onlineNotified::incrementAndGet);
+
+        assertThat(onlineNotified).hasValue(0);
+        assertThat(tracker.stateOf(1L)).isEqualTo(PresenceTracker.State.ONLINE);
+    }
+
+    @Test
+    @DisplayName("유예 기간이 지나면 온라인 키를 지우고 오프라인을 알린다")
+    void graceExpired_goesOffline() {
+        given(onlineStatusService.setOffline(1L)).willReturn(true);
+        tracker.connected(1L, onlineNotified::incrementAndGet);
+
+        tracker.disconnected(1L, offlineNotified::incrementAndGet);
+        scheduledTask().run();
+
+        assertThat(offlineNotified).hasValue(1);
+        assertThat(tracker.stateOf(1L)).isEqualTo(PresenceTracker.State.OFFLINE);
+        assertThat(transitions("grace", "offline")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("유예 기간 중 다른 서버로 재연결했으면 만료돼도 오프라인을 알리지 않는다")
+    void graceExpired_movedToOtherServer_noBroadcast() {
+        given(onlineStatusService.setOffline(1L)).willReturn(false);
+        tracker.connected(1L, onlineNotified::incrementAndGet);
+
+        tracker.disconnected(1L, offlineNotified::incrementAndGet);
+        scheduledTask().run();
+
+        assertThat(offlineNotified).hasValue(0);
+        assertThat(tracker.stateOf(1L)).isEqualTo(PresenceTracker.State.OFFLINE);
+    }
+
+    @Test
+    @DisplayName("만료 처리로 온라인 키를 지우는 사이 재연결했으면 키를 되살리고 오프라인을 알리지 않는다")
+    void graceExpired_reconnectDuringRedisCall_restoresKey() {
+        tracker.connected(1L, onlineNotified::incrementAndGet);
+        tracker.disconnected(1L, offlineNotified::incrementAndGet);
+        given(onlineStatusService.setOffline(1L)).willAnswer(invocation -> {
+            tracker.connected(1L, onlineNotified::incrementAndGet);
+            return true;
+        });
+
+        scheduledTask().run();
+
+        assertThat(offlineNotified).hasValue(0);
+        assertThat(tracker.stateOf(1L)).isEqualTo(PresenceTracker.State.ONLINE);
+        verify(onlineStatusService, times(3)).setOnline(1L);
+    }
+
+    @Test
+    @DisplayName("유예 만료가 오프라인을 알리는 동안 재연결하면 오프라인 알림이 끝난 뒤에 온라인을 알린다")
+    void graceExpired_reconnectDuringOfflineNotify_onlineNotifiedAfterOffline() throws Exception {
+        List<String> notifications = new CopyOnWriteArrayList<>();
+        CountDownLatch notifyingOffline = new CountDownLatch(1);
+        CountDownLatch releaseOffline = new CountDownLatch(1);
+        given(onlineStatusService.setOffline(1L)).willReturn(true);
+        tracker.connected(1L, onlineNotified::incrementAndGet);
+        tracker.disconnected(1L, () -> {
+            notifyingOffline.countDown();
+            await(releaseOffline);
+            notifications.add("offline");
+        });
+
+        Thread graceTask = Thread.ofVirtual().start(scheduledTask());
+        assertThat(notifyingOffline.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread reconnect = Thread.ofVirtual().start(() -> tracker.connected(1L, () -> notifications.add("online")));
+        waitUntilBlocked(reconnect);
+        releaseOffline.countDown();
+        graceTask.join(5_000);
+        reconnect.join(5_000);
+
+        assertThat(notifications).containsExactly("offline", "online");
+        assertThat(tracker.stateOf(1L)).isEqualTo(PresenceTracker.State.ONLINE);
+    }
+
+    @Test
+    @DisplayName("유예 기간이 0이면 스케줄 없이 바로 오프라인 처리한다")
+    void zeroGrace_offlineImmediately() {
+        PresenceProperties properties = new PresenceProperties();
+        properties.setGracePeriod(Duration.ZERO);
+        tracker = new PresenceTracker(onlineStatusService, taskScheduler, properties, meterRegistry);
+        given(onlineStatusService.setOffline(1L)).willReturn(true);
+        tracker.connected(1L, onlineNotified::incrementAndGet);
+
+        tracker.disconnected(1L, offlineNotified::incrementAndGet);
+
+        assertThat(offlineNotified).hasValue(1);
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntilBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+    }
+
+    private Runnable scheduledTask() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(task.capture(), any(Instant.class));
+        return task.getValue();
+    }
+
+    private double transitions(String from, String to) {
+        return meterRegistry.counter("chat.presence.transitions", "from", from, "to", to).count();
+    }
+}
@@ -1,9 +1,14 @@
 package com.bok.chat.redis;
 
 import com.bok.chat.config.ServerIdHolder;
+import com.bok.chat.websocket.MessageType;
+import com.bok.chat.websocket.OutboundFrame;
+import com.bok.chat.websocket.OutboundSession;
 import com.bok.chat.websocket.WebSocketMessage;
 import com.bok.chat.websocket.WebSocketSessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,12 +17,11 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.connection.DefaultMessage;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.listener.ChannelTopic;
-import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.web.socket.TextMessage;
-import org.springframework.web.socket.WebSocketSession;
 
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
@@ -31,20 +35,20 @@ class RedisMessageRelayTest {
     private RedisMessageRelay redisMessageRelay;
 
     @Mock
-    private StringRedisTemplate redisTemplate;
+    private RelayTransport relayTransport;
 
     @Mock
     private ServerIdHolder serverIdHolder;
 
-    @Mock
-    private RedisMessageListenerContainer listenerContainer;
-
     @Mock
     private WebSocketSessionManager sessionManager;
 
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Test
     @DisplayName("subscribe 호출 시 자기 서버 채널을 리스닝한다")
     void subscribe_registersListener() {
@@ -52,43 +56,66 @@ class RedisMessageRelayTest {
 
         redisMessageRelay.subscribe();
 
-        verify(listenerContainer).addMessageListener(eq(redisMessageRelay), any(ChannelTopic.class));
+        verify(relayTransport).subscribe("server:server-a", redisMessageRelay);
     }
 
     @Test
-    @DisplayName("relayToUser 호출 시 대상 서버 채널로 메시지를 publish한다")
-    void relayToUser_publishesToTargetChannel() throws Exception {
-        WebSocketMessage message = WebSocketMessage.messageReceived(1L, 1L, "alice", "hello", 1L, 1);
+    @DisplayName("relay 호출 시 대상 서버 채널마다 한 번씩 publish한다")
+    void relay_publishesOncePerTargetServer() throws Exception {
+        OutboundFrame frame = OutboundFrame.encode(
+                WebSocketMessage.messageReceived(1L, 1L, "alice", "hello", 1L, 1), objectMapper);
+
+        redisMessageRelay.relay(Map.of("server-b", List.of(2L, 3L, 4L), "server-c", List.of(5L)), frame);
 
-        redisMessageRelay.relayToUser(2L, "server-b", message);
+        verify(relayTransport, times(1)).publish(eq("server:server-b"), any(String.class));
+        verify(relayTransport, times(1)).publish(eq("server:server-c"), any(String.class));
+        assertThat(meterRegistry.summary("chat.relay.publishes.saved").totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("메시지 수신 시 envelope의 모든 수신자 로컬 세션으로 fan-out한다")
+    void onMessage_fansOutToAllTargets() throws Exception {
+        RedisMessageRelay.RelayEnvelope envelope = new RedisMessageRelay.RelayEnvelope(
+                List.of(2L, 3L), MessageType.MESSAGE_RECEIVED, "{\"type\":\"message.received\"}");
+        byte[] body = objectMapper.writeValueAsBytes(envelope);
+
+        OutboundSession bob = mock(OutboundSession.class);
+        given(bob.isOpen()).willReturn(true);
+        OutboundSession charlie = mock(OutboundSession.class);
+        given(charlie.isOpen()).willReturn(true);
+        given(sessionManager.getSessions(2L)).willReturn(List.of(bob));
+        given(sessionManager.getSessions(3L)).willReturn(List.of(charlie));
+
+        redisMessageRelay.onMessage(new DefaultMessage(new byte[0], body), null);
 
-        verify(redisTemplate).convertAndSend(eq("server:server-b"), any(String.class));
+        verify(bob).send(any(OutboundFrame.class));
+        verify(charlie).send(any(OutboundFrame.class));
     }
 
     @Test
     @DisplayName("메시지 수신 시 로컬 세션이 있으면 WebSocket으로 전달한다")
     void onMessage_forwardsToLocalSession() throws Exception {
-        WebSocketMessage wsMessage = WebSocketMessage.messageReceived(1L, 1L, "alice", "hello", 1L, 1);
-        RedisMessageRelay.RelayEnvelope envelope = new RedisMessageRelay.RelayEnvelope(2L, wsMessage);
+        RedisMessageRelay.RelayEnvelope envelope = new RedisMessageRelay.RelayEnvelope(
+                List.of(2L), MessageType.MESSAGE_RECEIVED, "{\"type\":\"message.received\"}");
         byte[] body = objectMapper.writeValueAsBytes(envelope);
 
-        WebSocketSession session = mock(WebSocketSession.class);
+        OutboundSession session = mock(OutboundSession.class);
         given(session.isOpen()).willReturn(true);
-        given(sessionManager.getSession(2L)).willReturn(session);
+        given(sessionManager.getSessions(2L)).willReturn(List.of(session));
 
         redisMessageRelay.onMessage(new DefaultMessage(new byte[0], body), null);
 
-        verify(session).sendMessage(any(TextMessage.class));
+        verify(session).send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "{\"type\":\"message.received\"}"));
     }
 
     @Test
     @DisplayName("메시지 수신 시 로컬 세션이 없으면 무시한다")
     void onMessage_noLocalSession_doesNothing() throws Exception {
-        WebSocketMessage wsMessage = WebSocketMessage.messageReceived(1L, 1L, "alice", "hello", 1L, 1);
-        RedisMessageRelay.RelayEnvelope envelope = new RedisMessageRelay.RelayEnvelope(2L, wsMessage);
+        RedisMessageRelay.RelayEnvelope envelope = new RedisMessageRelay.RelayEnvelope(
+                List.of(2L), MessageType.MESSAGE_RECEIVED, "{\"type\":\"message.received\"}");
         byte[] body = objectMapper.writeValueAsBytes(envelope);
 
-        given(sessionManager.getSession(2L)).willReturn(null);
+        given(sessionManager.getSessions(2L)).willReturn(List.of());
 
         redisMessageRelay.onMessage(new DefaultMessage(new byte[0], body), null);
 
@@ -102,22 +129,22 @@ class RedisMessageRelayTest {
 
         redisMessageRelay.onMessage(new DefaultMessage(new byte[0], invalidBody), null);
 
-        verify(sessionManager, never()).getSession(anyLong());
+        verify(sessionManager, never()).getSessions(anyLong());
     }
 
     @Test
     @DisplayName("메시지 수신 시 세션이 닫혀있으면 무시한다")
     void onMessage_closedSession_doesNothing() throws Exception {
-        WebSocketMessage wsMessage = WebSocketMessage.messageReceived(1L, 1L, "alice", "hello", 1L, 1);
-        RedisMessageRelay.RelayEnvelope envelope = new RedisMessageRelay.RelayEnvelope(2L, wsMessage);
+        RedisMessageRelay.RelayEnvelope envelope = new RedisMessageRelay.RelayEnvelope(
+                List.of(2L), MessageType.MESSAGE_RECEIVED, "{\"type\":\"message.received\"}");
         byte[] body = objectMapper.writeValueAsBytes(envelope);
 
-        WebSocketSession session = mock(WebSocketSession.class);
+        OutboundSession session = mock(OutboundSession.class);
         given(session.isOpen()).willReturn(false);
-        given(sessionManager.getSession(2L)).willReturn(session);
+        given(sessionManager.getSessions(2L)).willReturn(List.of(session));
 
         redisMessageRelay.onMessage(new DefaultMessage(new byte[0], body), null);
 
-        verify(session, never()).sendMessage(any());
+        verify(session, never()).send(any());
     }
 }
@@ -0,0 +1,194 @@
+package com.bok.chat.redis;
+
+import com.bok.chat.config.ServerIdHolder;
+import com.bok.chat.event.ChatRoomMembersJoinedEvent;
+import com.bok.chat.websocket.MessageType;
+import com.bok.chat.websocket.OutboundFrame;
+import com.bok.chat.websocket.OutboundSession;
+import com.bok.chat.websocket.WebSocketSessionManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+@DisplayName("RoomTopicRelay")
+class RoomTopicRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RelayProperties properties = new RelayProperties();
+    private RelayTransport relayTransport;
+    private WebSocketSessionManager sessionManager;
+    private MembershipCache membershipCache;
+    private RoomTopicRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relayTransport = mock(RelayTransport.class);
+        sessionManager = mock(WebSocketSessionManager.class);
+        membershipCache = mock(MembershipCache.class);
+        ServerIdHolder serverIdHolder = mock(ServerIdHolder.class);
+        given(serverIdHolder.getServerId()).willReturn("server-a");
+        properties.setMode(RelayProperties.Mode.ROOM);
+        relay = new RoomTopicRelay(relayTransport, serverIdHolder, sessionManager,
+                membershipCache, objectMapper, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("AUTO 모드는 멤버 수가 기준 이상인 방만 room 채널을 쓰고, 초대 알림은 항상 서버 채널로 보낸다")
+    void shouldPublishToRoom_autoMode() {
+        properties.setMode(RelayProperties.Mode.AUTO);
+        properties.setRoomTopicMinMembers(50);
+
+        assertThat(relay.shouldPublishToRoom(1L, 49, MessageType.MESSAGE_RECEIVED)).isFalse();
+        assertThat(relay.shouldPublishToRoom(1L, 50, MessageType.MESSAGE_RECEIVED)).isTrue();
+        assertThat(relay.shouldPublishToRoom(1L, 500, MessageType.ROOM_INVITE)).isFalse();
+    }
+
+    @Test
+    @DisplayName("로컬 유저가 처음 들어온 방만 구독하고, 마지막 로컬 유저가 나가면 구독을 해제한다")
+    void subscriptionsFollowLocalMembership() {
+        given(membershipCache.roomIds(1L)).willReturn(List.of(10L));
+        given(membershipCache.roomIds(2L)).willReturn(List.of(10L));
+
+        relay.userConnected(1L);
+        relay.userConnected(2L);
+        relay.userDisconnected(1L);
+
+        verify(relayTransport, times(1)).subscribe("room:10", relay);
+        assertThat(relay.isSubscribed(10L)).isTrue();
+
+        relay.leave(2L, 10L);
+
+        verify(relayTransport).unsubscribe("room:10", relay);
+        assertThat(relay.isSubscribed(10L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("구독은 멤버십 compute 밖에서 하고, 구독하는 사이 마지막 유저가 나가면 구독을 다시 해제한다")
+    void subscribeOutsideCompute_leaveDuringSubscribe_unsubscribes() {
+        given(membershipCache.roomIds(1L)).willReturn(List.of(10L));
+        willAnswer(invocation -> {
+            relay.leave(1L, 10L);
+            return null;
+        }).given(relayTransport).subscribe("room:10", relay);
+
+        relay.userConnected(1L);
+
+        verify(relayTransport).unsubscribe("room:10", relay);
+        assertThat(relay.isSubscribed(10L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("방 채널 메시지를 받으면 envelope 멤버 중 로컬 세션이 있는 유저에게만 보낸다")
+    void onMessage_fansOutToLocalMembers() throws Exception {
+        OutboundSession bob = mock(OutboundSession.class);
+        given(bob.isOpen()).willReturn(true);
+        given(sessionManager.getSessions(2L)).willReturn(List.of(bob));
+        given(sessionManager.getSessions(3L)).willReturn(List.of());
+        byte[] body = objectMapper.writeValueAsBytes(new RoomTopicRelay.RoomEnvelope(
+                "server-b", 10L, List.of(2L, 3L), MessageType.MESSAGE_RECEIVED, "{}"));
+
+        relay.onMessage(new DefaultMessage("room:10".getBytes(StandardCharsets.UTF_8), body), null);
+
+        verify(bob).send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "{}"));
+    }
+
+    @Test
+    @DisplayName("자기가 publish한 방 메시지는 이미 로컬로 보냈으므로 무시한다")
+    void onMessage_ownPublish_ignored() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(new RoomTopicRelay.RoomEnvelope(
+                "server-a", 10L, List.of(2L), MessageType.MESSAGE_RECEIVED, "{}"));
+
+        relay.onMessage(new DefaultMessage("room:10".getBytes(StandardCharsets.UTF_8), body), null);
+
+        verify(sessionManager, never()).getSessions(anyLong());
+    }
+
+    @Test
+    @DisplayName("멤버 추가 알림을 받으면 이 노드에 접속한 새 멤버의 방을 구독한다")
+    void onMessage_membersJoined_subscribesForLocalUsers() throws Exception {
+        given(sessionManager.isOnline(2L)).willReturn(true);
+        given(sessionManager.isOnline(3L)).willReturn(false);
+        byte[] body = objectMapper.writeValueAsBytes(new ChatRoomMembersJoinedEvent(10L, List.of(2L, 3L), 3));
+
+        relay.onMessage(new DefaultMessage(
+                RoomTopicRelay.MEMBERS_CHANNEL.getBytes(StandardCharsets.UTF_8), body), null);
+
+        verify(relayTransport).subscribe("room:10", relay);
+    }
+
+    @Test
+    @DisplayName("AUTO 모드는 연결 시 멤버 수가 기준 이상인 방만 구독한다")
+    void userConnected_autoMode_subscribesLargeRoomsOnly() {
+        properties.setMode(RelayProperties.Mode.AUTO);
+        properties.setRoomTopicMinMembers(50);
+        given(membershipCache.roomIds(1L)).willReturn(List.of(10L, 20L));
+        given(membershipCache.memberCounts(List.of(10L, 20L))).willReturn(Map.of(10L, 3, 20L, 80));
+
+        relay.userConnected(1L);
+
+        verify(relayTransport).subscribe("room:20", relay);
+        verify(relayTransport, never()).subscribe("room:10", relay);
+        assertThat(relay.isSubscribed(10L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("AUTO 모드에서 초대로 방이 기준을 넘으면 기존 로컬 멤버도 방 채널을 구독한다")
+    void onMessage_membersJoined_crossesThreshold_subscribesExistingLocalMembers() throws Exception {
+        properties.setMode(RelayProperties.Mode.AUTO);
+        properties.setRoomTopicMinMembers(3);
+        willAnswer(invocation -> {
+            BiConsumer<Long, OutboundSession> action = invocation.getArgument(0);
+            action.accept(1L, mock(OutboundSession.class));
+            action.accept(4L, mock(OutboundSession.class));
+            return null;
+        }).given(sessionManager).forEachSession(any());
+        given(membershipCache.roomIds(1L)).willReturn(List.of(10L));
+        given(membershipCache.roomIds(4L)).willReturn(List.of(20L));
+        byte[] body = objectMapper.writeValueAsBytes(new ChatRoomMembersJoinedEvent(10L, List.of(2L), 3));
+
+        relay.onMessage(new DefaultMessage(
+                RoomTopicRelay.MEMBERS_CHANNEL.getBytes(StandardCharsets.UTF_8), body), null);
+
+        verify(membershipCache).updateMemberCount(10L, 3);
+        verify(relayTransport).subscribe("room:10", relay);
+        assertThat(relay.isSubscribed(10L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("AUTO 모드에서 기준 미만인 방의 멤버 추가 알림은 멤버 수만 갱신하고 구독하지 않는다")
+    void onMessage_membersJoined_belowThreshold_doesNotSubscribe() throws Exception {
+        properties.setMode(RelayProperties.Mode.AUTO);
+        properties.setRoomTopicMinMembers(50);
+        given(sessionManager.isOnline(2L)).willReturn(true);
+        byte[] body = objectMapper.writeValueAsBytes(new ChatRoomMembersJoinedEvent(10L, List.of(2L), 3));
+
+        relay.onMessage(new DefaultMessage(
+                RoomTopicRelay.MEMBERS_CHANNEL.getBytes(StandardCharsets.UTF_8), body), null);
+
+        verify(membershipCache).updateMemberCount(10L, 3);
+        verify(relayTransport, never()).subscribe(any(), any());
+    }
+
+    @Test
+    @DisplayName("publish는 방 채널에 한 번만 보낸다")
+    void publish_oncePerRoom() {
+        relay.publish(10L, List.of(1L, 2L, 3L), OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "{}"));
+
+        verify(relayTransport, times(1)).publish(eq("room:10"), any(String.class));
+    }
+}
@@ -0,0 +1,78 @@
+package com.bok.chat.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("ServerRoutingCache")
+class ServerRoutingCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StringRedisTemplate redisTemplate;
+    private ServerRoutingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        cache = new ServerRoutingCache(redisTemplate, mock(RedisMessageListenerContainer.class),
+                new RoutingCacheProperties(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("put한 라우팅은 get/getAll로 조회된다")
+    void putAndGet() {
+        cache.put(1L, "server-a");
+        cache.putAll(Map.of(2L, "server-b"));
+
+        assertThat(cache.get(1L)).isEqualTo("server-a");
+        assertThat(cache.getAll(List.of(1L, 2L, 3L)))
+                .containsExactlyInAnyOrderEntriesOf(Map.of(1L, "server-a", 2L, "server-b"));
+    }
+
+    @Test
+    @DisplayName("publishInvalidation은 로컬 항목을 지우고 무효화 채널로 publish한다")
+    void publishInvalidation() {
+        cache.put(1L, "server-a");
+
+        cache.publishInvalidation(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        verify(redisTemplate).convertAndSend(eq(ServerRoutingCache.INVALIDATION_CHANNEL), startsWith("1:"));
+    }
+
+    @Test
+    @DisplayName("다른 노드의 무효화 메시지를 받으면 항목을 지우고 지연 시간을 기록한다")
+    void onMessage_invalidates() {
+        cache.put(1L, "server-a");
+        byte[] body = ("1:" + System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+
+        cache.onMessage(new DefaultMessage(new byte[0], body), null);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(meterRegistry.timer("chat.routing.cache.invalidation.lag").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("형식이 잘못된 무효화 메시지는 무시한다")
+    void onMessage_malformed_ignored() {
+        cache.put(1L, "server-a");
+
+        cache.onMessage(new DefaultMessage(new byte[0], "garbage".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(cache.get(1L)).isEqualTo("server-a");
+    }
+}
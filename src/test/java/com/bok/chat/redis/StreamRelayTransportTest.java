@@ -0,0 +1,187 @@
+package com.bok.chat.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import io.lettuce.core.RedisBusyException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamListener;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.ConsumerStreamReadRequest;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+import org.springframework.data.redis.stream.Subscription;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("StreamRelayTransport")
+class StreamRelayTransportTest {
+
+    private static final String STREAM_KEY = "relay-stream:server:server-a";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RelayProperties.Stream properties = new RelayProperties.Stream();
+    private StringRedisTemplate redisTemplate;
+    private StreamOperations<String, Object, Object> streamOperations;
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+    private StreamRelayTransport transport;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        streamOperations = mock(StreamOperations.class);
+        container = mock(StreamMessageListenerContainer.class);
+        given(redisTemplate.<Object, Object>opsForStream()).willReturn(streamOperations);
+        transport = new StreamRelayTransport(redisTemplate, container, "server-a", properties, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("publish는 채널의 스트림에 MAXLEN ~ 로 잘라 가며 XADD한다")
+    void publish_appendsWithApproximateMaxlen() {
+        properties.setMaxLength(500);
+
+        transport.publish("server:server-a", "{}");
+
+        ArgumentCaptor<MapRecord<String, String, String>> record = ArgumentCaptor.forClass(MapRecord.class);
+        ArgumentCaptor<XAddOptions> options = ArgumentCaptor.forClass(XAddOptions.class);
+        verify(streamOperations).add(record.capture(), options.capture());
+        assertThat(record.getValue().getStream()).isEqualTo(STREAM_KEY);
+        assertThat(record.getValue().getValue()).containsEntry("payload", "{}");
+        assertThat(options.getValue().getMaxlen()).isEqualTo(500);
+        assertThat(options.getValue().isApproximateTrimming()).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("재시작해 group이 이미 있으면(BUSYGROUP) 예외 없이 기존 group으로 구독한다")
+    void subscribe_existingGroup_reusesGroup() {
+        given(redisTemplate.execute(any(RedisCallback.class))).willThrow(new RedisSystemException(
+                "Error in execution", new RedisBusyException("BUSYGROUP Consumer Group name already exists")));
+
+        transport.subscribe("server:server-a", mock(MessageListener.class));
+
+        assertThat(registeredRequest().getConsumer())
+                .isEqualTo(Consumer.from(StreamRelayTransport.GROUP, "server-a"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("group 생성이 BUSYGROUP 외의 이유로 실패하면 예외를 그대로 던진다")
+    void subscribe_groupCreateFails_rethrows() {
+        given(redisTemplate.execute(any(RedisCallback.class))).willThrow(new RedisSystemException(
+                "Error in execution", new IllegalStateException("WRONGTYPE Operation against a key")));
+
+        assertThatThrownBy(() -> transport.subscribe("server:server-a", mock(MessageListener.class)))
+                .isInstanceOf(RedisSystemException.class);
+    }
+
+    @Test
+    @DisplayName("Redis 타임아웃이나 failover로 읽기가 실패해도 구독을 취소하지 않고, 마지막 전달 지점부터 이어 읽는다")
+    void subscribe_readErrors_doNotCancel() {
+        transport.subscribe("server:server-a", mock(MessageListener.class));
+
+        ConsumerStreamReadRequest<String> request = registeredRequest();
+        assertThat(request.getCancelSubscriptionOnError().test(new RedisCommandTimeoutException("timeout"))).isFalse();
+        assertThat(request.getStreamOffset()).isEqualTo(StreamOffset.create(STREAM_KEY, ReadOffset.lastConsumed()));
+        assertThat(request.isAutoAcknowledge()).isFalse();
+    }
+
+    @Test
+    @DisplayName("재시작 전에 XACK하지 못한 항목은 세션이 없는 노드로 재전달하지 않는다")
+    void subscribe_doesNotReplayPending() {
+        transport.subscribe("server:server-a", mock(MessageListener.class));
+
+        verify(streamOperations, never())
+                .read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class));
+    }
+
+    @Test
+    @DisplayName("받은 항목을 리스너에 넘긴 뒤 XACK한다")
+    void receivedEntry_deliveredThenAcknowledged() {
+        MessageListener listener = mock(MessageListener.class);
+        transport.subscribe("server:server-a", listener);
+
+        registeredListener().onMessage(record("1-0", "hello"));
+
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(listener).onMessage(message.capture(), isNull());
+        assertThat(new String(message.getValue().getBody(), StandardCharsets.UTF_8)).isEqualTo("hello");
+        verify(streamOperations).acknowledge(STREAM_KEY, StreamRelayTransport.GROUP, RecordId.of("1-0"));
+        assertThat(meterRegistry.counter("chat.relay.stream.acked").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("리스너가 처리에 실패한 항목도 XACK해 같은 항목이 계속 재전달되지 않게 한다")
+    void deliveryFailure_stillAcknowledged() {
+        MessageListener listener = mock(MessageListener.class);
+        willThrow(new IllegalStateException("boom")).given(listener).onMessage(any(), any());
+        transport.subscribe("server:server-a", listener);
+
+        registeredListener().onMessage(record("2-0", "broken"));
+
+        verify(streamOperations).acknowledge(STREAM_KEY, StreamRelayTransport.GROUP, RecordId.of("2-0"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("구독 해지 시 스트림 수신을 멈추되 group은 남겨 다음 구독이 이어받게 한다")
+    void unsubscribe_removesSubscription() {
+        Subscription subscription = mock(Subscription.class);
+        given(container.register(any(StreamReadRequest.class), any())).willReturn(subscription);
+        MessageListener listener = mock(MessageListener.class);
+        transport.subscribe("server:server-a", listener);
+
+        transport.unsubscribe("server:server-a", listener);
+
+        verify(container).remove(subscription);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConsumerStreamReadRequest<String> registeredRequest() {
+        ArgumentCaptor<StreamReadRequest<String>> request = ArgumentCaptor.forClass(StreamReadRequest.class);
+        verify(container).register(request.capture(), any());
+        assertThat(request.getValue()).isInstanceOf(ConsumerStreamReadRequest.class);
+        return (ConsumerStreamReadRequest<String>) request.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private StreamListener<String, MapRecord<String, String, String>> registeredListener() {
+        ArgumentCaptor<StreamListener<String, MapRecord<String, String, String>>> listener =
+                ArgumentCaptor.forClass(StreamListener.class);
+        verify(container).register(any(StreamReadRequest.class), listener.capture());
+        return listener.getValue();
+    }
+
+    private static MapRecord<String, String, String> record(String id, String payload) {
+        return StreamRecords.newRecord().in(STREAM_KEY).withId(RecordId.of(id))
+                .ofMap(Map.of(StreamRelayTransport.PAYLOAD, payload));
+    }
+}
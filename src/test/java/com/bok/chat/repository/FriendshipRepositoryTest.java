@@ -81,4 +81,15 @@ class FriendshipRepositoryTest extends RepositoryTestBase {
 
         assertThat(friendships).hasSize(1);
     }
+
+    @Test
+    @DisplayName("친구 ID 조회는 어느 방향으로 저장됐든 상대방 ID를 반환한다")
+    void findFriendIdsByUserId_shouldReturnOtherSide() {
+        em.persist(Friendship.create(user3, user1));
+        em.flush();
+
+        List<Long> friendIds = friendshipRepository.findFriendIdsByUserId(user1.getId());
+
+        assertThat(friendIds).containsExactlyInAnyOrder(user2.getId(), user3.getId());
+    }
 }
@@ -11,6 +11,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import jakarta.persistence.EntityManager;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -148,6 +150,90 @@ class MessageRepositoryTest extends RepositoryTestBase {
         assertThat(unread).isEmpty();
     }
 
+    @Test
+    @DisplayName("참여 중인 모든 방의 안 읽은 메시지 ID를 방마다 최신 limit개까지 한 번에 조회한다")
+    void findLatestMessageIdsAfter_withoutMarks_shouldCapUnreadPerRoom() {
+        User reader = User.builder().username("reader").password("pass").build();
+        em.persist(reader);
+        ChatRoom otherRoom = ChatRoom.create(2);
+        em.persist(otherRoom);
+
+        Message read = Message.create(chatRoom, sender, "read", 2);
+        Message unread1 = Message.create(chatRoom, sender, "unread1", 2);
+        Message unread2 = Message.create(chatRoom, sender, "unread2", 2);
+        Message unread3 = Message.create(chatRoom, sender, "unread3", 2);
+        Message other = Message.create(otherRoom, sender, "other", 2);
+        em.persist(read);
+        em.persist(unread1);
+        em.persist(unread2);
+        em.persist(unread3);
+        em.persist(other);
+
+        ChatRoomUser membership = ChatRoomUser.builder().chatRoom(chatRoom).user(reader).build();
+        membership.updateLastReadMessageId(read.getId());
+        em.persist(membership);
+        em.persist(ChatRoomUser.builder().chatRoom(otherRoom).user(reader).build());
+        em.flush();
+        em.clear();
+
+        List<Long> ids = messageRepository.findLatestMessageIdsAfter(reader.getId(), new Long[0], new Long[0], 2);
+
+        assertThat(ids).containsExactly(other.getId(), unread3.getId(), unread2.getId());
+    }
+
+    @Test
+    @DisplayName("안 읽은 메시지가 limit보다 훨씬 많아도 방마다 최신 limit개만 반환한다")
+    void findLatestMessageIdsAfter_manyUnread_shouldReturnLatestLimitPerRoom() {
+        User reader = User.builder().username("reader").password("pass").build();
+        em.persist(reader);
+        ChatRoom otherRoom = ChatRoom.create(2);
+        em.persist(otherRoom);
+
+        List<Long> roomIds = new ArrayList<>();
+        List<Long> otherRoomIds = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Message message = Message.create(chatRoom, sender, "room-" + i, 2);
+            Message otherMessage = Message.create(otherRoom, sender, "other-" + i, 2);
+            em.persist(message);
+            em.persist(otherMessage);
+            roomIds.add(message.getId());
+            otherRoomIds.add(otherMessage.getId());
+        }
+        em.persist(ChatRoomUser.builder().chatRoom(chatRoom).user(reader).build());
+        em.persist(ChatRoomUser.builder().chatRoom(otherRoom).user(reader).build());
+        em.flush();
+        em.clear();
+
+        List<Long> ids = messageRepository.findLatestMessageIdsAfter(reader.getId(), new Long[0], new Long[0], 5);
+
+        assertThat(ids).hasSize(10)
+                .containsAll(roomIds.subList(25, 30))
+                .containsAll(otherRoomIds.subList(25, 30))
+                .isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    @DisplayName("클라이언트가 보낸 방별 마지막 수신 ID가 있으면 읽음 위치 대신 그 이후만 조회한다")
+    void findLatestMessageIdsAfter_withMarks_shouldReturnDeltaOnly() {
+        User reader = User.builder().username("reader").password("pass").build();
+        em.persist(reader);
+
+        Message delivered1 = Message.create(chatRoom, sender, "delivered1", 2);
+        Message delivered2 = Message.create(chatRoom, sender, "delivered2", 2);
+        Message missed = Message.create(chatRoom, sender, "missed", 2);
+        em.persist(delivered1);
+        em.persist(delivered2);
+        em.persist(missed);
+        em.persist(ChatRoomUser.builder().chatRoom(chatRoom).user(reader).build());
+        em.flush();
+        em.clear();
+
+        List<Long> ids = messageRepository.findLatestMessageIdsAfter(reader.getId(),
+                new Long[]{chatRoom.getId()}, new Long[]{delivered2.getId()}, 10);
+
+        assertThat(ids).containsExactly(missed.getId());
+    }
+
     @Test
     @DisplayName("lastReadMessageId 이후의 메시지 수를 반환한다")
     void countUnreadMessages_shouldCountMessagesAfterLastRead() {
@@ -12,6 +12,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.time.Instant;
+import java.util.Optional;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
@@ -24,7 +27,7 @@ class JwtAuthenticationFilterTest {
     private JwtAuthenticationFilter filter;
 
     @Mock
-    private JwtProvider jwtProvider;
+    private TokenVerifier tokenVerifier;
 
     @Mock
     private HttpServletRequest request;
@@ -44,8 +47,8 @@ class JwtAuthenticationFilterTest {
     @DisplayName("유효한 Bearer 토큰이면 SecurityContext에 인증 정보를 설정한다")
     void validToken_setsAuthentication() throws Exception {
         given(request.getHeader("Authorization")).willReturn("Bearer valid-token");
-        given(jwtProvider.validateToken("valid-token")).willReturn(true);
-        given(jwtProvider.getUserId("valid-token")).willReturn(1L);
+        given(tokenVerifier.verify("valid-token"))
+                .willReturn(Optional.of(new JwtPrincipal(1L, "alice", Instant.now().plusSeconds(60))));
 
         filter.doFilterInternal(request, response, filterChain);
 
@@ -59,7 +62,7 @@ class JwtAuthenticationFilterTest {
     @DisplayName("유효하지 않은 토큰이면 인증 정보를 설정하지 않는다")
     void invalidToken_doesNotSetAuthentication() throws Exception {
         given(request.getHeader("Authorization")).willReturn("Bearer bad-token");
-        given(jwtProvider.validateToken("bad-token")).willReturn(false);
+        given(tokenVerifier.verify("bad-token")).willReturn(Optional.empty());
 
         filter.doFilterInternal(request, response, filterChain);
 
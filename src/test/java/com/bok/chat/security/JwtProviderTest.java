@@ -1,9 +1,13 @@
 package com.bok.chat.security;
 
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DisplayName("JwtProvider")
 class JwtProviderTest {
@@ -12,44 +16,43 @@ class JwtProviderTest {
             "test-secret-key-must-be-at-least-32-bytes-long!!", 3600000L);
 
     @Test
-    @DisplayName("토큰을 생성하고 userId를 추출할 수 있다")
-    void generateToken_andGetUserId() {
+    @DisplayName("토큰을 생성하고 한 번의 파싱으로 userId, username, 만료 시각을 추출할 수 있다")
+    void generateToken_andParse() {
         String token = jwtProvider.generateToken(1L, "alice");
 
-        assertThat(jwtProvider.getUserId(token)).isEqualTo(1L);
-    }
-
-    @Test
-    @DisplayName("유효한 토큰이면 validateToken은 true를 반환한다")
-    void validateToken_validToken_returnsTrue() {
-        String token = jwtProvider.generateToken(1L, "alice");
+        JwtPrincipal principal = jwtProvider.parse(token);
 
-        assertThat(jwtProvider.validateToken(token)).isTrue();
+        assertThat(principal.userId()).isEqualTo(1L);
+        assertThat(principal.username()).isEqualTo("alice");
+        assertThat(principal.expiresAt()).isAfter(Instant.now());
     }
 
     @Test
-    @DisplayName("잘못된 토큰이면 validateToken은 false를 반환한다")
-    void validateToken_invalidToken_returnsFalse() {
-        assertThat(jwtProvider.validateToken("invalid.token.value")).isFalse();
+    @DisplayName("잘못된 토큰이면 parse는 예외를 던진다")
+    void parse_invalidToken_throws() {
+        assertThatThrownBy(() -> jwtProvider.parse("invalid.token.value"))
+                .isInstanceOf(JwtException.class);
     }
 
     @Test
-    @DisplayName("다른 키로 서명된 토큰이면 validateToken은 false를 반환한다")
-    void validateToken_differentKey_returnsFalse() {
+    @DisplayName("다른 키로 서명된 토큰이면 parse는 예외를 던진다")
+    void parse_differentKey_throws() {
         JwtProvider other = new JwtProvider(
                 "other-secret-key-must-be-at-least-32-bytes-long!!", 3600000L);
         String token = other.generateToken(1L, "alice");
 
-        assertThat(jwtProvider.validateToken(token)).isFalse();
+        assertThatThrownBy(() -> jwtProvider.parse(token))
+                .isInstanceOf(JwtException.class);
     }
 
     @Test
-    @DisplayName("만료된 토큰이면 validateToken은 false를 반환한다")
-    void validateToken_expiredToken_returnsFalse() {
+    @DisplayName("만료된 토큰이면 parse는 예외를 던진다")
+    void parse_expiredToken_throws() {
         JwtProvider expiredProvider = new JwtProvider(
                 "test-secret-key-must-be-at-least-32-bytes-long!!", -1000L);
         String token = expiredProvider.generateToken(1L, "alice");
 
-        assertThat(jwtProvider.validateToken(token)).isFalse();
+        assertThatThrownBy(() -> jwtProvider.parse(token))
+                .isInstanceOf(JwtException.class);
     }
 }
@@ -0,0 +1,68 @@
+package com.bok.chat.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LoginExecutor")
+class LoginExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LoginExecutor executor = new LoginExecutor(1, 1,
+            new CustomizableThreadFactory("login-test-"), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("스레드와 큐가 모두 차면 기다리지 않고 RejectedExecutionException으로 실패한 future를 돌려준다")
+    void saturated_rejectsFast() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = executor.submit(() -> {
+            started.countDown();
+            await(release);
+            return "first";
+        });
+        started.await(1, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = executor.submit(() -> "second");
+
+        CompletableFuture<String> rejected = executor.submit(() -> "third");
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(rejected.exceptionNow()).isInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.counter("chat.login.rejected").count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(1, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isEqualTo("second");
+    }
+
+    @Test
+    @DisplayName("처리한 로그인마다 큐 대기 시간을 기록한다")
+    void recordsQueueWait() throws Exception {
+        executor.submit(() -> "a").get(1, TimeUnit.SECONDS);
+        executor.submit(() -> "b").get(1, TimeUnit.SECONDS);
+
+        assertThat(meterRegistry.timer("chat.login.queue.wait").count()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.bok.chat.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("TokenVerifier")
+class TokenVerifierTest {
+
+    private static final String SECRET = "test-secret-key-must-be-at-least-32-bytes-long!!";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final TokenCacheProperties properties = new TokenCacheProperties();
+    private JwtProvider jwtProvider;
+    private TokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        jwtProvider = spy(new JwtProvider(SECRET, 3600000L));
+        verifier = new TokenVerifier(jwtProvider, properties, new SimpleMeterRegistry(), nanos::get);
+    }
+
+    @Test
+    @DisplayName("같은 토큰은 한 번만 서명을 검증하고 이후에는 캐시된 클레임을 반환한다")
+    void verify_cachesVerifiedToken() {
+        String token = jwtProvider.generateToken(1L, "alice");
+
+        JwtPrincipal first = verifier.verify(token).orElseThrow();
+        JwtPrincipal second = verifier.verify(token).orElseThrow();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(second.username()).isEqualTo("alice");
+        verify(jwtProvider, times(1)).parse(token);
+    }
+
+    @Test
+    @DisplayName("토큰의 exp가 지나면 캐시에서 빠지고 다시 검증한다")
+    void verify_expiresAtTokenExpiry() {
+        String token = jwtProvider.generateToken(1L, "alice");
+        verifier.verify(token);
+
+        nanos.addAndGet(Duration.ofMinutes(61).toNanos());
+        verifier.verify(token);
+
+        verify(jwtProvider, times(2)).parse(token);
+    }
+
+    @Test
+    @DisplayName("남은 수명은 벽시계가 아니라 캐시 ticker 기준으로 계산한다")
+    void verify_lifetimeFollowsTicker() {
+        String token = jwtProvider.generateToken(1L, "alice");
+        nanos.addAndGet(Duration.ofMinutes(30).toNanos());
+        verifier.verify(token);
+
+        nanos.addAndGet(Duration.ofMinutes(31).toNanos());
+        verifier.verify(token);
+
+        verify(jwtProvider, times(2)).parse(token);
+    }
+
+    @Test
+    @DisplayName("유효하지 않은 토큰은 empty를 반환하고 캐시하지 않는다")
+    void verify_invalidToken_notCached() {
+        assertThat(verifier.verify("invalid.token.value")).isEmpty();
+        assertThat(verifier.verify("invalid.token.value")).isEmpty();
+
+        verify(jwtProvider, times(2)).parse("invalid.token.value");
+    }
+
+    @Test
+    @DisplayName("다른 키로 서명된 토큰은 거부한다")
+    void verify_differentKey_rejected() {
+        String token = new JwtProvider("other-secret-key-must-be-at-least-32-bytes-long!!", 3600000L)
+                .generateToken(1L, "alice");
+
+        assertThat(verifier.verify(token)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("캐시를 끄면 매번 검증한다")
+    void verify_cacheDisabled_parsesEveryTime() {
+        properties.setEnabled(false);
+        String token = jwtProvider.generateToken(1L, "alice");
+
+        verifier.verify(token);
+        verifier.verify(token);
+
+        verify(jwtProvider, times(2)).parse(token);
+    }
+}
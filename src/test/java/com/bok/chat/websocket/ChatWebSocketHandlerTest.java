@@ -11,30 +11,34 @@ import com.bok.chat.entity.ChatRoomUser;
 import com.bok.chat.entity.Message;
 import com.bok.chat.entity.User;
 import com.bok.chat.redis.OnlineStatusService;
+import com.bok.chat.redis.PresenceTracker;
 import com.bok.chat.redis.RedisMessageRelay;
-import com.bok.chat.repository.UserRepository;
+import com.bok.chat.redis.RoomTopicRelay;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static com.bok.chat.support.TestFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
 import static org.mockito.Mockito.*;
 
 @DisplayName("ChatWebSocketHandler")
@@ -59,24 +63,54 @@ class ChatWebSocketHandlerTest {
     @Mock
     private OnlineStatusService onlineStatusService;
 
+    @Mock
+    private PresenceTracker presenceTracker;
+
     @Mock
     private RedisMessageRelay redisMessageRelay;
 
     @Mock
-    private ServerIdHolder serverIdHolder;
+    private RoomTopicRelay roomTopicRelay;
 
     @Mock
-    private UserRepository userRepository;
+    private ServerIdHolder serverIdHolder;
 
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    @Spy
+    private FrameCodec frameCodec = new FrameCodec(new ObjectMapper());
+
+    @Mock
+    private RoomDispatcher roomDispatcher;
+
+    @Spy
+    private WebSocketOutboundProperties outboundProperties = new WebSocketOutboundProperties();
+
+    @Mock
+    private InboundRateLimiter rateLimiter;
+
     private WebSocketSession session;
 
     @BeforeEach
     void setUp() {
         session = mock(WebSocketSession.class);
         given(session.getAttributes()).willReturn(Map.of("userId", 1L));
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        }).when(roomDispatcher).execute(anyLong(), any(Runnable.class));
+        lenient().when(rateLimiter.check(any(WebSocketSession.class), anyLong(), any(MessageType.class)))
+                .thenReturn(InboundRateLimiter.Decision.ALLOWED);
+        // 유예 기간 없이 바로 상태가 바뀐 것처럼 알림 콜백을 실행한다
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(presenceTracker).connected(anyLong(), any(Runnable.class));
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(presenceTracker).disconnected(anyLong(), any(Runnable.class));
     }
 
     @Nested
@@ -84,81 +118,140 @@ class ChatWebSocketHandlerTest {
     class Connection {
 
         @Test
-        @DisplayName("연결 시 세션 등록, 온라인 설정, 밀린 메시지 전달, 친구에게 상태 알림을 보낸다")
+        @DisplayName("연결 시 세션 등록, 온라인 설정, 친구에게 상태 알림을 보내고 밀린 메시지는 조회하지 않는다")
         void afterConnectionEstablished() {
-            given(chatMessageService.getUndeliveredMessages(1L)).willReturn(List.of());
-            given(userRepository.findById(1L)).willReturn(Optional.of(createUser(1L, "alice")));
             given(friendService.getFriendIds(1L)).willReturn(List.of(2L));
 
             handler.afterConnectionEstablished(session);
 
             verify(sessionManager).register(1L, session);
-            verify(onlineStatusService).setOnline(1L);
-            verify(chatMessageService).getUndeliveredMessages(1L);
+            verify(presenceTracker).connected(eq(1L), any(Runnable.class));
             verify(friendService).getFriendIds(1L);
+            verifyNoInteractions(chatMessageService);
+        }
+
+        @Test
+        @DisplayName("상태 알림의 이름은 핸드셰이크에서 저장한 토큰 클레임을 쓴다")
+        void afterConnectionEstablished_usesUsernameFromClaims() throws Exception {
+            given(session.getAttributes()).willReturn(Map.of("userId", 1L, "username", "alice"));
+            given(friendService.getFriendIds(1L)).willReturn(List.of(2L));
+            OutboundSession friendSession = mock(OutboundSession.class);
+            given(friendSession.isOpen()).willReturn(true);
+            given(sessionManager.getSessions(2L)).willReturn(List.of(friendSession));
+
+            handler.afterConnectionEstablished(session);
+
+            ArgumentCaptor<OutboundFrame> frame = ArgumentCaptor.forClass(OutboundFrame.class);
+            verify(friendSession).send(frame.capture());
+            var status = objectMapper.readTree(frame.getValue().payload());
+            assertThat(status.get("type").asText()).isEqualTo("user.status");
+            assertThat(status.get("senderName").asText()).isEqualTo("alice");
         }
 
         @Test
-        @DisplayName("연결 시 밀린 메시지를 전달한다")
+        @DisplayName("연결 후 클라이언트가 sync를 보내면 그때 밀린 메시지를 조회해 보낸다")
+        void sync_afterConnect_sendsCatchUp() throws Exception {
+            OutboundSession outbound = mock(OutboundSession.class);
+            given(sessionManager.getSession(1L, session)).willReturn(Optional.of(outbound));
+            given(chatMessageService.getMessagesAfter(1L, Map.of(), 20)).willReturn(List.of());
+
+            handler.handleTextMessage(session, new TextMessage("{\"type\":\"sync\",\"lastSeen\":{}}"));
+
+            verify(outbound).resume();
+            verify(chatMessageService).getMessagesAfter(1L, Map.of(), 20);
+        }
+
+        @Test
+        @DisplayName("catch-up-on-connect면 연결 시 밀린 메시지를 방마다 messages.batch 프레임 하나로 전달한다")
         void afterConnectionEstablished_sendsPendingMessages() throws Exception {
+            outboundProperties.setCatchUpOnConnect(true);
             var chatRoom = createChatRoom(1L, 2);
             var sender = createUser(2L, "bob");
             var msg1 = createMessage(10L, chatRoom, sender, "hello", 2);
             var msg2 = createMessage(11L, chatRoom, sender, "world", 2);
 
-            given(chatMessageService.getUndeliveredMessages(1L))
-                    .willReturn(List.of(new UndeliveredMessages(1L, List.of(msg1, msg2))));
-            given(userRepository.findById(1L)).willReturn(Optional.of(createUser(1L, "alice")));
+            OutboundSession outbound = mock(OutboundSession.class);
+            given(outbound.send(any(OutboundFrame.class))).willReturn(true);
+            given(sessionManager.register(1L, session)).willReturn(outbound);
+            given(chatMessageService.getUndeliveredMessages(1L, 20))
+                    .willReturn(List.of(new UndeliveredMessages(1L, List.of(msg1, msg2), true)));
             given(friendService.getFriendIds(1L)).willReturn(List.of());
 
             handler.afterConnectionEstablished(session);
 
-            verify(session, times(2)).sendMessage(any(TextMessage.class));
+            ArgumentCaptor<OutboundFrame> frame = ArgumentCaptor.forClass(OutboundFrame.class);
+            verify(outbound, times(1)).send(frame.capture());
+            var batch = objectMapper.readTree(frame.getValue().payload());
+            assertThat(batch.get("type").asText()).isEqualTo("messages.batch");
+            assertThat(batch.get("chatRoomId").asLong()).isEqualTo(1L);
+            assertThat(batch.get("hasMore").asBoolean()).isTrue();
+            assertThat(batch.get("messages")).hasSize(2);
+            assertThat(batch.get("messages").get(0).get("messageId").asLong()).isEqualTo(10L);
+            assertThat(batch.get("messages").get(0).has("type")).isFalse();
         }
 
         @Test
-        @DisplayName("밀린 메시지 전송 중 IOException 발생 시 나머지 전송을 중단한다")
-        void afterConnectionEstablished_ioException_stopsDelivery() throws Exception {
-            var chatRoom = createChatRoom(1L, 2);
-            var sender = createUser(2L, "bob");
-            var msg1 = createMessage(10L, chatRoom, sender, "hello", 2);
-            var msg2 = createMessage(11L, chatRoom, sender, "world", 2);
+        @DisplayName("재연결 시 resume 마크가 있으면 안 읽은 메시지 전체 대신 delta만 전달한다")
+        void afterConnectionEstablished_withResumeMarks_sendsDeltaOnly() {
+            outboundProperties.setCatchUpOnConnect(true);
+            given(session.getAttributes()).willReturn(Map.of("userId", 1L, "resumeMarks", Map.of(1L, 11L)));
+            OutboundSession outbound = mock(OutboundSession.class);
+            given(sessionManager.register(1L, session)).willReturn(outbound);
+            given(chatMessageService.getMessagesAfter(1L, Map.of(1L, 11L), 20)).willReturn(List.of());
+            given(friendService.getFriendIds(1L)).willReturn(List.of());
+
+            handler.afterConnectionEstablished(session);
+
+            verify(chatMessageService).getMessagesAfter(1L, Map.of(1L, 11L), 20);
+            verify(chatMessageService, never()).getUndeliveredMessages(anyLong(), anyInt());
+        }
 
-            given(chatMessageService.getUndeliveredMessages(1L))
-                    .willReturn(List.of(new UndeliveredMessages(1L, List.of(msg1, msg2))));
-            doThrow(new IOException("broken pipe")).when(session).sendMessage(any(TextMessage.class));
-            given(userRepository.findById(1L)).willReturn(Optional.of(createUser(1L, "alice")));
+        @Test
+        @DisplayName("밀린 메시지 적재가 거부되면 나머지 전송을 중단한다")
+        void afterConnectionEstablished_sessionNotWritable_stopsDelivery() throws Exception {
+            outboundProperties.setCatchUpOnConnect(true);
+            var chatRoom1 = createChatRoom(1L, 2);
+            var chatRoom2 = createChatRoom(2L, 2);
+            var sender = createUser(2L, "bob");
+            var msg1 = createMessage(10L, chatRoom1, sender, "hello", 2);
+            var msg2 = createMessage(11L, chatRoom2, sender, "world", 2);
+
+            OutboundSession outbound = mock(OutboundSession.class);
+            given(outbound.send(any(OutboundFrame.class))).willReturn(false);
+            given(sessionManager.register(1L, session)).willReturn(outbound);
+            given(chatMessageService.getUndeliveredMessages(1L, 20))
+                    .willReturn(List.of(new UndeliveredMessages(1L, List.of(msg1), false),
+                            new UndeliveredMessages(2L, List.of(msg2), false)));
             given(friendService.getFriendIds(1L)).willReturn(List.of());
 
             handler.afterConnectionEstablished(session);
 
-            // IOException 발생 시 첫 메시지만 시도하고 중단
-            verify(session, times(1)).sendMessage(any(TextMessage.class));
+            // 세션이 닫혔거나 버퍼 초과로 끊기면 첫 방의 배치만 시도하고 중단
+            verify(outbound, times(1)).send(any(OutboundFrame.class));
         }
 
         @Test
         @DisplayName("연결 해제 시 세션 제거, 오프라인 설정, 친구에게 상태 알림을 보낸다")
         void afterConnectionClosed() {
             given(sessionManager.remove(1L, session)).willReturn(true);
-            given(userRepository.findById(1L)).willReturn(Optional.of(createUser(1L, "alice")));
             given(friendService.getFriendIds(1L)).willReturn(List.of(2L));
 
             handler.afterConnectionClosed(session, CloseStatus.NORMAL);
 
             verify(sessionManager).remove(1L, session);
-            verify(onlineStatusService).setOffline(1L);
+            verify(presenceTracker).disconnected(eq(1L), any(Runnable.class));
             verify(friendService).getFriendIds(1L);
         }
 
         @Test
-        @DisplayName("이미 새 세션으로 교체된 경우 오프라인 처리하지 않는다")
-        void afterConnectionClosed_staleSession() {
+        @DisplayName("다른 기기의 세션이 남아있으면 오프라인 처리하지 않는다")
+        void afterConnectionClosed_otherDeviceStillConnected() {
             given(sessionManager.remove(1L, session)).willReturn(false);
 
             handler.afterConnectionClosed(session, CloseStatus.NORMAL);
 
             verify(sessionManager).remove(1L, session);
-            verify(onlineStatusService, never()).setOffline(1L);
+            verify(presenceTracker, never()).disconnected(anyLong(), any(Runnable.class));
             verify(friendService, never()).getFriendIds(1L);
         }
     }
@@ -167,6 +260,32 @@ class ChatWebSocketHandlerTest {
     @DisplayName("메시지 전송 (MESSAGE_SEND)")
     class SendMessage {
 
+        @Test
+        @DisplayName("room 채널 모드면 서버 조회 없이 로컬 세션에 보내고 방 채널에 한 번 publish한다")
+        void handleSendMessage_roomTopicMode() throws Exception {
+            var chatRoom = createChatRoom(1L, 3);
+            var sender = createUser(1L, "alice");
+            var message = createMessage(1L, chatRoom, sender, "hello", 3);
+            var members = List.of(createChatRoomUser(1L, chatRoom, sender),
+                    createChatRoomUser(2L, chatRoom, createUser(2L, "bob")),
+                    createChatRoomUser(3L, chatRoom, createUser(3L, "charlie")));
+
+            given(chatMessageService.sendMessage(1L, 1L, "hello"))
+                    .willReturn(new SendResult(message, sender, members));
+            given(roomTopicRelay.shouldPublishToRoom(1L, 3, MessageType.MESSAGE_RECEIVED)).willReturn(true);
+            OutboundSession senderSession = mock(OutboundSession.class);
+            given(senderSession.isOpen()).willReturn(true);
+            given(sessionManager.getSessions(1L)).willReturn(List.of(senderSession));
+
+            String payload = "{\"type\":\"message.send\",\"chatRoomId\":1,\"content\":\"hello\"}";
+            handler.handleTextMessage(session, new TextMessage(payload));
+
+            verify(senderSession).send(any(OutboundFrame.class));
+            verify(roomTopicRelay).publish(eq(1L), eq(List.of(1L, 2L, 3L)), any(OutboundFrame.class));
+            verify(onlineStatusService, never()).getServerIds(any());
+            verify(redisMessageRelay, never()).relay(any(), any());
+        }
+
         @Test
         @DisplayName("메시지 전송 시 채팅방 멤버에게 메시지를 전달한다")
         void handleSendMessage() throws Exception {
@@ -180,23 +299,77 @@ class ChatWebSocketHandlerTest {
             given(chatMessageService.sendMessage(1L, 1L, "hello"))
                     .willReturn(new SendResult(message, sender, List.of(member1, member2)));
 
-            WebSocketSession senderSession = mock(WebSocketSession.class);
+            OutboundSession senderSession = mock(OutboundSession.class);
+            given(senderSession.isOpen()).willReturn(true);
+            OutboundSession receiverSession = mock(OutboundSession.class);
+            given(receiverSession.isOpen()).willReturn(true);
+            given(sessionManager.getSessions(1L)).willReturn(List.of(senderSession));
+            given(sessionManager.getSessions(2L)).willReturn(List.of(receiverSession));
+
+            String payload = "{\"type\":\"message.send\",\"chatRoomId\":1,\"content\":\"hello\"}";
+            handler.handleTextMessage(session, new TextMessage(payload));
+
+            verify(senderSession).send(any(OutboundFrame.class));
+            verify(receiverSession).send(any(OutboundFrame.class));
+        }
+
+        @Test
+        @DisplayName("멤버 수와 관계없이 한 번만 직렬화하고 같은 프레임을 공유한다")
+        void handleSendMessage_encodesOnce() throws Exception {
+            var chatRoom = createChatRoom(1L, 2);
+            var sender = createUser(1L, "alice");
+            var receiver = createUser(2L, "bob");
+            var message = createMessage(1L, chatRoom, sender, "hello", 2);
+            var member1 = createChatRoomUser(1L, chatRoom, sender);
+            var member2 = createChatRoomUser(2L, chatRoom, receiver);
+
+            given(chatMessageService.sendMessage(1L, 1L, "hello"))
+                    .willReturn(new SendResult(message, sender, List.of(member1, member2)));
+
+            OutboundSession senderSession = mock(OutboundSession.class);
             given(senderSession.isOpen()).willReturn(true);
-            WebSocketSession receiverSession = mock(WebSocketSession.class);
+            OutboundSession receiverSession = mock(OutboundSession.class);
             given(receiverSession.isOpen()).willReturn(true);
-            given(sessionManager.getSession(1L)).willReturn(senderSession);
-            given(sessionManager.getSession(2L)).willReturn(receiverSession);
+            given(sessionManager.getSessions(1L)).willReturn(List.of(senderSession));
+            given(sessionManager.getSessions(2L)).willReturn(List.of(receiverSession));
 
             String payload = "{\"type\":\"message.send\",\"chatRoomId\":1,\"content\":\"hello\"}";
             handler.handleTextMessage(session, new TextMessage(payload));
 
-            verify(senderSession).sendMessage(any(TextMessage.class));
-            verify(receiverSession).sendMessage(any(TextMessage.class));
+            ArgumentCaptor<OutboundFrame> senderFrame = ArgumentCaptor.forClass(OutboundFrame.class);
+            ArgumentCaptor<OutboundFrame> receiverFrame = ArgumentCaptor.forClass(OutboundFrame.class);
+            verify(senderSession).send(senderFrame.capture());
+            verify(receiverSession).send(receiverFrame.capture());
+            assertThat(senderFrame.getValue()).isSameAs(receiverFrame.getValue());
+            verify(objectMapper, times(1)).writeValueAsString(any(WebSocketMessage.class));
+        }
+
+        @Test
+        @DisplayName("CBOR 바이너리 프레임도 JSON과 같은 명령으로 처리한다")
+        void handleBinaryMessage_dispatchesSameCommand() throws Exception {
+            var chatRoom = createChatRoom(1L, 2);
+            var sender = createUser(1L, "alice");
+            var message = createMessage(1L, chatRoom, sender, "hello", 2);
+            var member1 = createChatRoomUser(1L, chatRoom, sender);
+
+            given(chatMessageService.sendMessage(1L, 1L, "hello"))
+                    .willReturn(new SendResult(message, sender, List.of(member1)));
+
+            String json = "{\"type\":\"message.send\",\"chatRoomId\":1,\"content\":\"hello\"}";
+            handler.handleBinaryMessage(session, new BinaryMessage(frameCodec.transcode(json)));
+
+            verify(chatMessageService).sendMessage(1L, 1L, "hello");
+        }
+
+        @Test
+        @DisplayName("JSON과 CBOR 서브프로토콜을 모두 광고한다")
+        void getSubProtocols() {
+            assertThat(handler.getSubProtocols()).containsExactly("chat.json.v1", "chat.cbor.v1");
         }
 
         @Test
-        @DisplayName("로컬 세션 전송 중 IOException 발생 시 예외를 전파하지 않고 나머지 멤버에게 계속 전송한다")
-        void handleSendMessage_ioException_continuesForOtherMembers() throws Exception {
+        @DisplayName("한 멤버의 세션이 적재를 거부해도 나머지 멤버에게 계속 전송한다")
+        void handleSendMessage_sessionRejects_continuesForOtherMembers() throws Exception {
             var chatRoom = createChatRoom(1L, 3);
             var sender = createUser(1L, "alice");
             var user2 = createUser(2L, "bob");
@@ -209,26 +382,26 @@ class ChatWebSocketHandlerTest {
             given(chatMessageService.sendMessage(1L, 1L, "hello"))
                     .willReturn(new SendResult(message, sender, List.of(member1, member2, member3)));
 
-            WebSocketSession senderSession = mock(WebSocketSession.class);
+            OutboundSession senderSession = mock(OutboundSession.class);
             given(senderSession.isOpen()).willReturn(true);
-            given(sessionManager.getSession(1L)).willReturn(senderSession);
+            given(sessionManager.getSessions(1L)).willReturn(List.of(senderSession));
 
-            // bob 세션은 IOException 발생
-            WebSocketSession bobSession = mock(WebSocketSession.class);
+            // bob 세션은 버퍼 초과로 적재 거부
+            OutboundSession bobSession = mock(OutboundSession.class);
             given(bobSession.isOpen()).willReturn(true);
-            doThrow(new IOException("broken pipe")).when(bobSession).sendMessage(any());
-            given(sessionManager.getSession(2L)).willReturn(bobSession);
+            given(bobSession.send(any())).willReturn(false);
+            given(sessionManager.getSessions(2L)).willReturn(List.of(bobSession));
 
             // charlie 세션은 정상
-            WebSocketSession charlieSession = mock(WebSocketSession.class);
+            OutboundSession charlieSession = mock(OutboundSession.class);
             given(charlieSession.isOpen()).willReturn(true);
-            given(sessionManager.getSession(3L)).willReturn(charlieSession);
+            given(sessionManager.getSessions(3L)).willReturn(List.of(charlieSession));
 
             String payload = "{\"type\":\"message.send\",\"chatRoomId\":1,\"content\":\"hello\"}";
             handler.handleTextMessage(session, new TextMessage(payload));
 
             // bob에게 전송 실패해도 charlie에게는 정상 전송된다
-            verify(charlieSession).sendMessage(any(TextMessage.class));
+            verify(charlieSession).send(any(OutboundFrame.class));
         }
 
         @Test
@@ -244,17 +417,17 @@ class ChatWebSocketHandlerTest {
             given(chatMessageService.sendMessage(1L, 1L, "hello"))
                     .willReturn(new SendResult(message, sender, List.of(member1, member2)));
 
-            WebSocketSession senderSession = mock(WebSocketSession.class);
+            OutboundSession senderSession = mock(OutboundSession.class);
             given(senderSession.isOpen()).willReturn(true);
-            given(sessionManager.getSession(1L)).willReturn(senderSession);
-            given(sessionManager.getSession(2L)).willReturn(null);
-            given(onlineStatusService.getServerId(2L)).willReturn("my-server");
+            given(sessionManager.getSessions(1L)).willReturn(List.of(senderSession));
+            given(sessionManager.getSessions(2L)).willReturn(List.of());
+            given(onlineStatusService.getServerIds(List.of(2L))).willReturn(Map.of(2L, "my-server"));
             given(serverIdHolder.getServerId()).willReturn("my-server");
 
             String payload = "{\"type\":\"message.send\",\"chatRoomId\":1,\"content\":\"hello\"}";
             handler.handleTextMessage(session, new TextMessage(payload));
 
-            verify(redisMessageRelay, never()).relayToUser(anyLong(), anyString(), any());
+            verify(redisMessageRelay, never()).relay(any(), any());
         }
 
         @Test
@@ -270,17 +443,49 @@ class ChatWebSocketHandlerTest {
             given(chatMessageService.sendMessage(1L, 1L, "hello"))
                     .willReturn(new SendResult(message, sender, List.of(member1, member2)));
 
-            WebSocketSession senderSession = mock(WebSocketSession.class);
+            OutboundSession senderSession = mock(OutboundSession.class);
+            given(senderSession.isOpen()).willReturn(true);
+            given(sessionManager.getSessions(1L)).willReturn(List.of(senderSession));
+            given(sessionManager.getSessions(2L)).willReturn(List.of());
+            given(onlineStatusService.getServerIds(List.of(2L))).willReturn(Map.of(2L, "other-server"));
+            given(serverIdHolder.getServerId()).willReturn("my-server");
+
+            String payload = "{\"type\":\"message.send\",\"chatRoomId\":1,\"content\":\"hello\"}";
+            handler.handleTextMessage(session, new TextMessage(payload));
+
+            verify(redisMessageRelay).relay(eq(Map.of("other-server", List.of(2L))), any(OutboundFrame.class));
+        }
+        @Test
+        @DisplayName("타 서버 수신자의 라우팅은 한 번에 조회하고, 대상 서버별로 묶어 한 번씩만 중계한다")
+        void handleSendMessage_groupsRemoteRecipientsByServer() throws Exception {
+            var chatRoom = createChatRoom(1L, 4);
+            var sender = createUser(1L, "alice");
+            var member1 = createChatRoomUser(1L, chatRoom, sender);
+            var member2 = createChatRoomUser(2L, chatRoom, createUser(2L, "bob"));
+            var member3 = createChatRoomUser(3L, chatRoom, createUser(3L, "charlie"));
+            var member4 = createChatRoomUser(4L, chatRoom, createUser(4L, "dave"));
+            var message = createMessage(1L, chatRoom, sender, "hello", 4);
+
+            given(chatMessageService.sendMessage(1L, 1L, "hello"))
+                    .willReturn(new SendResult(message, sender, List.of(member1, member2, member3, member4)));
+
+            OutboundSession senderSession = mock(OutboundSession.class);
             given(senderSession.isOpen()).willReturn(true);
-            given(sessionManager.getSession(1L)).willReturn(senderSession);
-            given(sessionManager.getSession(2L)).willReturn(null);
-            given(onlineStatusService.getServerId(2L)).willReturn("other-server");
+            given(sessionManager.getSessions(1L)).willReturn(List.of(senderSession));
+            given(sessionManager.getSessions(2L)).willReturn(List.of());
+            given(sessionManager.getSessions(3L)).willReturn(List.of());
+            given(sessionManager.getSessions(4L)).willReturn(List.of());
+            given(onlineStatusService.getServerIds(List.of(2L, 3L, 4L)))
+                    .willReturn(Map.of(2L, "server-b", 3L, "server-b", 4L, "server-c"));
             given(serverIdHolder.getServerId()).willReturn("my-server");
 
             String payload = "{\"type\":\"message.send\",\"chatRoomId\":1,\"content\":\"hello\"}";
             handler.handleTextMessage(session, new TextMessage(payload));
 
-            verify(redisMessageRelay).relayToUser(eq(2L), eq("other-server"), any(WebSocketMessage.class));
+            verify(onlineStatusService, never()).getServerId(anyLong());
+            verify(redisMessageRelay).relay(
+                    eq(Map.of("server-b", List.of(2L, 3L), "server-c", List.of(4L))),
+                    any(OutboundFrame.class));
         }
     }
 
@@ -300,15 +505,15 @@ class ChatWebSocketHandlerTest {
             given(chatMessageService.readMessages(1L, 1L))
                     .willReturn(new BulkReadResult(true, 1L, 1L, 10L, List.of(member1, member2)));
 
-            WebSocketSession otherSession = mock(WebSocketSession.class);
+            OutboundSession otherSession = mock(OutboundSession.class);
             given(otherSession.isOpen()).willReturn(true);
-            given(sessionManager.getSession(2L)).willReturn(otherSession);
+            given(sessionManager.getSessions(2L)).willReturn(List.of(otherSession));
 
             String payload = "{\"type\":\"message.read\",\"chatRoomId\":1}";
             handler.handleTextMessage(session, new TextMessage(payload));
 
-            verify(otherSession).sendMessage(any(TextMessage.class));
-            verify(sessionManager, never()).getSession(1L);
+            verify(otherSession).send(any(OutboundFrame.class));
+            verify(sessionManager, never()).getSessions(1L);
         }
 
         @Test
@@ -320,7 +525,7 @@ class ChatWebSocketHandlerTest {
             String payload = "{\"type\":\"message.read\",\"chatRoomId\":1}";
             handler.handleTextMessage(session, new TextMessage(payload));
 
-            verify(sessionManager, never()).getSession(anyLong());
+            verify(sessionManager, never()).getSessions(anyLong());
         }
     }
 
@@ -335,6 +540,124 @@ class ChatWebSocketHandlerTest {
             handler.handleTextMessage(session, new TextMessage(payload));
 
             verify(onlineStatusService).refreshOnline(1L);
+            verify(roomDispatcher, never()).execute(anyLong(), any(Runnable.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("속도 제한")
+    class RateLimit {
+
+        @Test
+        @DisplayName("한도를 넘은 명령은 처리하지 않고 error 프레임을 보낸다")
+        void throttled_sendsErrorFrame() throws Exception {
+            OutboundSession outbound = mock(OutboundSession.class);
+            given(sessionManager.getSession(1L, session)).willReturn(Optional.of(outbound));
+            given(rateLimiter.check(session, 1L, MessageType.MESSAGE_SEND))
+                    .willReturn(InboundRateLimiter.Decision.THROTTLED);
+
+            String payload = "{\"type\":\"message.send\",\"chatRoomId\":1,\"content\":\"spam\"}";
+            handler.handleTextMessage(session, new TextMessage(payload));
+
+            ArgumentCaptor<OutboundFrame> frame = ArgumentCaptor.forClass(OutboundFrame.class);
+            verify(outbound).send(frame.capture());
+            var error = objectMapper.readTree(frame.getValue().payload());
+            assertThat(error.get("type").asText()).isEqualTo("error");
+            assertThat(error.get("error").asText()).isEqualTo("rate_limited");
+            assertThat(error.get("content").asText()).isEqualTo("message.send");
+            verify(roomDispatcher, never()).execute(anyLong(), any(Runnable.class));
+            verify(chatMessageService, never()).sendMessage(anyLong(), anyLong(), anyString());
+        }
+
+        @Test
+        @DisplayName("반복해서 한도를 넘기면 POLICY_VIOLATION으로 연결을 끊는다")
+        void repeatedViolations_closeSession() throws Exception {
+            OutboundSession outbound = mock(OutboundSession.class);
+            given(sessionManager.getSession(1L, session)).willReturn(Optional.of(outbound));
+            given(rateLimiter.check(session, 1L, MessageType.MESSAGE_SEND))
+                    .willReturn(InboundRateLimiter.Decision.CLOSE);
+
+            String payload = "{\"type\":\"message.send\",\"chatRoomId\":1,\"content\":\"spam\"}";
+            handler.handleTextMessage(session, new TextMessage(payload));
+
+            verify(outbound).close(CloseStatus.POLICY_VIOLATION);
+            verify(outbound, never()).send(any(OutboundFrame.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("동기화")
+    class Sync {
+
+        @Test
+        @DisplayName("sync 프레임을 받으면 요청한 세션에만 마지막 수신 이후 메시지를 보낸다")
+        void handleSync_sendsDeltaToRequestingSession() throws Exception {
+            var chatRoom = createChatRoom(3L, 2);
+            var msg = createMessage(42L, chatRoom, createUser(2L, "bob"), "missed", 2);
+            OutboundSession outbound = mock(OutboundSession.class);
+            given(outbound.send(any(OutboundFrame.class))).willReturn(true);
+            given(sessionManager.getSession(1L, session)).willReturn(Optional.of(outbound));
+            given(chatMessageService.getMessagesAfter(1L, Map.of(3L, 41L), 20))
+                    .willReturn(List.of(new UndeliveredMessages(3L, List.of(msg), false)));
+
+            String payload = "{\"type\":\"sync\",\"lastSeen\":{\"3\":41}}";
+            handler.handleTextMessage(session, new TextMessage(payload));
+
+            verify(outbound).send(any(OutboundFrame.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("방별 순서 보장")
+    class RoomOrdering {
+
+        @Test
+        @DisplayName("방이 지정된 명령은 해당 방의 레인으로 넘긴다")
+        void roomCommand_dispatchedToRoomLane() throws Exception {
+            given(chatMessageService.readMessages(1L, 5L))
+                    .willReturn(BulkReadResult.nothingToRead());
+
+            String payload = "{\"type\":\"message.read\",\"chatRoomId\":5}";
+            handler.handleTextMessage(session, new TextMessage(payload));
+
+            verify(roomDispatcher).execute(eq(5L), any(Runnable.class));
+            verify(chatMessageService).readMessages(1L, 5L);
+        }
+
+        @Test
+        @DisplayName("레인이 가득 차면 처리하지 않고 요청한 세션에 busy error 프레임을 보낸다")
+        void laneFull_sendsBusyError() throws Exception {
+            OutboundSession outbound = mock(OutboundSession.class);
+            given(sessionManager.getSession(1L, session)).willReturn(Optional.of(outbound));
+            willReturn(false).given(roomDispatcher).execute(anyLong(), any(Runnable.class));
+
+            String payload = "{\"type\":\"message.send\",\"chatRoomId\":5,\"content\":\"hi\"}";
+            handler.handleTextMessage(session, new TextMessage(payload));
+
+            ArgumentCaptor<OutboundFrame> frame = ArgumentCaptor.forClass(OutboundFrame.class);
+            verify(outbound).send(frame.capture());
+            var error = objectMapper.readTree(frame.getValue().payload());
+            assertThat(error.get("error").asText()).isEqualTo("busy");
+            assertThat(error.get("content").asText()).isEqualTo("message.send");
+            verify(chatMessageService, never()).sendMessage(anyLong(), anyLong(), anyString());
+        }
+
+        @Test
+        @DisplayName("레인에서 잘못된 요청으로 실패하면 요청한 세션에 invalid_request error 프레임을 보낸다")
+        void laneTaskFails_sendsErrorToSender() throws Exception {
+            OutboundSession outbound = mock(OutboundSession.class);
+            given(sessionManager.getSession(1L, session)).willReturn(Optional.of(outbound));
+            given(chatMessageService.sendMessage(1L, 5L, "hi"))
+                    .willThrow(new IllegalArgumentException("채팅방 멤버가 아닙니다."));
+
+            String payload = "{\"type\":\"message.send\",\"chatRoomId\":5,\"content\":\"hi\"}";
+            handler.handleTextMessage(session, new TextMessage(payload));
+
+            ArgumentCaptor<OutboundFrame> frame = ArgumentCaptor.forClass(OutboundFrame.class);
+            verify(outbound).send(frame.capture());
+            var error = objectMapper.readTree(frame.getValue().payload());
+            assertThat(error.get("error").asText()).isEqualTo("invalid_request");
+            assertThat(error.get("chatRoomId").asLong()).isEqualTo(5L);
         }
     }
 }
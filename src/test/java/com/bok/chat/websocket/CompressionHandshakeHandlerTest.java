@@ -0,0 +1,40 @@
+package com.bok.chat.websocket;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("CompressionHandshakeHandler")
+class CompressionHandshakeHandlerTest {
+
+    private final WebSocketCompressionProperties properties = new WebSocketCompressionProperties();
+    private final CompressionHandshakeHandler handler = new CompressionHandshakeHandler(properties);
+
+    private final List<WebSocketExtension> deflate = List.of(new WebSocketExtension("permessage-deflate"));
+
+    @Test
+    @DisplayName("압축이 켜져 있으면 permessage-deflate를 협상한다")
+    void enabled_negotiatesDeflate() {
+        List<WebSocketExtension> negotiated =
+                handler.filterRequestedExtensions(mock(ServerHttpRequest.class), deflate, deflate);
+
+        assertThat(negotiated).extracting(WebSocketExtension::getName).containsExactly("permessage-deflate");
+    }
+
+    @Test
+    @DisplayName("압축이 꺼져 있으면 클라이언트가 요청해도 협상하지 않는다")
+    void disabled_dropsDeflate() {
+        properties.setEnabled(false);
+
+        List<WebSocketExtension> negotiated =
+                handler.filterRequestedExtensions(mock(ServerHttpRequest.class), deflate, deflate);
+
+        assertThat(negotiated).isEmpty();
+    }
+}
@@ -0,0 +1,53 @@
+package com.bok.chat.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CompressionReport")
+class CompressionReportTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WebSocketCompressionProperties properties = new WebSocketCompressionProperties();
+    private final CompressionReport report = new CompressionReport(properties, meterRegistry);
+
+    @Test
+    @DisplayName("기준 크기 미만/이상 프레임을 나눠 집계한다")
+    void record_splitsByThreshold() {
+        report.record("{\"type\":\"heartbeat\"}".getBytes(StandardCharsets.UTF_8));
+        report.record("{\"content\":\"hello\"}".repeat(50).getBytes(StandardCharsets.UTF_8));
+
+        Map<String, Object> result = report.report();
+
+        assertThat(snapshot(result, "belowThreshold").get("samples")).isEqualTo(1L);
+        assertThat(snapshot(result, "aboveThreshold").get("samples")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("반복이 많은 큰 프레임은 압축률이 1보다 작게 기록된다")
+    void record_repetitiveFrameCompresses() {
+        report.record("{\"content\":\"hello\"}".repeat(50).getBytes(StandardCharsets.UTF_8));
+
+        double meanRatio = (double) snapshot(report.report(), "aboveThreshold").get("meanRatio");
+
+        assertThat(meanRatio).isLessThan(0.2);
+    }
+
+    @Test
+    @DisplayName("샘플링 비율이 0이면 샘플링하지 않는다")
+    void shouldSample_disabled() {
+        properties.setSampleRate(0);
+
+        assertThat(report.shouldSample()).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> snapshot(Map<String, Object> report, String key) {
+        return (Map<String, Object>) report.get(key);
+    }
+}
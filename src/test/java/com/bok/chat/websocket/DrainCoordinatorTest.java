@@ -0,0 +1,95 @@
+package com.bok.chat.websocket;
+
+import com.bok.chat.redis.ServerRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("DrainCoordinator")
+class DrainCoordinatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DrainProperties properties = new DrainProperties();
+    private WebSocketSessionManager sessionManager;
+    private ServerRegistry serverRegistry;
+    private DrainCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        sessionManager = mock(WebSocketSessionManager.class);
+        serverRegistry = mock(ServerRegistry.class);
+        properties.setWaves(2);
+        properties.setWaveInterval(Duration.ofMillis(10));
+        coordinator = new DrainCoordinator(sessionManager, serverRegistry, objectMapper, properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("모든 세션에 묶음 구간 안의 재접속 시점을 안내하고, 남아 있는 세션만 1012로 닫는다")
+    void runWaves_announcesThenClosesStragglers() throws Exception {
+        OutboundSession stays = session(true);
+        OutboundSession alreadyLeft = session(false);
+        sessions(stays, alreadyLeft);
+
+        DrainCoordinator.DrainReport report = coordinator.runWaves();
+
+        for (OutboundSession session : List.of(stays, alreadyLeft)) {
+            ArgumentCaptor<OutboundFrame> frame = ArgumentCaptor.forClass(OutboundFrame.class);
+            verify(session).send(frame.capture());
+            WebSocketMessage notice = objectMapper.readValue(frame.getValue().payload(), WebSocketMessage.class);
+            assertThat(notice.getType()).isEqualTo(MessageType.SERVER_DRAINING);
+            assertThat(notice.getReconnectAfterMs()).isBetween(0L, 19L);
+        }
+        verify(stays).close(CloseStatus.SERVICE_RESTARTED);
+        verify(alreadyLeft, never()).close(any());
+        assertThat(report).isEqualTo(new DrainCoordinator.DrainReport(2, 2, 1));
+        assertThat(meterRegistry.counter("chat.websocket.drain.closed").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("드레인을 시작하면 배치 ring에서 빠지고, 다시 호출해도 한 번만 진행한다")
+    void drain_deregistersOnce() throws Exception {
+        sessions();
+
+        var first = coordinator.drain();
+        var second = coordinator.drain();
+
+        assertThat(coordinator.isDraining()).isTrue();
+        assertThat(second).isSameAs(first);
+        assertThat(first.get(1, TimeUnit.SECONDS).sessions()).isZero();
+        verify(serverRegistry).deregister();
+    }
+
+    private void sessions(OutboundSession... sessions) {
+        doAnswer(invocation -> {
+            BiConsumer<Long, OutboundSession> action = invocation.getArgument(0);
+            for (int i = 0; i < sessions.length; i++) {
+                action.accept((long) i, sessions[i]);
+            }
+            return null;
+        }).when(sessionManager).forEachSession(any());
+    }
+
+    private static OutboundSession session(boolean open) {
+        OutboundSession session = mock(OutboundSession.class);
+        given(session.isOpen()).willReturn(open);
+        return session;
+    }
+}
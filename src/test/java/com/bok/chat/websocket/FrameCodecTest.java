@@ -0,0 +1,47 @@
+package com.bok.chat.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FrameCodec")
+class FrameCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FrameCodec codec = new FrameCodec(objectMapper);
+
+    private final WebSocketMessage message = WebSocketMessage.fileMessageReceived(1L, 42L, "alice", 1_000L, 3,
+            77L, "quarterly-report-final.pdf", "application/pdf", 2_345_678L);
+
+    @Test
+    @DisplayName("CBOR로 인코딩한 프레임을 그대로 디코딩할 수 있다")
+    void encodeDecode_roundTrip() throws Exception {
+        WebSocketMessage decoded = codec.decode(ByteBuffer.wrap(codec.encode(message)));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(message);
+    }
+
+    @Test
+    @DisplayName("짧은 키를 쓰는 CBOR 프레임이 JSON보다 작다")
+    void encode_smallerThanJson() throws Exception {
+        int json = objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8).length;
+        int cbor = codec.encode(message).length;
+
+        assertThat(cbor).isLessThan(json);
+    }
+
+    @Test
+    @DisplayName("중계로 받은 JSON payload를 변환한 결과는 원본 객체를 직접 인코딩한 것과 같다")
+    void transcode_matchesDirectEncoding() throws Exception {
+        String json = objectMapper.writeValueAsString(message);
+
+        WebSocketMessage decoded = codec.decode(ByteBuffer.wrap(codec.transcode(json)));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(message);
+    }
+}
@@ -0,0 +1,119 @@
+package com.bok.chat.websocket;
+
+import com.bok.chat.websocket.InboundRateLimiter.Decision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("InboundRateLimiter")
+class InboundRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+    private InboundRateLimitProperties properties;
+    private InboundRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new InboundRateLimitProperties();
+        properties.setSession(Map.of(MessageType.MESSAGE_SEND, new InboundRateLimitProperties.Limit(1, 2)));
+        properties.setUser(Map.of(MessageType.MESSAGE_SEND, new InboundRateLimitProperties.Limit(1, 3)));
+        properties.setViolationsBeforeClose(2);
+        limiter = new InboundRateLimiter(properties, meterRegistry, nanos::get);
+    }
+
+    @Test
+    @DisplayName("burst만큼은 바로 허용하고 이후에는 초당 rate만큼 다시 채워진다")
+    void burstThenRefill() {
+        WebSocketSession session = session("s1");
+
+        assertThat(limiter.check(session, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.ALLOWED);
+        assertThat(limiter.check(session, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.ALLOWED);
+        assertThat(limiter.check(session, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.THROTTLED);
+
+        nanos.addAndGet(1_000_000_000L);
+
+        assertThat(limiter.check(session, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.ALLOWED);
+        assertThat(meterRegistry.counter("chat.websocket.inbound.throttled",
+                "scope", "session", "type", "message.send").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("설정하지 않은 타입은 제한하지 않는다")
+    void unconfiguredType_notLimited() {
+        WebSocketSession session = session("s1");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.check(session, 1L, MessageType.HEARTBEAT)).isEqualTo(Decision.ALLOWED);
+        }
+    }
+
+    @Test
+    @DisplayName("여러 세션을 열어도 유저 한도는 모든 세션을 합쳐서 적용된다")
+    void userLimit_sharedAcrossSessions() {
+        WebSocketSession phone = session("phone");
+        WebSocketSession desktop = session("desktop");
+
+        assertThat(limiter.check(phone, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.ALLOWED);
+        assertThat(limiter.check(phone, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.ALLOWED);
+        assertThat(limiter.check(desktop, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.ALLOWED);
+        assertThat(limiter.check(desktop, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.THROTTLED);
+        assertThat(meterRegistry.counter("chat.websocket.inbound.throttled",
+                "scope", "user", "type", "message.send").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("위반이 violationsBeforeClose에 도달하면 CLOSE를 반환한다")
+    void repeatedViolations_close() {
+        WebSocketSession session = session("s1");
+        limiter.check(session, 1L, MessageType.MESSAGE_SEND);
+        limiter.check(session, 1L, MessageType.MESSAGE_SEND);
+
+        assertThat(limiter.check(session, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.THROTTLED);
+        assertThat(limiter.check(session, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.CLOSE);
+    }
+
+    @Test
+    @DisplayName("마지막 위반 후 violationWindow 동안 조용했으면 위반 횟수를 다시 센다")
+    void violationsResetAfterQuietWindow() {
+        properties.setViolationWindow(Duration.ofSeconds(60));
+        WebSocketSession session = session("s1");
+        limiter.check(session, 1L, MessageType.MESSAGE_SEND);
+        limiter.check(session, 1L, MessageType.MESSAGE_SEND);
+        assertThat(limiter.check(session, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.THROTTLED);
+
+        nanos.addAndGet(Duration.ofSeconds(61).toNanos());
+        limiter.check(session, 1L, MessageType.MESSAGE_SEND);
+        limiter.check(session, 1L, MessageType.MESSAGE_SEND);
+
+        assertThat(limiter.check(session, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.THROTTLED);
+        assertThat(limiter.check(session, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.CLOSE);
+    }
+
+    @Test
+    @DisplayName("비활성화하면 모든 명령을 허용한다")
+    void disabled_allowsEverything() {
+        properties.setEnabled(false);
+        WebSocketSession session = session("s1");
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.check(session, 1L, MessageType.MESSAGE_SEND)).isEqualTo(Decision.ALLOWED);
+        }
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        given(session.getId()).willReturn(id);
+        return session;
+    }
+}
@@ -1,23 +1,29 @@
 package com.bok.chat.websocket;
 
-import com.bok.chat.security.JwtProvider;
+import com.bok.chat.security.JwtPrincipal;
+import com.bok.chat.security.TokenVerifier;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.web.socket.WebSocketHandler;
 
 import java.net.URI;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @DisplayName("JwtHandshakeInterceptor")
 @ExtendWith(MockitoExtension.class)
@@ -27,7 +33,10 @@ class JwtHandshakeInterceptorTest {
     private JwtHandshakeInterceptor interceptor;
 
     @Mock
-    private JwtProvider jwtProvider;
+    private TokenVerifier tokenVerifier;
+
+    @Mock
+    private DrainCoordinator drainCoordinator;
 
     @Mock
     private ServerHttpResponse response;
@@ -36,18 +45,45 @@ class JwtHandshakeInterceptorTest {
     private WebSocketHandler wsHandler;
 
     @Test
-    @DisplayName("유효한 토큰이면 핸드셰이크를 허용하고 userId를 attributes에 저장한다")
+    @DisplayName("유효한 토큰이면 핸드셰이크를 허용하고 userId와 username 클레임을 attributes에 저장한다")
     void validToken_allowsHandshake() {
         ServerHttpRequest request = mock(ServerHttpRequest.class);
         given(request.getURI()).willReturn(URI.create("ws://localhost/ws?token=valid-token"));
-        given(jwtProvider.validateToken("valid-token")).willReturn(true);
-        given(jwtProvider.getUserId("valid-token")).willReturn(1L);
+        given(tokenVerifier.verify("valid-token")).willReturn(principal());
 
         Map<String, Object> attributes = new HashMap<>();
         boolean result = interceptor.beforeHandshake(request, response, wsHandler, attributes);
 
         assertThat(result).isTrue();
         assertThat(attributes.get("userId")).isEqualTo(1L);
+        assertThat(attributes.get("username")).isEqualTo("alice");
+    }
+
+    @Test
+    @DisplayName("resume 파라미터가 있으면 방별 마지막 수신 ID를 attributes에 저장한다")
+    void resumeParam_storesMarks() {
+        ServerHttpRequest request = mock(ServerHttpRequest.class);
+        given(request.getURI()).willReturn(URI.create("ws://localhost/ws?token=valid-token&resume=1:10,2:25"));
+        given(tokenVerifier.verify("valid-token")).willReturn(principal());
+
+        Map<String, Object> attributes = new HashMap<>();
+        interceptor.beforeHandshake(request, response, wsHandler, attributes);
+
+        assertThat(attributes.get("resumeMarks")).isEqualTo(Map.of(1L, 10L, 2L, 25L));
+    }
+
+    @Test
+    @DisplayName("resume 파라미터 형식이 잘못되면 무시하고 핸드셰이크는 허용한다")
+    void malformedResumeParam_ignored() {
+        ServerHttpRequest request = mock(ServerHttpRequest.class);
+        given(request.getURI()).willReturn(URI.create("ws://localhost/ws?token=valid-token&resume=oops"));
+        given(tokenVerifier.verify("valid-token")).willReturn(principal());
+
+        Map<String, Object> attributes = new HashMap<>();
+        boolean result = interceptor.beforeHandshake(request, response, wsHandler, attributes);
+
+        assertThat(result).isTrue();
+        assertThat(attributes).doesNotContainKey("resumeMarks");
     }
 
     @Test
@@ -55,7 +91,7 @@ class JwtHandshakeInterceptorTest {
     void invalidToken_rejectsHandshake() {
         ServerHttpRequest request = mock(ServerHttpRequest.class);
         given(request.getURI()).willReturn(URI.create("ws://localhost/ws?token=bad-token"));
-        given(jwtProvider.validateToken("bad-token")).willReturn(false);
+        given(tokenVerifier.verify("bad-token")).willReturn(Optional.empty());
 
         Map<String, Object> attributes = new HashMap<>();
         boolean result = interceptor.beforeHandshake(request, response, wsHandler, attributes);
@@ -74,4 +110,21 @@ class JwtHandshakeInterceptorTest {
 
         assertThat(result).isFalse();
     }
+
+    @Test
+    @DisplayName("드레인 중이면 토큰을 보지 않고 503으로 핸드셰이크를 거부한다")
+    void draining_rejectsHandshake() {
+        ServerHttpRequest request = mock(ServerHttpRequest.class);
+        given(drainCoordinator.isDraining()).willReturn(true);
+
+        boolean result = interceptor.beforeHandshake(request, response, wsHandler, new HashMap<>());
+
+        assertThat(result).isFalse();
+        verify(response).setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        verifyNoInteractions(tokenVerifier);
+    }
+
+    private static Optional<JwtPrincipal> principal() {
+        return Optional.of(new JwtPrincipal(1L, "alice", Instant.now().plusSeconds(60)));
+    }
 }
@@ -0,0 +1,258 @@
+package com.bok.chat.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OutboundSession")
+class OutboundSessionTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> pendingDrains = new ArrayList<>();
+    private final AtomicLong nanos = new AtomicLong();
+    private long nextSendNanos;
+    private WebSocketSession delegate;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(WebSocketSession.class);
+        given(delegate.isOpen()).willReturn(true);
+    }
+
+    @Test
+    @DisplayName("적재한 프레임을 writer가 순서대로 전송한다")
+    void send_drainsInOrder() throws Exception {
+        OutboundSession session = create(Runnable::run, 1024);
+
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "a"));
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "b"));
+
+        var inOrder = inOrder(delegate);
+        inOrder.verify(delegate).sendMessage(new TextMessage("a"));
+        inOrder.verify(delegate).sendMessage(new TextMessage("b"));
+    }
+
+    @Test
+    @DisplayName("writer가 돌기 전까지 보내는 쪽은 블로킹되지 않고 큐에만 쌓인다")
+    void send_doesNotBlockCaller() throws Exception {
+        OutboundSession session = create(pendingDrains::add, 1024);
+
+        boolean accepted = session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "a"));
+
+        assertThat(accepted).isTrue();
+        assertThat(session.getQueueDepth()).isEqualTo(1);
+        verify(delegate, never()).sendMessage(any());
+
+        pendingDrains.forEach(Runnable::run);
+
+        verify(delegate).sendMessage(new TextMessage("a"));
+        assertThat(session.getQueueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("버퍼 초과 시 DROP_OLDEST 프레임부터 버린다")
+    void overflow_dropsOldestPresenceFrame() throws Exception {
+        OutboundSession session = create(pendingDrains::add, 10);
+
+        session.send(OutboundFrame.of(MessageType.USER_STATUS, "status-1"));
+        boolean accepted = session.send(OutboundFrame.of(MessageType.USER_STATUS, "status-2"));
+        pendingDrains.forEach(Runnable::run);
+
+        assertThat(accepted).isTrue();
+        verify(delegate, never()).sendMessage(new TextMessage("status-1"));
+        verify(delegate).sendMessage(new TextMessage("status-2"));
+        assertThat(meterRegistry.counter("chat.websocket.outbound.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("버릴 수 있는 프레임이 없는데 버퍼를 초과하면 세션을 끊는다")
+    void overflow_disconnectsForChatFrames() throws Exception {
+        OutboundSession session = create(pendingDrains::add, 10);
+
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "hello-1"));
+        boolean accepted = session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "hello-2"));
+
+        assertThat(accepted).isFalse();
+        assertThat(session.isOpen()).isFalse();
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    @DisplayName("전송 중 IOException 발생 시 세션을 끊고 남은 프레임은 버린다")
+    void drain_ioException_closesSession() throws Exception {
+        OutboundSession session = create(pendingDrains::add, 1024);
+        doThrow(new IOException("broken pipe")).when(delegate).sendMessage(new TextMessage("a"));
+
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "a"));
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "b"));
+        pendingDrains.forEach(Runnable::run);
+
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(delegate, never()).sendMessage(new TextMessage("b"));
+    }
+
+    @Test
+    @DisplayName("닫힌 세션에는 적재하지 않는다")
+    void send_closedSession_rejected() throws Exception {
+        given(delegate.isOpen()).willReturn(false);
+        OutboundSession session = create(Runnable::run, 1024);
+
+        assertThat(session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "a"))).isFalse();
+        verify(delegate, never()).sendMessage(any());
+    }
+
+    @Test
+    @DisplayName("CBOR 서브프로토콜 세션에는 바이너리 프레임으로 전송한다")
+    void send_cborSession_sendsBinary() throws Exception {
+        given(delegate.getAcceptedProtocol()).willReturn(WireFormat.CBOR.getSubprotocol());
+        OutboundSession session = create(Runnable::run, 1024);
+
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "{\"type\":\"message.received\"}"));
+
+        assertThat(session.getFormat()).isEqualTo(WireFormat.CBOR);
+        verify(delegate).sendMessage(any(BinaryMessage.class));
+    }
+
+    @Test
+    @DisplayName("전송 지연이 계속 임계값을 넘으면 큐를 비우고 sync.required만 보낸 뒤 개별 프레임은 보내지 않는다")
+    void slowConsumer_demotedToSyncRequired() throws Exception {
+        WebSocketOutboundProperties.SlowConsumer slow = new WebSocketOutboundProperties.SlowConsumer();
+        slow.setThreshold(Duration.ZERO);
+        slow.setDemoteAfter(Duration.ZERO);
+        slow.setCloseAfter(Duration.ofHours(1));
+        OutboundSession session = create(Runnable::run, 1024, slow);
+
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "a"));
+        boolean accepted = session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "b"));
+
+        assertThat(accepted).isTrue();
+        assertThat(session.getSlowState()).isEqualTo(OutboundSession.SlowState.DEMOTED);
+        verify(delegate).sendMessage(new TextMessage("a"));
+        verify(delegate).sendMessage(new TextMessage("{\"type\":\"sync.required\"}"));
+        verify(delegate, never()).sendMessage(new TextMessage("b"));
+        assertThat(meterRegistry.counter("chat.websocket.outbound.suppressed").count()).isEqualTo(1);
+
+        session.resume();
+        session.send(OutboundFrame.of(MessageType.MESSAGES_BATCH, "c"));
+
+        verify(delegate).sendMessage(new TextMessage("c"));
+    }
+
+    @Test
+    @DisplayName("closeAfter 동안 계속 느리면 4008로 세션을 끊는다")
+    void slowConsumer_closedAfterLimit() throws Exception {
+        WebSocketOutboundProperties.SlowConsumer slow = new WebSocketOutboundProperties.SlowConsumer();
+        slow.setThreshold(Duration.ZERO);
+        slow.setCloseAfter(Duration.ZERO);
+        OutboundSession session = create(Runnable::run, 1024, slow);
+
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "a"));
+
+        verify(delegate).close(OutboundSession.SLOW_CONSUMER);
+        assertThat(session.isOpen()).isFalse();
+        assertThat(meterRegistry.counter("chat.websocket.outbound.disconnects", "reason", "slow_consumer").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("전송이 빠르면 느린 소비자로 표시하지 않는다")
+    void fastConsumer_staysNormal() throws Exception {
+        OutboundSession session = create(Runnable::run, 1024);
+
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "a"));
+
+        assertThat(session.getSlowState()).isEqualTo(OutboundSession.SlowState.NORMAL);
+        assertThat(session.getSlowForNanos()).isZero();
+    }
+
+    @Test
+    @DisplayName("느린 전송 뒤 closeAfter보다 오래 쉬었다가 빠르게 보내면 끊지 않고 NORMAL로 돌아온다")
+    void slowConsumer_idleThenFastSend_staysOpen() throws Exception {
+        sendTakesNextSendNanos();
+        OutboundSession session = create(Runnable::run, 1024,
+                new WebSocketOutboundProperties.SlowConsumer(), nanos::get);
+        nextSendNanos = Duration.ofSeconds(2).toNanos();
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "a"));
+        assertThat(session.getSlowState()).isEqualTo(OutboundSession.SlowState.SLOW);
+
+        nanos.addAndGet(Duration.ofSeconds(61).toNanos());
+        nextSendNanos = Duration.ofMillis(1).toNanos();
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "b"));
+
+        assertThat(session.isOpen()).isTrue();
+        assertThat(session.getSlowState()).isEqualTo(OutboundSession.SlowState.NORMAL);
+        assertThat(session.getSendLatencyNanos()).isEqualTo(Duration.ofMillis(1).toNanos());
+        verify(delegate, never()).close(OutboundSession.SLOW_CONSUMER);
+    }
+
+    @Test
+    @DisplayName("강등된 뒤 sync를 보내지 않으면 주기 점검에서 closeAfter가 지났을 때 4008로 끊는다")
+    void slowConsumer_demotedWithoutSync_closedBySweep() throws Exception {
+        WebSocketOutboundProperties.SlowConsumer slow = new WebSocketOutboundProperties.SlowConsumer();
+        slow.setDemoteAfter(Duration.ZERO);
+        sendTakesNextSendNanos();
+        OutboundSession session = create(Runnable::run, 1024, slow, nanos::get);
+        nextSendNanos = Duration.ofSeconds(2).toNanos();
+        session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "a"));
+        assertThat(session.getSlowState()).isEqualTo(OutboundSession.SlowState.DEMOTED);
+
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        session.checkSlowConsumer();
+        verify(delegate, never()).close(OutboundSession.SLOW_CONSUMER);
+
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+        session.checkSlowConsumer();
+
+        verify(delegate).close(OutboundSession.SLOW_CONSUMER);
+        assertThat(session.send(OutboundFrame.of(MessageType.MESSAGE_RECEIVED, "b"))).isFalse();
+    }
+
+    /**
+     * 가짜 시계에서 전송 한 번마다 nextSendNanos만큼 시간이 흐르게 한다.
+     */
+    private void sendTakesNextSendNanos() throws IOException {
+        willAnswer(invocation -> nanos.addAndGet(nextSendNanos)).given(delegate).sendMessage(any());
+    }
+
+    private OutboundSession create(Executor writer, int bufferSizeLimit) {
+        return create(writer, bufferSizeLimit, new WebSocketOutboundProperties.SlowConsumer());
+    }
+
+    private OutboundSession create(Executor writer, int bufferSizeLimit,
+                                   WebSocketOutboundProperties.SlowConsumer slowConsumer) {
+        return create(writer, bufferSizeLimit, slowConsumer, System::nanoTime);
+    }
+
+    private OutboundSession create(Executor writer, int bufferSizeLimit,
+                                   WebSocketOutboundProperties.SlowConsumer slowConsumer,
+                                   LongSupplier clock) {
+        WebSocketOutboundProperties properties = new WebSocketOutboundProperties();
+        properties.setSlowConsumer(slowConsumer);
+        properties.setBufferSizeLimit(bufferSizeLimit);
+        properties.setSendTimeLimit(Duration.ofSeconds(5));
+        CompressionReport compressionReport = new CompressionReport(new WebSocketCompressionProperties(), meterRegistry);
+        return new OutboundSessionFactory(properties, new FrameCodec(new ObjectMapper()), compressionReport,
+                writer, meterRegistry, clock)
+                .create(delegate);
+    }
+}
@@ -0,0 +1,110 @@
+package com.bok.chat.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RoomDispatcher")
+class RoomDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RoomDispatcher dispatcher =
+            new RoomDispatcher(4, 100, new CustomizableThreadFactory("test-lane-"), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("같은 방의 작업은 제출한 순서대로 실행된다")
+    void sameRoom_runsInOrder() throws Exception {
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(100);
+
+        for (int i = 0; i < 100; i++) {
+            int seq = i;
+            dispatcher.execute(7L, () -> {
+                executed.add(seq);
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executed).containsExactlyElementsOf(IntStream.range(0, 100).boxed().toList());
+    }
+
+    @Test
+    @DisplayName("한 방의 작업이 막혀 있어도 다른 레인의 방은 처리된다")
+    void otherLane_notBlocked() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherRoomDone = new CountDownLatch(1);
+        assertThat(dispatcher.laneOf(1L)).isNotEqualTo(dispatcher.laneOf(2L));
+
+        dispatcher.execute(1L, () -> awaitQuietly(release));
+        dispatcher.execute(2L, otherRoomDone::countDown);
+
+        assertThat(otherRoomDone.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("작업이 예외를 던져도 레인은 계속 다음 작업을 처리한다")
+    void failingTask_doesNotStopLane() throws Exception {
+        CountDownLatch next = new CountDownLatch(1);
+
+        dispatcher.execute(3L, () -> {
+            throw new IllegalStateException("boom");
+        });
+        dispatcher.execute(3L, next::countDown);
+
+        assertThat(next.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("레인이 가득 차면 예외 대신 false를 반환하고 거부 수를 센다")
+    void fullLane_returnsFalse() throws Exception {
+        SimpleMeterRegistry smallRegistry = new SimpleMeterRegistry();
+        RoomDispatcher small = new RoomDispatcher(1, 1, new CustomizableThreadFactory("small-lane-"), smallRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            assertThat(small.execute(1L, () -> {
+                started.countDown();
+                awaitQuietly(release);
+            })).isTrue();
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(small.execute(1L, () -> { })).isTrue();
+
+            assertThat(small.execute(1L, () -> { })).isFalse();
+            assertThat(smallRegistry.counter("chat.room.dispatcher.rejected").count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            small.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("레인별 대기 작업 수를 게이지로 노출한다")
+    void registersQueueDepthPerLane() {
+        assertThat(meterRegistry.find("chat.room.dispatcher.queue.depth").gauges()).hasSize(4);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
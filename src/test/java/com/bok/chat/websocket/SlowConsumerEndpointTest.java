@@ -0,0 +1,51 @@
+package com.bok.chat.websocket;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("SlowConsumerEndpoint")
+class SlowConsumerEndpointTest {
+
+    @Test
+    @DisplayName("전송 지연이 큰 순서로 limit개만 반환한다")
+    void worst_sortedByLatency() {
+        WebSocketSessionManager sessionManager = mock(WebSocketSessionManager.class);
+        OutboundSession fast = session("fast", 1_000_000L);
+        OutboundSession slow = session("slow", 900_000_000L);
+        OutboundSession medium = session("medium", 50_000_000L);
+        doAnswer(invocation -> {
+            BiConsumer<Long, OutboundSession> action = invocation.getArgument(0);
+            action.accept(1L, fast);
+            action.accept(2L, slow);
+            action.accept(3L, medium);
+            return null;
+        }).when(sessionManager).forEachSession(any());
+
+        List<SlowConsumerEndpoint.SessionView> views = new SlowConsumerEndpoint(sessionManager).worst(2);
+
+        assertThat(views).extracting(SlowConsumerEndpoint.SessionView::sessionId)
+                .containsExactly("slow", "medium");
+        assertThat(views.get(0).userId()).isEqualTo(2L);
+        assertThat(views.get(0).sendLatencyMillis()).isEqualTo(900.0);
+    }
+
+    private static OutboundSession session(String id, long latencyNanos) {
+        WebSocketSession delegate = mock(WebSocketSession.class);
+        given(delegate.getId()).willReturn(id);
+        OutboundSession session = mock(OutboundSession.class);
+        given(session.getDelegate()).willReturn(delegate);
+        given(session.getSendLatencyNanos()).willReturn(latencyNanos);
+        given(session.getSlowState()).willReturn(OutboundSession.SlowState.NORMAL);
+        return session;
+    }
+}
@@ -1,5 +1,7 @@
 package com.bok.chat.websocket;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.socket.WebSocketSession;
@@ -11,55 +13,89 @@ import static org.mockito.Mockito.mock;
 @DisplayName("WebSocketSessionManager")
 class WebSocketSessionManagerTest {
 
-    private final WebSocketSessionManager manager = new WebSocketSessionManager();
+    private final WebSocketSessionManager manager = new WebSocketSessionManager(
+            new OutboundSessionFactory(new WebSocketOutboundProperties(), new FrameCodec(new ObjectMapper()),
+                    new CompressionReport(new WebSocketCompressionProperties(), new SimpleMeterRegistry()),
+                    Runnable::run, new SimpleMeterRegistry()));
 
     @Test
     @DisplayName("세션을 등록하면 조회할 수 있다")
-    void register_andGetSession() {
+    void register_andGetSessions() {
         WebSocketSession session = mock(WebSocketSession.class);
 
-        manager.register(1L, session);
+        OutboundSession outbound = manager.register(1L, session);
 
-        assertThat(manager.getSession(1L)).isSameAs(session);
+        assertThat(manager.getSessions(1L)).containsExactly(outbound);
+        assertThat(outbound.getDelegate()).isSameAs(session);
     }
 
     @Test
-    @DisplayName("동일 세션으로 제거하면 조회할 수 없다")
-    void remove_sameSession() {
+    @DisplayName("같은 유저의 두 번째 기기가 연결되면 기존 세션을 대체하지 않고 함께 유지한다")
+    void register_secondDevice_keepsBoth() {
+        WebSocketSession phone = mock(WebSocketSession.class);
+        WebSocketSession desktop = mock(WebSocketSession.class);
+
+        OutboundSession phoneOutbound = manager.register(1L, phone);
+        OutboundSession desktopOutbound = manager.register(1L, desktop);
+
+        assertThat(manager.getSessions(1L)).containsExactly(phoneOutbound, desktopOutbound);
+    }
+
+    @Test
+    @DisplayName("마지막 세션을 제거하면 true를 반환하고 조회할 수 없다")
+    void remove_lastSession() {
         WebSocketSession session = mock(WebSocketSession.class);
         manager.register(1L, session);
 
-        boolean removed = manager.remove(1L, session);
+        boolean lastSession = manager.remove(1L, session);
 
-        assertThat(removed).isTrue();
-        assertThat(manager.getSession(1L)).isNull();
+        assertThat(lastSession).isTrue();
+        assertThat(manager.getSessions(1L)).isEmpty();
     }
 
     @Test
-    @DisplayName("다른 세션으로 제거하면 기존 세션이 유지된다")
-    void remove_differentSession_keepsExisting() {
-        WebSocketSession oldSession = mock(WebSocketSession.class);
-        WebSocketSession newSession = mock(WebSocketSession.class);
-        manager.register(1L, newSession);
+    @DisplayName("다른 기기 세션이 남아있으면 false를 반환하고 남은 세션은 유지된다")
+    void remove_otherDeviceRemains() {
+        WebSocketSession phone = mock(WebSocketSession.class);
+        WebSocketSession desktop = mock(WebSocketSession.class);
+        manager.register(1L, phone);
+        OutboundSession desktopOutbound = manager.register(1L, desktop);
 
-        boolean removed = manager.remove(1L, oldSession);
+        boolean lastSession = manager.remove(1L, phone);
 
-        assertThat(removed).isFalse();
-        assertThat(manager.getSession(1L)).isSameAs(newSession);
+        assertThat(lastSession).isFalse();
+        assertThat(manager.getSessions(1L)).containsExactly(desktopOutbound);
     }
 
     @Test
-    @DisplayName("등록되지 않은 userId 조회 시 null을 반환한다")
-    void getSession_notRegistered_returnsNull() {
-        assertThat(manager.getSession(999L)).isNull();
+    @DisplayName("등록되지 않은 세션으로 제거하면 기존 세션이 유지된다")
+    void remove_unknownSession_keepsExisting() {
+        WebSocketSession unknown = mock(WebSocketSession.class);
+        WebSocketSession current = mock(WebSocketSession.class);
+        manager.register(1L, current);
+
+        boolean lastSession = manager.remove(1L, unknown);
+
+        assertThat(lastSession).isFalse();
+        assertThat(manager.getSessions(1L)).hasSize(1);
+        assertThat(manager.getSessions(1L).get(0).getDelegate()).isSameAs(current);
     }
 
     @Test
-    @DisplayName("열린 세션이 등록되면 isOnline은 true를 반환한다")
-    void isOnline_openSession_returnsTrue() {
-        WebSocketSession session = mock(WebSocketSession.class);
-        given(session.isOpen()).willReturn(true);
-        manager.register(1L, session);
+    @DisplayName("등록되지 않은 userId 조회 시 빈 목록을 반환한다")
+    void getSessions_notRegistered_returnsEmpty() {
+        assertThat(manager.getSessions(999L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("열린 세션이 하나라도 있으면 isOnline은 true를 반환한다")
+    void isOnline_anyOpenSession_returnsTrue() {
+        WebSocketSession closed = mock(WebSocketSession.class);
+        given(closed.isOpen()).willReturn(false);
+        WebSocketSession open = mock(WebSocketSession.class);
+        given(open.isOpen()).willReturn(true);
+        manager.register(1L, closed);
+        manager.register(1L, open);
 
         assertThat(manager.isOnline(1L)).isTrue();
     }